@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud;
+
+import static com.google.common.base.Charsets.UTF_8;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.io.Resources;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Recorded api responses under {@code /fixtures}, which benchmarks parse without any network access. Listings can be
+ * scaled up by repeating their items, to measure pages of realistic size.
+ */
+public final class Fixtures {
+
+   /** Arrays holding the items of a page, including the per-scope items of aggregated listings. */
+   private static final Set<String> ITEM_ARRAYS = ImmutableSet.of("items", "instances");
+
+   public static String fixture(String name) {
+      try {
+         return Resources.toString(Resources.getResource(Fixtures.class, "/fixtures/" + name), UTF_8);
+      } catch (IOException e) {
+         throw new IllegalStateException("cannot read fixture " + name, e);
+      }
+   }
+
+   /** Returns the fixture with the items of each listed array repeated {@code copies} times. */
+   public static String fixture(String name, int copies) {
+      JsonObject page = new JsonParser().parse(fixture(name)).getAsJsonObject();
+      repeatItems(page, copies);
+      return page.toString();
+   }
+
+   private static void repeatItems(JsonObject object, int copies) {
+      Map<String, JsonElement> repeated = Maps.newLinkedHashMap();
+      for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+         JsonElement value = entry.getValue();
+         if (ITEM_ARRAYS.contains(entry.getKey()) && value.isJsonArray()) {
+            JsonArray items = new JsonArray();
+            for (int i = 0; i < copies; i++) {
+               for (JsonElement item : value.getAsJsonArray()) {
+                  items.add(item);
+               }
+            }
+            repeated.put(entry.getKey(), items);
+         } else if (value.isJsonObject()) {
+            repeatItems(value.getAsJsonObject(), copies);
+         }
+      }
+      for (Map.Entry<String, JsonElement> entry : repeated.entrySet()) {
+         object.add(entry.getKey(), entry.getValue());
+      }
+   }
+
+   private Fixtures() {
+   }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.features;
+
+import static org.jclouds.googlecloud.Fixtures.fixture;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.googlecloudstorage.config.GoogleCloudStorageParserModule;
+import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
+import org.jclouds.googlecloudstorage.domain.ListPageWithPrefixes;
+import org.jclouds.json.config.GsonModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.inject.Guice;
+
+/**
+ * Parses a recorded object listing with prefixes, as returned by {@link ObjectApi#listObjects} for delimited listings.
+ *
+ * <p/>Run with {@code -prof gc} to also report the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectListParsingBenchmark {
+   private static final Type OBJECT_PAGE = new TypeToken<ListPageWithPrefixes<GoogleCloudStorageObject>>() {
+   }.getType();
+
+   /** Times the recorded objects are repeated in the listing. */
+   @Param({ "1", "500" })
+   public int copies;
+
+   private Gson gson;
+   private String objects;
+
+   @Setup public void setup() {
+      gson = Guice.createInjector(new GsonModule(), new GoogleCloudStorageParserModule()).getInstance(Gson.class);
+      objects = fixture("object_list_with_prefixes.json", copies);
+   }
+
+   @Benchmark public ListPageWithPrefixes<GoogleCloudStorageObject> objectListWithPrefixes() {
+      return gson.fromJson(objects, OBJECT_PAGE);
+   }
+}
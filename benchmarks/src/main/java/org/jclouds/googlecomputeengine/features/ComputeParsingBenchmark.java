@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecomputeengine.features;
+
+import static org.jclouds.googlecloud.Fixtures.fixture;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.googlecloud.domain.ListPage;
+import org.jclouds.googlecomputeengine.config.GoogleComputeEngineParserModule;
+import org.jclouds.googlecomputeengine.domain.Instance;
+import org.jclouds.googlecomputeengine.domain.Operation;
+import org.jclouds.json.config.GsonModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.inject.Guice;
+
+/**
+ * Parses recorded compute responses the way the apis do: an aggregated instance listing, through
+ * {@link org.jclouds.googlecloud.config.ListPageAdapterFactory} and the domain factories, and the operation that is
+ * polled while waiting for every change.
+ *
+ * <p/>Run with {@code -prof gc} to also report the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComputeParsingBenchmark {
+   private static final Type INSTANCE_PAGE = new TypeToken<ListPage<Instance>>() {
+   }.getType();
+
+   /** Times the recorded instance is repeated in the aggregated listing. */
+   @Param({ "1", "500" })
+   public int instances;
+
+   private Gson gson;
+   private String aggregatedInstances;
+   private String operation;
+
+   @Setup public void setup() {
+      gson = Guice.createInjector(new GsonModule(), new GoogleComputeEngineParserModule()).getInstance(Gson.class);
+      aggregatedInstances = fixture("aggregated_instance_list.json", instances);
+      operation = fixture("zone_operation.json");
+   }
+
+   @Benchmark public ListPage<Instance> aggregatedInstanceList() {
+      return gson.fromJson(aggregatedInstances, INSTANCE_PAGE);
+   }
+
+   @Benchmark public Operation operationPoll() {
+      return gson.fromJson(operation, Operation.class);
+   }
+}
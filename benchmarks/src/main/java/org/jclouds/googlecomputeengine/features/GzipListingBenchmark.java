@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecomputeengine.features;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.jclouds.googlecloud.config.GoogleCloudProperties.CREDENTIAL_TYPE;
+import static org.jclouds.googlecloud.config.GoogleCloudProperties.GZIP_RESPONSES;
+import static org.jclouds.googlecloud.config.GoogleCloudProperties.PROJECT_NAME;
+import static org.jclouds.oauth.v2.config.CredentialType.BEARER_TOKEN_CREDENTIALS;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.googlecloud.domain.ListPage;
+import org.jclouds.googlecomputeengine.GoogleComputeEngineApi;
+import org.jclouds.googlecomputeengine.GoogleComputeEngineProviderMetadata;
+import org.jclouds.googlecomputeengine.domain.Instance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * End-to-end latency of listing 10k instances from a local stand-in for the compute api, with and without gzip.
+ * The wire bytes of one listing are printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GzipListingBenchmark {
+   private static final int ITEMS = 10000;
+
+   @Param({ "true", "false" })
+   public boolean gzip;
+
+   private final AtomicLong wireBytes = new AtomicLong();
+   private HttpServer server;
+   private InstanceApi api;
+
+   @Setup public void setup() throws IOException {
+      final byte[] plain = instanceList(ITEMS).getBytes(UTF_8);
+      final byte[] compressed = gzip(plain);
+      server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+      server.createContext("/", new HttpHandler() {
+         @Override public void handle(HttpExchange exchange) throws IOException {
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            String userAgent = exchange.getRequestHeaders().getFirst("User-Agent");
+            // like google, only compress when the user agent also asks for it
+            boolean compress = acceptEncoding != null && acceptEncoding.contains("gzip")
+                  && userAgent != null && userAgent.contains("gzip");
+            byte[] body = compress ? compressed : plain;
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            if (compress) {
+               exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            OutputStream out = exchange.getResponseBody();
+            out.write(body);
+            out.close();
+            wireBytes.set(body.length);
+         }
+      });
+      server.start();
+
+      Properties overrides = new Properties();
+      overrides.setProperty(PROJECT_NAME, "party");
+      overrides.setProperty(CREDENTIAL_TYPE, BEARER_TOKEN_CREDENTIALS.toString());
+      overrides.setProperty(GZIP_RESPONSES, String.valueOf(gzip));
+      api = ContextBuilder.newBuilder(new GoogleComputeEngineProviderMetadata())
+            .credentials("benchmark@developer.gserviceaccount.com", "token")
+            .endpoint("http://localhost:" + server.getAddress().getPort())
+            .overrides(overrides)
+            .buildApi(GoogleComputeEngineApi.class).instancesInZone("us-central1-a");
+   }
+
+   @TearDown public void tearDown() {
+      System.out.printf("%nwire bytes per listing of %d instances, gzip=%s: %d%n", ITEMS, gzip, wireBytes.get());
+      server.stop(0);
+   }
+
+   @Benchmark public ListPage<Instance> listInstances() {
+      return api.list().next();
+   }
+
+   private static byte[] gzip(byte[] plain) throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      GZIPOutputStream out = new GZIPOutputStream(bytes);
+      out.write(plain);
+      out.close();
+      return bytes.toByteArray();
+   }
+
+   static String instanceList(int count) {
+      String base = "https://www.googleapis.com/compute/v1/projects/party/zones/us-central1-a";
+      StringBuilder json = new StringBuilder("{\"kind\":\"compute#instanceList\",\"items\":[");
+      for (int i = 0; i < count; i++) {
+         if (i > 0) {
+            json.append(',');
+         }
+         json.append("{\"kind\":\"compute#instance\",\"id\":\"").append(13051190678907570000L + i)
+               .append("\",\"creationTimestamp\":\"2012-11-25T23:48:20.758\",\"selfLink\":\"").append(base)
+               .append("/instances/test-").append(i).append("\",\"name\":\"test-").append(i)
+               .append("\",\"tags\":{\"items\":[\"aTag\"],\"fingerprint\":\"abcd\"},\"machineType\":\"").append(base)
+               .append("/machineTypes/n1-standard-1\",\"status\":\"RUNNING\",\"zone\":\"").append(base)
+               .append("\",\"networkInterfaces\":[{\"name\":\"nic0\",\"network\":")
+               .append("\"https://www.googleapis.com/compute/v1/projects/party/global/networks/default\",")
+               .append("\"networkIP\":\"10.240.121.115\",\"accessConfigs\":[]}],")
+               .append("\"disks\":[{\"kind\":\"compute#attachedDisk\",\"index\":0,\"type\":\"PERSISTENT\",")
+               .append("\"mode\":\"READ_WRITE\",\"source\":\"").append(base).append("/disks/test-").append(i)
+               .append("\",\"deviceName\":\"test\",\"autoDelete\":true,\"boot\":true}],")
+               .append("\"metadata\":{\"items\":[{\"key\":\"aKey\",\"value\":\"aValue\"}],\"fingerprint\":\"efgh\"},")
+               .append("\"serviceAccounts\":[],")
+               .append("\"scheduling\":{\"onHostMaintenance\":\"MIGRATE\",\"automaticRestart\":false}}");
+      }
+      return json.append("]}").toString();
+   }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecomputeengine.features;
+
+import java.lang.reflect.Type;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Singleton;
+
+import org.jclouds.googlecloud.config.ListPageAdapterFactory;
+import org.jclouds.googlecloud.domain.ListPage;
+import org.jclouds.googlecomputeengine.config.GoogleComputeEngineParserModule;
+import org.jclouds.googlecomputeengine.domain.Instance;
+import org.jclouds.json.config.GsonModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Module;
+import com.google.inject.Provides;
+import com.google.inject.util.Modules;
+
+/**
+ * Parses a page of 1000 instances with the streaming {@link Instance} adapter registered by
+ * {@link GoogleComputeEngineParserModule}, against the reflective {@code @SerializedNames} path it replaces.
+ *
+ * <p/>Run with {@code -prof gc} to compare the bytes allocated per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstanceParsingBenchmark {
+   private static final Type PAGE = new TypeToken<ListPage<Instance>>() {
+   }.getType();
+
+   @Param({ "true", "false" })
+   public boolean streaming;
+
+   private Gson gson;
+   private String page;
+
+   @Setup public void setup() {
+      Module parser = new GoogleComputeEngineParserModule();
+      if (!streaming) {
+         parser = Modules.override(parser).with(new AbstractModule() {
+            @Override protected void configure() {
+            }
+
+            @Provides @Singleton Set<TypeAdapterFactory> typeAdapterFactories() {
+               return ImmutableSet.<TypeAdapterFactory>of(new ListPageAdapterFactory());
+            }
+         });
+      }
+      gson = Guice.createInjector(new GsonModule(), parser).getInstance(Gson.class);
+      page = GzipListingBenchmark.instanceList(1000);
+   }
+
+   @Benchmark public ListPage<Instance> parsePage() {
+      return gson.fromJson(page, PAGE);
+   }
+}
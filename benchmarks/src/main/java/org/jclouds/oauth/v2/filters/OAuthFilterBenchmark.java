@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.oauth.v2.filters;
+
+import static com.google.common.base.Suppliers.ofInstance;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.domain.Credentials;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.oauth.v2.AuthorizationApi;
+import org.jclouds.oauth.v2.config.OAuthMetricsListener;
+import org.jclouds.oauth.v2.config.OAuthScopes;
+import org.jclouds.oauth.v2.config.OAuthScopes.ReadOrWriteScopes;
+import org.jclouds.oauth.v2.domain.Claims;
+import org.jclouds.oauth.v2.domain.Token;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.base.Joiner;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+/**
+ * Cost of adding the {@code Authorization} header to a request when the token is already cached, against the way
+ * {@link JWTBearerTokenFlow} used to do it: joining scopes, building claims and formatting the header per request.
+ *
+ * <p/>Run with {@code -prof gc}: the difference in bytes allocated per operation is what the filter itself allocates,
+ * as both include the copy of the request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OAuthFilterBenchmark {
+   private static final String IDENTITY = "761326798069-r5mljlln1rd4lrbhg75efgigp36m78j5@developer.gserviceaccount.com";
+   private static final String AUDIENCE = "https://accounts.google.com/o/oauth2/token";
+   private static final Token TOKEN = Token.create("1/8xbJqaOZXSUZbHLl5EOtu1pxz3fmmetKx9W8CV4t79M", "Bearer", 3600);
+
+   private final OAuthScopes scopes = ReadOrWriteScopes.create("https://www.googleapis.com/auth/compute.readonly",
+         "https://www.googleapis.com/auth/compute");
+   private final HttpRequest request = HttpRequest.builder().method("GET")
+         .endpoint("https://www.googleapis.com/compute/v1/projects/party/zones/us-central1-a/instances/test-1").build();
+
+   private JWTBearerTokenFlow filter;
+   private LoadingCache<Claims, Token> claimsCache;
+
+   @Setup public void setup() {
+      AuthorizationApi api = new AuthorizationApi() {
+         @Override public Token authorize(Claims claims) {
+            return TOKEN;
+         }
+
+         @Override public void close() {
+         }
+      };
+      OAuthMetricsListener metrics = new OAuthMetricsListener.NoOp();
+      TokenCache tokenCache = new TokenCache(new TokenRefreshScheduler(sameThreadExecutor(), metrics),
+            new PersistentTokenStore(), metrics);
+      filter = new JWTBearerTokenFlow(new JWTBearerTokenFlow.AuthorizeToken(api, metrics), 3600, AUDIENCE,
+            ofInstance(new Credentials(IDENTITY, "")), scopes, tokenCache);
+      claimsCache = CacheBuilder.newBuilder().expireAfterWrite(3600, SECONDS).build(new CacheLoader<Claims, Token>() {
+         @Override public Token load(Claims key) {
+            return TOKEN;
+         }
+      });
+      // warm both caches
+      filter.filter(request);
+      perRequestRendering();
+   }
+
+   @Benchmark public HttpRequest cachedHeader() {
+      return filter.filter(request);
+   }
+
+   @Benchmark public HttpRequest perRequestRendering() {
+      // what each request used to do, with a constant time so that the claims cache hits
+      Claims claims = Claims.create(IDENTITY, Joiner.on(",").join(scopes.forRequest(request)), AUDIENCE, 3600, 0);
+      Token token = claimsCache.getUnchecked(claims);
+      String authorization = String.format("%s %s", token.tokenType(), token.accessToken());
+      return request.toBuilder().addHeader("Authorization", authorization).build();
+   }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.oauth.v2.functions;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.base.Joiner.on;
+import static com.google.common.base.Suppliers.ofInstance;
+import static com.google.common.io.BaseEncoding.base64Url;
+
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.json.Json;
+import org.jclouds.json.config.GsonModule;
+import org.jclouds.oauth.v2.config.OAuthMetricsListener;
+import org.jclouds.oauth.v2.domain.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.inject.Guice;
+
+/**
+ * Assertions per second of {@link ClaimsToAssertion}, against the implementation it replaced which looked up a new
+ * {@link Signature} and re-encoded the header for every assertion.
+ *
+ * <p/>Run with {@code -prof gc} to report the bytes allocated per assertion.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClaimsToAssertionBenchmark {
+
+   private PrivateKey privateKey;
+   private Json json;
+   private Claims claims;
+   private ClaimsToAssertion claimsToAssertion;
+
+   @Setup public void setup() throws Exception {
+      KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+      generator.initialize(2048);
+      privateKey = generator.generateKeyPair().getPrivate();
+      json = Guice.createInjector(new GsonModule()).getInstance(Json.class);
+      claims = Claims.create("761326798069-r5mljlln1rd4lrbhg75efgigp36m78j5@developer.gserviceaccount.com",
+            "https://www.googleapis.com/auth/compute", "https://accounts.google.com/o/oauth2/token", 1328573381,
+            1328569781);
+      claimsToAssertion = new ClaimsToAssertion("RS256", ofInstance(privateKey), json,
+            new OAuthMetricsListener.NoOp());
+   }
+
+   @Benchmark public String pooledSigner() {
+      return claimsToAssertion.apply(claims);
+   }
+
+   @Benchmark public String signerPerAssertion() throws Exception {
+      String encodedHeader = String.format("{\"alg\":\"%s\",\"typ\":\"JWT\"}", "RS256");
+      String encodedClaimSet = json.toJson(claims);
+
+      encodedHeader = base64Url().omitPadding().encode(encodedHeader.getBytes(UTF_8));
+      encodedClaimSet = base64Url().omitPadding().encode(encodedClaimSet.getBytes(UTF_8));
+
+      Signature signature = Signature.getInstance("SHA256withRSA");
+      signature.initSign(privateKey);
+      signature.update(on(".").join(encodedHeader, encodedClaimSet).getBytes(UTF_8));
+      String encodedSignature = base64Url().omitPadding().encode(signature.sign());
+
+      return on(".").join(encodedHeader, encodedClaimSet, encodedSignature);
+   }
+}
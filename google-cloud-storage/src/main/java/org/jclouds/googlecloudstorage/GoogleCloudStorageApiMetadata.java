@@ -17,8 +17,12 @@
 package org.jclouds.googlecloudstorage;
 
 import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.MULTIPART_UPLOAD_STRATEGY;
 import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.OPERATION_COMPLETE_INTERVAL;
 import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.OPERATION_COMPLETE_TIMEOUT;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.RESUMABLE_UPLOAD_CHUNK_SIZE;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.STREAMING_UPLOAD_BUFFERS;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.STREAMING_UPLOAD_DIRECT_BUFFERS;
 import static org.jclouds.oauth.v2.config.OAuthProperties.AUDIENCE;
 import static org.jclouds.oauth.v2.config.OAuthProperties.JWS_ALG;
 import static org.jclouds.reflect.Reflection2.typeToken;
@@ -60,6 +64,10 @@ public class GoogleCloudStorageApiMetadata extends BaseHttpApiMetadata<GoogleClo
       properties.put(PROPERTY_SESSION_INTERVAL, 3600);
       properties.put(OPERATION_COMPLETE_INTERVAL, 2000);
       properties.put(OPERATION_COMPLETE_TIMEOUT, 600000);
+      properties.put(MULTIPART_UPLOAD_STRATEGY, "sequential");
+      properties.put(RESUMABLE_UPLOAD_CHUNK_SIZE, 8 * 1024 * 1024);
+      properties.put(STREAMING_UPLOAD_BUFFERS, 4);
+      properties.put(STREAMING_UPLOAD_DIRECT_BUFFERS, false);
       return properties;
    }
 
@@ -55,6 +55,7 @@ import org.jclouds.googlecloudstorage.blobstore.functions.BucketToStorageMetadat
 import org.jclouds.googlecloudstorage.blobstore.functions.ObjectListToStorageMetadata;
 import org.jclouds.googlecloudstorage.blobstore.functions.ObjectToBlobMetadata;
 import org.jclouds.googlecloudstorage.blobstore.strategy.internal.MultipartUploadStrategy;
+import org.jclouds.googlecloudstorage.blobstore.strategy.internal.StreamingUploadStrategy;
 import org.jclouds.googlecloudstorage.domain.Bucket;
 import org.jclouds.googlecloudstorage.domain.DomainResourceReferences;
 import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
@@ -86,6 +87,7 @@ public final class GoogleCloudStorageBlobStore extends BaseBlobStore {
    private final BlobMetadataToObjectTemplate blobMetadataToObjectTemplate;
    private final BlobStoreListContainerOptionsToListObjectOptions listContainerOptionsToListObjectOptions;
    private final Provider<MultipartUploadStrategy> multipartUploadStrategy;
+   private final StreamingUploadStrategy streamingUploadStrategy;
    private final Supplier<String> projectId;
 
    @Inject GoogleCloudStorageBlobStore(BlobStoreContext context, BlobUtils blobUtils, Supplier<Location> defaultLocation,
@@ -95,7 +97,8 @@ public final class GoogleCloudStorageBlobStore extends BaseBlobStore {
             Provider<FetchBlobMetadata> fetchBlobMetadataProvider,
             BlobMetadataToObjectTemplate blobMetadataToObjectTemplate,
             BlobStoreListContainerOptionsToListObjectOptions listContainerOptionsToListObjectOptions,
-            Provider<MultipartUploadStrategy> multipartUploadStrategy, @CurrentProject Supplier<String> projectId) {
+            Provider<MultipartUploadStrategy> multipartUploadStrategy, StreamingUploadStrategy streamingUploadStrategy,
+            @CurrentProject Supplier<String> projectId) {
       super(context, blobUtils, defaultLocation, locations);
       this.api = api;
       this.bucketToStorageMetadata = bucketToStorageMetadata;
@@ -106,6 +109,7 @@ public final class GoogleCloudStorageBlobStore extends BaseBlobStore {
       this.listContainerOptionsToListObjectOptions = listContainerOptionsToListObjectOptions;
       this.projectId = projectId;
       this.multipartUploadStrategy = multipartUploadStrategy;
+      this.streamingUploadStrategy = streamingUploadStrategy;
    }
 
    @Override
@@ -215,7 +219,9 @@ public final class GoogleCloudStorageBlobStore extends BaseBlobStore {
     */
    @Override
    public String putBlob(String container, Blob blob) {
-      checkNotNull(blob.getPayload().getContentMetadata().getContentLength());
+      if (blob.getPayload().getContentMetadata().getContentLength() == null) {
+         return streamingUploadStrategy.execute(container, blob);
+      }
       HashCode md5 = blob.getMetadata().getContentMetadata().getContentMD5AsHashCode();
 
       ObjectTemplate template = blobMetadataToObjectTemplate.apply(blob.getMetadata());
@@ -228,7 +234,8 @@ public final class GoogleCloudStorageBlobStore extends BaseBlobStore {
 
    @Override
    public String putBlob(String container, Blob blob, PutOptions options) {
-      if (options.isMultipart()) {
+      if (options.isMultipart() && (blob.getPayload().getContentMetadata().getContentLength() != null
+            || blob.getMetadata().getContentMetadata().getContentLength() != null)) {
          return multipartUploadStrategy.get().execute(container, blob);
       } else {
          return putBlob(container, blob);
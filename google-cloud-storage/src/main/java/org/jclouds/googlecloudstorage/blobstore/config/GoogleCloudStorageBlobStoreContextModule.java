@@ -16,11 +16,27 @@
  */
 package org.jclouds.googlecloudstorage.blobstore.config;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.MULTIPART_UPLOAD_STRATEGY;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.RESUMABLE_UPLOAD_CHUNK_SIZE;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.STREAMING_UPLOAD_BUFFERS;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.STREAMING_UPLOAD_DIRECT_BUFFERS;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
 import org.jclouds.blobstore.BlobStore;
 import org.jclouds.blobstore.attr.ConsistencyModel;
 import org.jclouds.googlecloudstorage.blobstore.GoogleCloudStorageBlobStore;
+import org.jclouds.googlecloudstorage.blobstore.strategy.internal.ByteBufferPool;
+import org.jclouds.googlecloudstorage.blobstore.strategy.internal.MultipartUploadStrategy;
+import org.jclouds.googlecloudstorage.blobstore.strategy.internal.ParallelMultipartUploadStrategy;
+import org.jclouds.googlecloudstorage.blobstore.strategy.internal.ResumableUploadStrategy;
+import org.jclouds.googlecloudstorage.blobstore.strategy.internal.SequentialMultipartUploadStrategy;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
 import com.google.inject.Scopes;
 
 public class GoogleCloudStorageBlobStoreContextModule extends AbstractModule {
@@ -30,4 +46,26 @@ public class GoogleCloudStorageBlobStoreContextModule extends AbstractModule {
       bind(ConsistencyModel.class).toInstance(ConsistencyModel.EVENTUAL);
       bind(BlobStore.class).to(GoogleCloudStorageBlobStore.class).in(Scopes.SINGLETON);
    }
+
+   @Provides
+   MultipartUploadStrategy multipartUploadStrategy(@Named(MULTIPART_UPLOAD_STRATEGY) String strategy,
+         Provider<SequentialMultipartUploadStrategy> sequential, Provider<ParallelMultipartUploadStrategy> parallel,
+         Provider<ResumableUploadStrategy> resumable) {
+      if ("parallel".equals(strategy)) {
+         return parallel.get();
+      }
+      if ("resumable".equals(strategy)) {
+         return resumable.get();
+      }
+      checkArgument("sequential".equals(strategy), "%s must be sequential, parallel or resumable, not %s",
+            MULTIPART_UPLOAD_STRATEGY, strategy);
+      return sequential.get();
+   }
+
+   @Provides
+   @Singleton
+   ByteBufferPool streamingUploadBuffers(@Named(RESUMABLE_UPLOAD_CHUNK_SIZE) int chunkSize,
+         @Named(STREAMING_UPLOAD_BUFFERS) int buffers, @Named(STREAMING_UPLOAD_DIRECT_BUFFERS) boolean direct) {
+      return new ByteBufferPool(chunkSize, buffers, direct);
+   }
 }
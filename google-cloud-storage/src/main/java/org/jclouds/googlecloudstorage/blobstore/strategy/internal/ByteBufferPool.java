@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Fixed-size buffers reused across uploads. At most {@code maxBuffers} are handed out at the same time, so the memory
+ * held by uploads stays bounded however many run and however large their objects are.
+ */
+public final class ByteBufferPool {
+
+   private final int bufferSize;
+   private final boolean direct;
+   private final Semaphore available;
+   private final Queue<ByteBuffer> free = new ConcurrentLinkedQueue<ByteBuffer>();
+
+   /**
+    * @param direct whether to allocate direct buffers, outside of the heap
+    */
+   public ByteBufferPool(int bufferSize, int maxBuffers, boolean direct) {
+      checkArgument(bufferSize > 0, "bufferSize must be positive, not %s", bufferSize);
+      checkArgument(maxBuffers > 0, "maxBuffers must be positive, not %s", maxBuffers);
+      this.bufferSize = bufferSize;
+      this.direct = direct;
+      this.available = new Semaphore(maxBuffers, true);
+   }
+
+   public int bufferSize() {
+      return bufferSize;
+   }
+
+   /** Takes an empty buffer, waiting for one to be released if all are in use. */
+   public ByteBuffer acquire() throws InterruptedException {
+      available.acquire();
+      ByteBuffer buffer = free.poll();
+      if (buffer == null) {
+         buffer = direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+      }
+      buffer.clear();
+      return buffer;
+   }
+
+   /** Returns a buffer taken by {@link #acquire()}; it must not be used afterwards. */
+   public void release(ByteBuffer buffer) {
+      free.offer(buffer);
+      available.release();
+   }
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.googlecloudstorage.blobstore.strategy.internal.MultipartUpload.MAX_COMPOSE_SOURCES;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.googlecloudstorage.GoogleCloudStorageApi;
+import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
+import org.jclouds.googlecloudstorage.domain.templates.ComposeObjectTemplate;
+import org.jclouds.googlecloudstorage.domain.templates.ObjectTemplate;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.inject.Inject;
+
+/**
+ * Composes any number of uploaded parts into one object, although a single compose request accepts at most
+ * {@link MultipartUpload#MAX_COMPOSE_SOURCES} sources.
+ *
+ * <p/>Parts are composed through a tree of intermediate objects, with the independent composes of each level running
+ * in parallel on the user executor. The tree has as few levels as possible, and each level composes only as many
+ * groups as needed for the next ones to fit, so the upload takes the minimum number of compose requests. The
+ * destination object is written by the last compose only, and so appears all at once. Intermediate objects are
+ * deleted in the background once the compose succeeded, or once the composes of a failed level stopped.
+ */
+@Singleton
+public class ComposeTree {
+
+   private final GoogleCloudStorageApi api;
+   private final MultipartNamingStrategy namingStrategy;
+   private final MultipartUploadCleaner cleaner;
+   private final ListeningExecutorService userExecutor;
+
+   @Inject ComposeTree(GoogleCloudStorageApi api, MultipartNamingStrategy namingStrategy,
+            MultipartUploadCleaner cleaner, @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+      this.api = api;
+      this.namingStrategy = namingStrategy;
+      this.cleaner = cleaner;
+      this.userExecutor = userExecutor;
+   }
+
+   public GoogleCloudStorageObject compose(String container, String key, ObjectTemplate destination,
+            List<GoogleCloudStorageObject> parts) {
+      checkArgument(!parts.isEmpty(), "no parts to compose into %s", key);
+      List<String> intermediates = Lists.newArrayList();
+      try {
+         List<GoogleCloudStorageObject> sources = parts;
+         for (int level = 1; sources.size() > MAX_COMPOSE_SOURCES; level++) {
+            sources = composeLevel(container, key, level, destination.contentType(), sources, intermediates);
+         }
+         return api.getObjectApi().composeObjects(container, key, ComposeObjectTemplate.create(sources, destination));
+      } finally {
+         cleaner.delete(container, intermediates);
+      }
+   }
+
+   private List<GoogleCloudStorageObject> composeLevel(String container, String key, int level, String contentType,
+            List<GoogleCloudStorageObject> sources, List<String> intermediates) {
+      List<ListenableFuture<GoogleCloudStorageObject>> composes = Lists.newArrayList();
+      List<Compose> tasks = Lists.newArrayList();
+      int from = 0;
+      for (int size : groupSizes(sources.size())) {
+         String name = namingStrategy.getComposeName(key, level, composes.size() + 1);
+         intermediates.add(name);
+         ComposeObjectTemplate template = ComposeObjectTemplate.create(
+               ImmutableList.copyOf(sources.subList(from, from + size)),
+               new ObjectTemplate().name(name).contentType(contentType));
+         Compose task = new Compose(container, name, template);
+         tasks.add(task);
+         composes.add(userExecutor.submit(task));
+         from += size;
+      }
+      try {
+         return ImmutableList.<GoogleCloudStorageObject> builder()
+               .addAll(Futures.allAsList(composes).get())
+               .addAll(sources.subList(from, sources.size()))
+               .build();
+      } catch (InterruptedException e) {
+         cancel(composes, tasks);
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(e);
+      } catch (ExecutionException e) {
+         cancel(composes, tasks);
+         throw Throwables.propagate(e.getCause());
+      }
+   }
+
+   /**
+    * Sizes of the groups to compose at the next level of the tree. The groups cover the leading sources, and the
+    * sources after them are carried over as they are, keeping their order.
+    *
+    * <p/>A compose of {@code n} sources removes {@code n - 1} objects, so the groups together remove just enough
+    * objects for the rest of the tree to need one level less, and are balanced in size.
+    */
+   @VisibleForTesting
+   static List<Integer> groupSizes(int sources) {
+      if (sources <= MAX_COMPOSE_SOURCES) {
+         return ImmutableList.of();
+      }
+      long capacity = MAX_COMPOSE_SOURCES;
+      while (capacity * MAX_COMPOSE_SOURCES < sources) {
+         capacity *= MAX_COMPOSE_SOURCES;
+      }
+      int reduction = (int) (sources - capacity);
+      int groups = (reduction + MAX_COMPOSE_SOURCES - 2) / (MAX_COMPOSE_SOURCES - 1);
+      int grouped = reduction + groups;
+      ImmutableList.Builder<Integer> sizes = ImmutableList.builder();
+      for (int i = 0; i < groups; i++) {
+         sizes.add(grouped / groups + (i < grouped % groups ? 1 : 0));
+      }
+      return sizes.build();
+   }
+
+   /**
+    * Cancels the composes and waits for those already running to stop, so that the intermediate objects they write
+    * exist by the time they are deleted. A cancelled future is done at once, so the tasks themselves are waited for.
+    */
+   private static void cancel(List<ListenableFuture<GoogleCloudStorageObject>> composes, List<Compose> tasks) {
+      for (ListenableFuture<GoogleCloudStorageObject> compose : composes) {
+         compose.cancel(true);
+      }
+      List<ListenableFuture<Void>> settled = Lists.newArrayList();
+      for (Compose task : tasks) {
+         task.skipIfNotStarted();
+         settled.add(task.settled);
+      }
+      try {
+         Uninterruptibles.getUninterruptibly(Futures.successfulAsList(settled));
+      } catch (ExecutionException e) {
+         throw Throwables.propagate(e.getCause());
+      }
+   }
+
+   private final class Compose implements Callable<GoogleCloudStorageObject> {
+      private final String container;
+      private final String name;
+      private final ComposeObjectTemplate template;
+      private final AtomicBoolean started = new AtomicBoolean();
+      /** Done once the compose stopped, or once it is known never to start. */
+      private final SettableFuture<Void> settled = SettableFuture.create();
+
+      Compose(String container, String name, ComposeObjectTemplate template) {
+         this.container = container;
+         this.name = name;
+         this.template = template;
+      }
+
+      void skipIfNotStarted() {
+         if (started.compareAndSet(false, true)) {
+            settled.set(null);
+         }
+      }
+
+      @Override public GoogleCloudStorageObject call() {
+         if (!started.compareAndSet(false, true)) {
+            throw new CancellationException("compose of " + name + " was cancelled");
+         }
+         try {
+            return api.getObjectApi().composeObjects(container, name, template);
+         } finally {
+            settled.set(null);
+         }
+      }
+   }
+}
@@ -16,15 +16,39 @@
  */
 package org.jclouds.googlecloudstorage.blobstore.strategy.internal;
 
+import java.util.regex.Pattern;
+
 import javax.inject.Singleton;
 
+/**
+ * Names the part and intermediate compose objects of a multipart upload of {@code key}, e.g.
+ * {@code key_jclouds-part_07} and {@code key_jclouds-part_compose1_2}. The {@code jclouds-part} marker keeps them apart
+ * from user objects such as {@code key_2020}, so names under {@code key_jclouds-part_} are reserved for uploads.
+ */
 @Singleton
 public class MultipartNamingStrategy {
 
    private static final String PART_SEPARATOR = "_";
+   private static final String PART_MARKER = "jclouds-part";
+   private static final String COMPOSE_PREFIX = "compose";
+   private static final Pattern PART_SUFFIX = Pattern.compile(
+         "\\d+|" + COMPOSE_PREFIX + "\\d+" + PART_SEPARATOR + "\\d+");
 
    protected String getPartName(String key, int partNumber, int totalParts) {
       int base = (int) Math.log10(totalParts) + 1;
-      return String.format("%s%s%0" + base + "d", key, PART_SEPARATOR, partNumber);
+      return String.format("%s%0" + base + "d", getPartPrefix(key), partNumber);
+   }
+
+   protected String getComposeName(String key, int level, int index) {
+      return String.format("%s%s%d%s%d", getPartPrefix(key), COMPOSE_PREFIX, level, PART_SEPARATOR, index);
+   }
+
+   protected String getPartPrefix(String key) {
+      return key + PART_SEPARATOR + PART_MARKER + PART_SEPARATOR;
+   }
+
+   protected boolean isPartName(String key, String name) {
+      String prefix = getPartPrefix(key);
+      return name.startsWith(prefix) && PART_SUFFIX.matcher(name.substring(prefix.length())).matches();
    }
 }
@@ -23,6 +23,8 @@ public final class MultipartUpload {
 
    /* Maximum number of parts per upload */
    public static final int MAX_NUMBER_OF_PARTS = 10000;
+   /* Maximum number of source objects per compose request */
+   public static final int MAX_COMPOSE_SOURCES = 32;
    /* Maximum number of parts returned for a list parts request */
    public static final int MAX_LIST_PARTS_RETURNED = 1000;
    /* Maximum number of multipart uploads returned in a list multipart uploads request */
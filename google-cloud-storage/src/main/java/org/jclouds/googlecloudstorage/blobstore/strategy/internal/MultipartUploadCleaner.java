@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.strategy.internal;
+
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.MULTIPART_UPLOAD_DELETE_PARTS;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.MULTIPART_UPLOAD_STALE_PART_AGE;
+import static org.jclouds.reflect.Reflection2.method;
+
+import java.net.URI;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import javax.annotation.Resource;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.googlecloud.internal.BatchExecutor;
+import org.jclouds.googlecloudstorage.GoogleCloudStorageApi;
+import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
+import org.jclouds.googlecloudstorage.domain.ListPageWithPrefixes;
+import org.jclouds.googlecloudstorage.features.ObjectApi;
+import org.jclouds.googlecloudstorage.options.ListObjectOptions;
+import org.jclouds.location.Provider;
+import org.jclouds.logging.Logger;
+import org.jclouds.reflect.Invocation;
+import org.jclouds.rest.internal.GeneratedHttpRequest;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Functions;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.reflect.Invokable;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Inject;
+
+/**
+ * Deletes the part and intermediate compose objects of multipart uploads in the background, so that uploads do not
+ * wait for them and buckets are not left full of orphans.
+ *
+ * <p/>Objects are deleted through {@link BatchExecutor}, up to {@link BatchExecutor#MAX_CALLS_PER_BATCH} in each
+ * request, with the batches running in parallel on the user executor. Failures to delete are logged and otherwise
+ * ignored: the upload itself is already complete, or has already failed for another reason.
+ */
+@Singleton
+public class MultipartUploadCleaner {
+
+   private static final Invocation GET_OBJECT_API = Invocation.create(
+         method(GoogleCloudStorageApi.class, "getObjectApi"), ImmutableList.<Object> of());
+   private static final Invokable<?, ?> DELETE_OBJECT = method(ObjectApi.class, "deleteObject", String.class,
+         String.class);
+
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   @Inject(optional = true)
+   @Named(MULTIPART_UPLOAD_DELETE_PARTS)
+   @VisibleForTesting
+   boolean deleteParts = true;
+
+   @Inject(optional = true)
+   @Named(MULTIPART_UPLOAD_STALE_PART_AGE)
+   @VisibleForTesting
+   long stalePartAge = 0;
+
+   private final GoogleCloudStorageApi api;
+   private final BatchExecutor batchExecutor;
+   private final Supplier<URI> endpoint;
+   private final MultipartNamingStrategy namingStrategy;
+   private final ListeningExecutorService userExecutor;
+
+   @Inject MultipartUploadCleaner(GoogleCloudStorageApi api, BatchExecutor batchExecutor,
+            @Provider Supplier<URI> endpoint, MultipartNamingStrategy namingStrategy,
+            @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+      this.api = api;
+      this.batchExecutor = batchExecutor;
+      this.endpoint = endpoint;
+      this.namingStrategy = namingStrategy;
+      this.userExecutor = userExecutor;
+   }
+
+   /**
+    * Deletes the given objects of {@code container}. Objects that do not exist are skipped.
+    */
+   public ListenableFuture<Void> delete(String container, List<String> names) {
+      if (!deleteParts || names.isEmpty()) {
+         return Futures.immediateFuture(null);
+      }
+      List<ListenableFuture<Void>> deletes = Lists.newArrayList();
+      for (List<String> batch : Lists.partition(ImmutableList.copyOf(names), BatchExecutor.MAX_CALLS_PER_BATCH)) {
+         deletes.add(userExecutor.submit(new Delete(container, batch)));
+      }
+      return Futures.transform(Futures.successfulAsList(deletes), Functions.<Void> constant(null));
+   }
+
+   /**
+    * Deletes the objects named like the parts of {@code key} that were last updated longer than
+    * {@link org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants#MULTIPART_UPLOAD_STALE_PART_AGE} ago,
+    * and so were left behind by failed uploads. Does nothing unless that age is set.
+    */
+   public ListenableFuture<Void> sweep(final String container, final String key) {
+      if (stalePartAge <= 0) {
+         return Futures.immediateFuture(null);
+      }
+      return userExecutor.submit(new Callable<Void>() {
+         @Override public Void call() {
+            Date staleBefore = new Date(System.currentTimeMillis() - stalePartAge);
+            List<String> stale = Lists.newArrayList();
+            ListObjectOptions options = new ListObjectOptions().prefix(namingStrategy.getPartPrefix(key));
+            ListPageWithPrefixes<GoogleCloudStorageObject> page;
+            do {
+               try {
+                  page = api.getObjectApi().listObjects(container, options);
+               } catch (RuntimeException e) {
+                  logger.warn(e, "<< could not list stale parts of %s/%s", container, key);
+                  return null;
+               }
+               for (GoogleCloudStorageObject object : page) {
+                  if (namingStrategy.isPartName(key, object.name()) && object.updated() != null
+                        && object.updated().before(staleBefore)) {
+                     stale.add(object.name());
+                  }
+               }
+               options = new ListObjectOptions().prefix(namingStrategy.getPartPrefix(key))
+                     .pageToken(page.nextPageToken());
+            } while (page.nextPageToken() != null);
+            if (!stale.isEmpty()) {
+               logger.debug(">> deleting %d stale parts of %s/%s", stale.size(), container, key);
+               new Delete(container, stale).call();
+            }
+            return null;
+         }
+      });
+   }
+
+   private final class Delete implements Callable<Void> {
+      private final String container;
+      private final List<String> names;
+
+      Delete(String container, List<String> names) {
+         this.container = container;
+         this.names = names;
+      }
+
+      @Override public Void call() {
+         List<BatchExecutor.Result> results;
+         try {
+            List<GeneratedHttpRequest> deletes = Lists.newArrayList();
+            for (String name : names) {
+               deletes.add(batchExecutor.request(GET_OBJECT_API,
+                     Invocation.create(DELETE_OBJECT, ImmutableList.<Object> of(container, name))));
+            }
+            results = batchExecutor.execute(batchEndpoint(), deletes);
+         } catch (RuntimeException e) {
+            logger.warn(e, "<< could not delete %d parts of %s", names.size(), container);
+            return null;
+         }
+         for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).error() != null) {
+               logger.warn(results.get(i).error(), "<< could not delete part %s/%s", container, names.get(i));
+            }
+         }
+         return null;
+      }
+   }
+
+   private URI batchEndpoint() {
+      String base = endpoint.get().toString();
+      return URI.create((base.endsWith("/") ? base.substring(0, base.length() - 1) : base) + "/batch/storage/v1");
+   }
+}
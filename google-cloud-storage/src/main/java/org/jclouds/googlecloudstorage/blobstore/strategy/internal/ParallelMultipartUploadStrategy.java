@@ -0,0 +1,264 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.MULTIPART_UPLOAD_MAX_IN_FLIGHT_BYTES;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.MULTIPART_UPLOAD_PARALLELISM;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.MULTIPART_UPLOAD_PART_RETRIES;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Resource;
+import javax.inject.Named;
+
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.googlecloudstorage.GoogleCloudStorageApi;
+import org.jclouds.googlecloudstorage.blobstore.functions.BlobMetadataToObjectTemplate;
+import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
+import org.jclouds.googlecloudstorage.domain.templates.ObjectTemplate;
+import org.jclouds.googlecloudstorage.options.InsertObjectOptions;
+import org.jclouds.io.Payload;
+import org.jclouds.io.PayloadSlicer;
+import org.jclouds.io.Payloads;
+import org.jclouds.logging.Logger;
+import org.jclouds.rest.AuthorizationException;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.inject.Inject;
+
+/**
+ * Uploads the parts of a blob several at a time on the user executor, then composes them once all succeeded.
+ *
+ * <p/>At most {@link org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants#MULTIPART_UPLOAD_PARALLELISM}
+ * parts, holding at most
+ * {@link org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants#MULTIPART_UPLOAD_MAX_IN_FLIGHT_BYTES},
+ * are uploaded at the same time. Parts of payloads that cannot be re-read, such as streams, are buffered in memory so
+ * they can be uploaded out of order. A failed part is uploaded again on its own; once it runs out of retries, parts
+ * not yet uploaded are cancelled and the failure is thrown. Parts are only deleted once every upload has stopped, so
+ * that a part still being written when the upload fails is not left behind.
+ */
+public final class ParallelMultipartUploadStrategy extends MultipartUploadStrategy {
+
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   @Inject(optional = true)
+   @Named(MULTIPART_UPLOAD_PARALLELISM)
+   @VisibleForTesting
+   int parallelism = 4;
+
+   @Inject(optional = true)
+   @Named(MULTIPART_UPLOAD_MAX_IN_FLIGHT_BYTES)
+   @VisibleForTesting
+   long maxInFlightBytes = 256L * 1024L * 1024L;
+
+   @Inject(optional = true)
+   @Named(MULTIPART_UPLOAD_PART_RETRIES)
+   @VisibleForTesting
+   int partRetries = 3;
+
+   private final GoogleCloudStorageApi api;
+   private final BlobMetadataToObjectTemplate blob2ObjectTemplate;
+   private final MultipartUploadSlicingAlgorithm algorithm;
+   private final PayloadSlicer slicer;
+   private final MultipartNamingStrategy namingStrategy;
+   private final ComposeTree composeTree;
+   private final MultipartUploadCleaner cleaner;
+   private final ListeningExecutorService userExecutor;
+
+   @Inject ParallelMultipartUploadStrategy(GoogleCloudStorageApi api, BlobMetadataToObjectTemplate blob2ObjectTemplate,
+            MultipartUploadSlicingAlgorithm algorithm, PayloadSlicer slicer, MultipartNamingStrategy namingStrategy,
+            ComposeTree composeTree, MultipartUploadCleaner cleaner,
+            @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+      this.api = api;
+      this.blob2ObjectTemplate = blob2ObjectTemplate;
+      this.algorithm = algorithm;
+      this.slicer = slicer;
+      this.namingStrategy = namingStrategy;
+      this.composeTree = composeTree;
+      this.cleaner = cleaner;
+      this.userExecutor = userExecutor;
+   }
+
+   @Override
+   public String execute(String container, Blob blob) {
+
+      ObjectTemplate destination = blob2ObjectTemplate.apply(blob.getMetadata());
+
+      String key = blob.getMetadata().getName();
+      Payload payload = blob.getPayload();
+      Long length = payload.getContentMetadata().getContentLength();
+      if (length == null) {
+         length = blob.getMetadata().getContentMetadata().getContentLength();
+         payload.getContentMetadata().setContentLength(length);
+      }
+      checkNotNull(length,
+               "please invoke payload.getContentMetadata().setContentLength(length) prior to multipart upload");
+      long chunkSize = algorithm.calculateChunkSize(length);
+      int partCount = algorithm.getParts();
+      if (partCount == 0) {
+         return api.getObjectApi().multipartUpload(container, destination, payload).etag();
+      }
+
+      String contentType = blob.getMetadata().getContentMetadata().getContentType();
+      final Semaphore permits = new Semaphore((int) Math.max(1, Math.min(parallelism, maxInFlightBytes / chunkSize)));
+      final AtomicBoolean failed = new AtomicBoolean();
+      List<ListenableFuture<GoogleCloudStorageObject>> uploads = Lists.newArrayList();
+      List<UploadPart> tasks = Lists.newArrayList();
+      List<String> partNames = Lists.newArrayList();
+      cleaner.sweep(container, key);
+      try {
+         for (Payload slice : slicer.slice(payload, chunkSize)) {
+            int partNum = algorithm.getNextPart();
+            String partName = namingStrategy.getPartName(key, partNum, partCount);
+            long partSize = ((partCount + 1) == partNum) ? algorithm.getRemaining() : algorithm.getChunkSize();
+
+            permits.acquire();
+            if (failed.get()) {
+               permits.release();
+               break;
+            }
+            // buffered only once a permit is held, so that in-flight bytes stay bounded
+            Payload part = payload.isRepeatable() ? slice : buffer(slice);
+            partNames.add(partName);
+            UploadPart task = new UploadPart(container, contentType, partName, partSize, part);
+            tasks.add(task);
+            ListenableFuture<GoogleCloudStorageObject> upload = userExecutor.submit(task);
+            Futures.addCallback(upload, new FutureCallback<GoogleCloudStorageObject>() {
+               @Override public void onSuccess(GoogleCloudStorageObject result) {
+                  permits.release();
+               }
+
+               @Override public void onFailure(Throwable t) {
+                  failed.set(true);
+                  permits.release();
+               }
+            }, sameThreadExecutor());
+            uploads.add(upload);
+         }
+         List<GoogleCloudStorageObject> sourceList = Futures.allAsList(uploads).get();
+         return composeTree.compose(container, key, destination, sourceList).etag();
+      } catch (InterruptedException e) {
+         cancel(uploads, tasks);
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(e);
+      } catch (ExecutionException e) {
+         cancel(uploads, tasks);
+         throw Throwables.propagate(e.getCause());
+      } catch (RuntimeException e) {
+         cancel(uploads, tasks);
+         throw e;
+      } finally {
+         cleaner.delete(container, partNames);
+      }
+   }
+
+   private static Payload buffer(Payload slice) {
+      try {
+         return Payloads.newByteArrayPayload(ByteStreams.toByteArray(slice.openStream()));
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      }
+   }
+
+   /**
+    * Cancels the uploads and waits for those already running to stop. A cancelled future is done at once, even while
+    * its part is still being written, so the tasks themselves are waited for.
+    */
+   private static void cancel(List<ListenableFuture<GoogleCloudStorageObject>> uploads, List<UploadPart> tasks) {
+      for (ListenableFuture<GoogleCloudStorageObject> upload : uploads) {
+         upload.cancel(true);
+      }
+      List<ListenableFuture<Void>> settled = Lists.newArrayList();
+      for (UploadPart task : tasks) {
+         task.skipIfNotStarted();
+         settled.add(task.settled);
+      }
+      try {
+         Uninterruptibles.getUninterruptibly(Futures.successfulAsList(settled));
+      } catch (ExecutionException e) {
+         throw Throwables.propagate(e.getCause());
+      }
+   }
+
+   private final class UploadPart implements Callable<GoogleCloudStorageObject> {
+      private final String container;
+      private final String contentType;
+      private final String partName;
+      private final long partSize;
+      private final Payload part;
+      private final AtomicBoolean started = new AtomicBoolean();
+      /** Done once the upload stopped, or once it is known never to start. */
+      private final SettableFuture<Void> settled = SettableFuture.create();
+
+      UploadPart(String container, String contentType, String partName, long partSize, Payload part) {
+         this.container = container;
+         this.contentType = contentType;
+         this.partName = partName;
+         this.partSize = partSize;
+         this.part = part;
+      }
+
+      void skipIfNotStarted() {
+         if (started.compareAndSet(false, true)) {
+            settled.set(null);
+         }
+      }
+
+      @Override public GoogleCloudStorageObject call() {
+         if (!started.compareAndSet(false, true)) {
+            throw new CancellationException("upload of part " + partName + " was cancelled");
+         }
+         try {
+            for (int attempt = 1; ; attempt++) {
+               try {
+                  return api.getObjectApi().simpleUpload(container, contentType, partSize, part,
+                        new InsertObjectOptions().name(partName));
+               } catch (RuntimeException e) {
+                  if (attempt > partRetries || e instanceof AuthorizationException || !part.isRepeatable()) {
+                     throw e;
+                  }
+                  logger.warn(e, "<< uploading part %s failed, attempt %d of %d", partName, attempt,
+                        partRetries + 1);
+               }
+            }
+         } finally {
+            settled.set(null);
+         }
+      }
+   }
+}
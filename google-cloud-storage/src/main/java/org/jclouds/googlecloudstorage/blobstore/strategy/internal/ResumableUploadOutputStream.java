@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+import static com.google.common.base.Preconditions.checkState;
+import static org.jclouds.googlecloudstorage.blobstore.strategy.internal.ResumableUploads.contentRange;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.jclouds.googlecloudstorage.GoogleCloudStorageApi;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.logging.Logger;
+import org.jclouds.rest.AuthorizationException;
+
+import com.google.common.io.ByteSource;
+
+/**
+ * Writes an object of a length not known in advance to a resumable upload session, one chunk at a time.
+ *
+ * <p/>Written bytes fill a single buffer taken from a {@link ByteBufferPool}, which goes back to the pool when the
+ * stream is closed or aborted. Writes wait while the buffer is sent, so filling and sending never overlap. A full
+ * buffer is sent as {@code bytes a-b/*} once more bytes are written, so that the last chunk, sent by {@link #close()}
+ * with the total length, is never empty. A chunk the server did not fully commit is sent again from the first missing
+ * byte. {@link #abort()} gives up on the upload without creating the object.
+ */
+public final class ResumableUploadOutputStream extends OutputStream {
+
+   private final GoogleCloudStorageApi api;
+   private final ByteBufferPool pool;
+   private final Logger logger;
+   private final int chunkRetries;
+   private final String container;
+   private final String uploadId;
+   private final String contentType;
+
+   private ByteBuffer buffer;
+   private long sent;
+
+   ResumableUploadOutputStream(GoogleCloudStorageApi api, ByteBufferPool pool, Logger logger, int chunkRetries,
+         String container, String uploadId, String contentType, ByteBuffer buffer) {
+      this.api = api;
+      this.pool = pool;
+      this.logger = logger;
+      this.chunkRetries = chunkRetries;
+      this.container = container;
+      this.uploadId = uploadId;
+      this.contentType = contentType;
+      this.buffer = buffer;
+   }
+
+   @Override
+   public void write(int b) throws IOException {
+      write(new byte[] { (byte) b }, 0, 1);
+   }
+
+   @Override
+   public void write(byte[] bytes, int off, int len) throws IOException {
+      checkPositionIndexes(off, off + len, bytes.length);
+      checkState(buffer != null, "upload %s is closed", uploadId);
+      while (len > 0) {
+         if (!buffer.hasRemaining()) {
+            sendBuffer(false);
+         }
+         int count = Math.min(len, buffer.remaining());
+         buffer.put(bytes, off, count);
+         off += count;
+         len -= count;
+      }
+   }
+
+   /** Sends the last chunk and creates the object. */
+   @Override
+   public void close() throws IOException {
+      if (buffer == null) {
+         return;
+      }
+      try {
+         sendBuffer(true);
+      } finally {
+         release();
+      }
+   }
+
+   /** Gives up on the upload: the object is not created, and the session is left to expire. */
+   public void abort() {
+      if (buffer != null) {
+         release();
+      }
+   }
+
+   /** Bytes written so far. */
+   public long getCount() {
+      return sent + (buffer != null ? buffer.position() : 0);
+   }
+
+   private void release() {
+      pool.release(buffer);
+      buffer = null;
+   }
+
+   private void sendBuffer(boolean last) {
+      buffer.flip();
+      long end = sent + buffer.remaining();
+      Long length = last ? end : null;
+      if (last && end == sent) {
+         // nothing left to send, which only happens for an empty object
+         api.getResumableUploadApi().checkStatus(container, uploadId, "bytes */" + end);
+      }
+      long committed = sent;
+      int failures = 0;
+      while (committed < end) {
+         try {
+            committed = sendFrom(committed, end, length);
+         } catch (RuntimeException e) {
+            if (++failures > chunkRetries || e instanceof AuthorizationException) {
+               throw e;
+            }
+            logger.warn(e, "<< uploading bytes %d of %s failed, attempt %d of %d", committed, uploadId, failures,
+                  chunkRetries + 1);
+            committed = ResumableUploads.committed(
+                  api.getResumableUploadApi().checkStatus(container, uploadId, "bytes */*"), end);
+         }
+         checkState(committed >= sent, "server committed %s bytes, less than the %s already sent", committed, sent);
+      }
+      sent = end;
+      buffer.clear();
+   }
+
+   /** Sends the buffered bytes from {@code from}, returning the bytes committed by the server. */
+   private long sendFrom(long from, long end, Long length) {
+      ByteBuffer chunk = buffer.duplicate();
+      chunk.position((int) (from - sent));
+      long count = end - from;
+      Payload payload = Payloads.newByteSourcePayload(new ByteBufferSource(chunk));
+      payload.getContentMetadata().setContentLength(count);
+      payload.getContentMetadata().setContentType(contentType);
+      return ResumableUploads.committed(api.getResumableUploadApi().chunkUpload(container, uploadId, contentType,
+            count, contentRange(from, count, length), payload), end);
+   }
+
+   /** Repeatable source of the remaining bytes of a buffer, which works for direct buffers too. */
+   private static final class ByteBufferSource extends ByteSource {
+      private final ByteBuffer buffer;
+
+      ByteBufferSource(ByteBuffer buffer) {
+         this.buffer = buffer;
+      }
+
+      @Override public long size() {
+         return buffer.remaining();
+      }
+
+      @Override public InputStream openStream() {
+         final ByteBuffer bytes = buffer.duplicate();
+         return new InputStream() {
+            @Override public int read() {
+               return bytes.hasRemaining() ? bytes.get() & 0xff : -1;
+            }
+
+            @Override public int read(byte[] b, int off, int len) {
+               if (len == 0) {
+                  return 0;
+               }
+               if (!bytes.hasRemaining()) {
+                  return -1;
+               }
+               int count = Math.min(len, bytes.remaining());
+               bytes.get(b, off, count);
+               return count;
+            }
+
+            @Override public int available() {
+               return bytes.remaining();
+            }
+         };
+      }
+   }
+}
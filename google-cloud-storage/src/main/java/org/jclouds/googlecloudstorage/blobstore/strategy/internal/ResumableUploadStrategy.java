@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static org.jclouds.googlecloudstorage.blobstore.strategy.internal.ResumableUploads.CHUNK_UNIT;
+import static org.jclouds.googlecloudstorage.blobstore.strategy.internal.ResumableUploads.contentRange;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.MULTIPART_UPLOAD_PART_RETRIES;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.RESUMABLE_UPLOAD_CHECKPOINT_DIR;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.RESUMABLE_UPLOAD_CHUNK_SIZE;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.annotation.Resource;
+import javax.inject.Named;
+
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.googlecloudstorage.GoogleCloudStorageApi;
+import org.jclouds.googlecloudstorage.blobstore.functions.BlobMetadataToObjectTemplate;
+import org.jclouds.googlecloudstorage.domain.ResumableUpload;
+import org.jclouds.googlecloudstorage.domain.templates.ObjectTemplate;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.logging.Logger;
+import org.jclouds.rest.AuthorizationException;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.hash.HashCode;
+import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
+import com.google.inject.Inject;
+
+/**
+ * Uploads a blob in chunks of a single resumable upload session, recording the session and the bytes committed by
+ * the server in a local {@link UploadCheckpoint}.
+ *
+ * <p/>A chunk that fails is sent again from the first byte the server did not commit, as reported by
+ * {@link org.jclouds.googlecloudstorage.features.ResumableUploadApi#checkStatus}. If the upload still fails, or the
+ * JVM stops, a later {@code putBlob} of the same content finds the checkpoint and continues the same session instead
+ * of starting from byte zero. {@code 308 Resume Incomplete} responses report the progress of the session.
+ *
+ * <p/>Only content with a fingerprint, an MD5 set on its payload or the modification time of its file, is
+ * checkpointed. Other content cannot be told apart from a different upload of the same key and length, and resuming
+ * its session would mix the bytes of both. Such uploads still resume failed chunks, but start again from byte zero
+ * when {@code putBlob} is called again. Uploads are not checkpointed either when the checkpoint directory can be
+ * accessed by other users.
+ *
+ * @see <a href="https://cloud.google.com/storage/docs/json_api/v1/how-tos/upload#resumable"/>
+ */
+public final class ResumableUploadStrategy extends MultipartUploadStrategy {
+
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   @Inject(optional = true)
+   @Named(RESUMABLE_UPLOAD_CHUNK_SIZE)
+   @VisibleForTesting
+   int chunkSize = 32 * CHUNK_UNIT;
+
+   @Inject(optional = true)
+   @Named(RESUMABLE_UPLOAD_CHECKPOINT_DIR)
+   @VisibleForTesting
+   String checkpointDir = new File(System.getProperty("java.io.tmpdir"), "jclouds-google-cloud-storage-uploads")
+         .getPath();
+
+   @Inject(optional = true)
+   @Named(MULTIPART_UPLOAD_PART_RETRIES)
+   @VisibleForTesting
+   int chunkRetries = 3;
+
+   private final GoogleCloudStorageApi api;
+   private final BlobMetadataToObjectTemplate blob2ObjectTemplate;
+
+   @Inject ResumableUploadStrategy(GoogleCloudStorageApi api, BlobMetadataToObjectTemplate blob2ObjectTemplate) {
+      this.api = api;
+      this.blob2ObjectTemplate = blob2ObjectTemplate;
+   }
+
+   @Override
+   public String execute(String container, Blob blob) {
+      checkArgument(chunkSize > 0 && chunkSize % CHUNK_UNIT == 0, "%s must be a multiple of %s, not %s",
+            RESUMABLE_UPLOAD_CHUNK_SIZE, CHUNK_UNIT, chunkSize);
+
+      ObjectTemplate destination = blob2ObjectTemplate.apply(blob.getMetadata());
+
+      String key = blob.getMetadata().getName();
+      Payload payload = blob.getPayload();
+      Long length = payload.getContentMetadata().getContentLength();
+      if (length == null) {
+         length = blob.getMetadata().getContentMetadata().getContentLength();
+         payload.getContentMetadata().setContentLength(length);
+      }
+      checkNotNull(length,
+               "please invoke payload.getContentMetadata().setContentLength(length) prior to multipart upload");
+      if (length == 0) {
+         return api.getObjectApi().multipartUpload(container, destination, payload).etag();
+      }
+      String contentType = blob.getMetadata().getContentMetadata().getContentType();
+
+      try {
+         UploadCheckpoint checkpoint = checkpoint(container, key, length, payload);
+         long committed = resume(container, key, length, checkpoint);
+         if (committed == length) {
+            checkpoint.delete();
+            return api.getObjectApi().getObject(container, key).etag();
+         }
+         if (checkpoint.uploadId() != null && committed != checkpoint.committed()) {
+            // the server is ahead when a chunk was committed but the process stopped before saving it
+            checkpoint.save(checkpoint.uploadId(), committed);
+         }
+         if (checkpoint.uploadId() == null) {
+            ResumableUpload session = api.getResumableUploadApi().initResumableUpload(container, contentType, length,
+                  destination);
+            checkpoint.save(checkNotNull(session.uploadId(), "upload_id of new session"), 0);
+         }
+         upload(container, contentType, length, payload, checkpoint);
+         checkpoint.delete();
+         return api.getObjectApi().getObject(container, key).etag();
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      }
+   }
+
+   private UploadCheckpoint checkpoint(String container, String key, long length, Payload payload) {
+      String fingerprint = fingerprint(payload);
+      if (fingerprint.isEmpty()) {
+         logger.debug(">> not checkpointing upload of %s/%s, its content has no fingerprint", container, key);
+         return UploadCheckpoint.inMemory();
+      }
+      try {
+         return UploadCheckpoint.load(new File(checkpointDir), container, key, length, fingerprint);
+      } catch (IOException e) {
+         logger.warn(e, "<< not checkpointing upload of %s/%s", container, key);
+         return UploadCheckpoint.inMemory();
+      }
+   }
+
+   /**
+    * Bytes of the checkpointed session committed by the server, or 0 after forgetting a session that cannot be
+    * resumed, such as one that expired.
+    */
+   private long resume(String container, String key, long length, UploadCheckpoint checkpoint) throws IOException {
+      if (checkpoint.uploadId() == null) {
+         return 0;
+      }
+      try {
+         long committed = committed(container, checkpoint.uploadId(), length);
+         logger.debug(">> resuming upload of %s/%s at byte %d of %d", container, key, committed, length);
+         return committed;
+      } catch (AuthorizationException e) {
+         throw e;
+      } catch (RuntimeException e) {
+         logger.warn(e, "<< could not resume upload of %s/%s, starting again", container, key);
+         checkpoint.delete();
+         return 0;
+      }
+   }
+
+   private void upload(String container, String contentType, long length, Payload payload,
+         UploadCheckpoint checkpoint) throws IOException {
+      String uploadId = checkpoint.uploadId();
+      long committed = checkpoint.committed();
+      byte[] buffer = new byte[(int) Math.min(chunkSize, length)];
+      InputStream in = payload.openStream();
+      try {
+         ByteStreams.skipFully(in, committed);
+         while (committed < length) {
+            long chunkStart = committed;
+            int chunkLength = (int) Math.min(buffer.length, length - chunkStart);
+            ByteStreams.readFully(in, buffer, 0, chunkLength);
+            int failures = 0;
+            while (committed < chunkStart + chunkLength) {
+               try {
+                  committed = sendChunk(container, uploadId, contentType, length, buffer, chunkStart, chunkLength,
+                        committed);
+               } catch (RuntimeException e) {
+                  if (++failures > chunkRetries || e instanceof AuthorizationException) {
+                     throw e;
+                  }
+                  logger.warn(e, "<< uploading bytes %d of %s failed, attempt %d of %d", committed, uploadId,
+                        failures, chunkRetries + 1);
+                  committed = committed(container, uploadId, length);
+               }
+               checkState(committed >= chunkStart, "server committed %s bytes, less than the %s already sent",
+                     committed, chunkStart);
+               checkpoint.save(uploadId, committed);
+            }
+         }
+      } finally {
+         Closeables.closeQuietly(in);
+      }
+   }
+
+   /** Sends the bytes of the chunk from {@code from}, returning the bytes committed by the server. */
+   private long sendChunk(String container, String uploadId, String contentType, long length, byte[] buffer,
+         long chunkStart, int chunkLength, long from) {
+      long count = chunkStart + chunkLength - from;
+      Payload chunk = Payloads.newByteSourcePayload(ByteSource.wrap(buffer).slice(from - chunkStart, count));
+      chunk.getContentMetadata().setContentLength(count);
+      chunk.getContentMetadata().setContentType(contentType);
+      ResumableUpload response = api.getResumableUploadApi().chunkUpload(container, uploadId, contentType, count,
+            contentRange(from, count, length), chunk);
+      return ResumableUploads.committed(response, length);
+   }
+
+   private long committed(String container, String uploadId, long length) {
+      return ResumableUploads.committed(
+            api.getResumableUploadApi().checkStatus(container, uploadId, "bytes */" + length), length);
+   }
+
+   /** Distinguishes uploads of different content under the same key and length, or empty if nothing does. */
+   @VisibleForTesting
+   static String fingerprint(Payload payload) {
+      HashCode md5 = payload.getContentMetadata().getContentMD5AsHashCode();
+      if (md5 != null) {
+         return "md5:" + md5;
+      }
+      if (payload.getRawContent() instanceof File) {
+         return "modified:" + ((File) payload.getRawContent()).lastModified();
+      }
+      return "";
+   }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.strategy.internal;
+
+import org.jclouds.googlecloudstorage.domain.ResumableUpload;
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Helpers shared by the strategies sending chunks through
+ * {@link org.jclouds.googlecloudstorage.features.ResumableUploadApi}.
+ */
+final class ResumableUploads {
+
+   /* Chunks must be multiples of this size, except the last one */
+   static final int CHUNK_UNIT = 256 * 1024;
+
+   private static final int RESUME_INCOMPLETE = 308;
+
+   private ResumableUploads() {
+   }
+
+   /**
+    * {@code Content-Range} of {@code count} bytes from {@code from}, in an object of {@code length} bytes, or of a
+    * length not known yet when null.
+    */
+   static String contentRange(long from, long count, @Nullable Long length) {
+      return "bytes " + from + "-" + (from + count - 1) + "/" + (length == null ? "*" : length);
+   }
+
+   /**
+    * Bytes the server committed according to a response of the session: the {@code Range} of a
+    * {@code 308 Resume Incomplete}, or {@code complete} once the object is created.
+    */
+   static long committed(ResumableUpload response, long complete) {
+      if (response.statusCode() != RESUME_INCOMPLETE) {
+         return complete; // 200 or 201
+      }
+      return response.rangeUpperValue() == null ? 0 : response.rangeUpperValue() + 1;
+   }
+}
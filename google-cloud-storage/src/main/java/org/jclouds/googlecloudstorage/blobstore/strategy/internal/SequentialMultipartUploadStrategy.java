@@ -27,7 +27,6 @@ import org.jclouds.blobstore.domain.BlobBuilder;
 import org.jclouds.googlecloudstorage.GoogleCloudStorageApi;
 import org.jclouds.googlecloudstorage.blobstore.functions.BlobMetadataToObjectTemplate;
 import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
-import org.jclouds.googlecloudstorage.domain.templates.ComposeObjectTemplate;
 import org.jclouds.googlecloudstorage.domain.templates.ObjectTemplate;
 import org.jclouds.googlecloudstorage.options.InsertObjectOptions;
 import org.jclouds.io.Payload;
@@ -44,16 +43,21 @@ public final class SequentialMultipartUploadStrategy extends MultipartUploadStra
    private final MultipartUploadSlicingAlgorithm algorithm;
    private final PayloadSlicer slicer;
    private final MultipartNamingStrategy namingStrategy;
+   private final ComposeTree composeTree;
+   private final MultipartUploadCleaner cleaner;
 
    @Inject SequentialMultipartUploadStrategy(GoogleCloudStorageApi api, Provider<BlobBuilder> blobBuilders,
             BlobMetadataToObjectTemplate blob2ObjectTemplate, MultipartUploadSlicingAlgorithm algorithm,
-            PayloadSlicer slicer, MultipartNamingStrategy namingStrategy) {
+            PayloadSlicer slicer, MultipartNamingStrategy namingStrategy, ComposeTree composeTree,
+            MultipartUploadCleaner cleaner) {
       this.api = api;
       this.blobBuilders = blobBuilders;
       this.blob2ObjectTemplate = blob2ObjectTemplate;
       this.algorithm = algorithm;
       this.slicer = slicer;
       this.namingStrategy = namingStrategy;
+      this.composeTree = composeTree;
+      this.cleaner = cleaner;
    }
 
    @Override
@@ -75,20 +79,26 @@ public final class SequentialMultipartUploadStrategy extends MultipartUploadStra
       long chunkSize = algorithm.calculateChunkSize(length);
       int partCount = algorithm.getParts();
       if (partCount > 0) {
-         for (Payload part : slicer.slice(payload, chunkSize)) {
-            int partNum = algorithm.getNextPart();
-            String partName = namingStrategy.getPartName(key, partNum, partCount);
-            long partSize = ((partCount + 1) == partNum) ? algorithm.getRemaining() : algorithm.getChunkSize();
+         cleaner.sweep(container, key);
+         List<String> partNames = Lists.newArrayList();
+         try {
+            for (Payload part : slicer.slice(payload, chunkSize)) {
+               int partNum = algorithm.getNextPart();
+               String partName = namingStrategy.getPartName(key, partNum, partCount);
+               long partSize = ((partCount + 1) == partNum) ? algorithm.getRemaining() : algorithm.getChunkSize();
 
-            InsertObjectOptions insertOptions = new InsertObjectOptions().name(partName);
+               InsertObjectOptions insertOptions = new InsertObjectOptions().name(partName);
 
-            GoogleCloudStorageObject object = api.getObjectApi().simpleUpload(container,
-                     blob.getMetadata().getContentMetadata().getContentType(), partSize, part, insertOptions);
+               partNames.add(partName);
+               GoogleCloudStorageObject object = api.getObjectApi().simpleUpload(container,
+                        blob.getMetadata().getContentMetadata().getContentType(), partSize, part, insertOptions);
 
-            sourceList.add(object);
+               sourceList.add(object);
+            }
+            return composeTree.compose(container, key, destination, sourceList).etag();
+         } finally {
+            cleaner.delete(container, partNames);
          }
-         ComposeObjectTemplate template = ComposeObjectTemplate.create(sourceList, destination);
-         return api.getObjectApi().composeObjects(container, key, template).etag();
       } else {
          return api.getObjectApi()
                   .multipartUpload(container, blob2ObjectTemplate.apply(blob.getMetadata()), blob.getPayload())
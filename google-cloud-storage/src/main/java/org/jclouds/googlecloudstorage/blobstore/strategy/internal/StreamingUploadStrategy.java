@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.googlecloudstorage.blobstore.strategy.internal.ResumableUploads.CHUNK_UNIT;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.MULTIPART_UPLOAD_PART_RETRIES;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import javax.annotation.Resource;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.googlecloudstorage.GoogleCloudStorageApi;
+import org.jclouds.googlecloudstorage.blobstore.functions.BlobMetadataToObjectTemplate;
+import org.jclouds.googlecloudstorage.domain.ResumableUpload;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
+import com.google.inject.Inject;
+
+/**
+ * Uploads blobs whose length is not known in advance, such as the output of a compressor, without spooling them to
+ * disk. The payload is streamed through a {@link ResumableUploadOutputStream}, so an upload holds a single chunk
+ * from the {@link ByteBufferPool} whatever the size of the object.
+ */
+@Singleton
+public final class StreamingUploadStrategy {
+
+   private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   @Inject(optional = true)
+   @Named(MULTIPART_UPLOAD_PART_RETRIES)
+   @VisibleForTesting
+   int chunkRetries = 3;
+
+   private final GoogleCloudStorageApi api;
+   private final BlobMetadataToObjectTemplate blob2ObjectTemplate;
+   private final ByteBufferPool pool;
+
+   @Inject StreamingUploadStrategy(GoogleCloudStorageApi api, BlobMetadataToObjectTemplate blob2ObjectTemplate,
+         ByteBufferPool pool) {
+      checkArgument(pool.bufferSize() % CHUNK_UNIT == 0, "chunks must be a multiple of %s bytes, not %s", CHUNK_UNIT,
+            pool.bufferSize());
+      this.api = api;
+      this.blob2ObjectTemplate = blob2ObjectTemplate;
+      this.pool = pool;
+   }
+
+   /**
+    * Starts the upload of an object described by {@code metadata}. The object is created when the stream is closed.
+    */
+   public ResumableUploadOutputStream open(String container, BlobMetadata metadata) {
+      String contentType = metadata.getContentMetadata().getContentType();
+      if (contentType == null) {
+         contentType = DEFAULT_CONTENT_TYPE;
+      }
+      // take the buffer first, so that waiting for one never holds a session that may be thrown away
+      ByteBuffer buffer;
+      try {
+         buffer = pool.acquire();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(e);
+      }
+      try {
+         ResumableUpload session = api.getResumableUploadApi().initResumableUpload(container, contentType,
+               blob2ObjectTemplate.apply(metadata));
+         return new ResumableUploadOutputStream(api, pool, logger, chunkRetries, container,
+               checkNotNull(session.uploadId(), "upload_id of new session"), contentType, buffer);
+      } catch (RuntimeException e) {
+         pool.release(buffer);
+         throw e;
+      }
+   }
+
+   public String execute(String container, Blob blob) {
+      ResumableUploadOutputStream out = open(container, blob.getMetadata());
+      InputStream in = null;
+      try {
+         in = blob.getPayload().openStream();
+         ByteStreams.copy(in, out);
+         out.close();
+      } catch (IOException e) {
+         out.abort();
+         throw Throwables.propagate(e);
+      } catch (RuntimeException e) {
+         out.abort();
+         throw e;
+      } finally {
+         Closeables.closeQuietly(in);
+      }
+      return api.getObjectApi().getObject(container, blob.getMetadata().getName()).etag();
+   }
+}
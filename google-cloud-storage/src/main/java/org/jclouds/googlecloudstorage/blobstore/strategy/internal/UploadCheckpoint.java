@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.EnumSet;
+import java.util.Properties;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Objects;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Closeables;
+
+/**
+ * Local record of a resumable upload session and of the bytes the server committed, kept in one file per upload.
+ * An upload is identified by its bucket, key, length and a fingerprint of its content, so that a checkpoint is only
+ * resumed by a {@code putBlob} of the same content.
+ *
+ * <p/>The file is replaced atomically on every save, so a crash leaves either the previous or the new checkpoint.
+ *
+ * <p/>The session recorded lets whoever holds it write the object, so checkpoints are only read from and written to a
+ * directory and files that the current user owns and nobody else can access. Only posix file systems are checked.
+ */
+final class UploadCheckpoint {
+
+   private static final String CONTAINER = "container";
+   private static final String KEY = "key";
+   private static final String LENGTH = "length";
+   private static final String FINGERPRINT = "fingerprint";
+   private static final String UPLOAD_ID = "uploadId";
+   private static final String COMMITTED = "committed";
+
+   private static final EnumSet<PosixFilePermission> GROUP_OR_OTHERS = EnumSet.complementOf(
+         EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE,
+               PosixFilePermission.OWNER_EXECUTE));
+
+   @Nullable private final File file;
+   private final String container;
+   private final String key;
+   private final long length;
+   private final String fingerprint;
+
+   private String uploadId;
+   private long committed;
+
+   private UploadCheckpoint(File file, String container, String key, long length, String fingerprint) {
+      this.file = file;
+      this.container = container;
+      this.key = key;
+      this.length = length;
+      this.fingerprint = fingerprint;
+   }
+
+   /**
+    * Checkpoint of the upload, with the session recorded by an earlier attempt if there is one.
+    *
+    * @param fingerprint identifies the content, such as its MD5 or the modification time of its file
+    * @throws IOException if the directory or the checkpoint can be accessed by others, or could not be read
+    */
+   static UploadCheckpoint load(File directory, String container, String key, long length, String fingerprint)
+         throws IOException {
+      checkArgument(!fingerprint.isEmpty(), "content without a fingerprint cannot be told apart, so is never resumed");
+      if (directory.exists()) {
+         checkOwnerOnly(directory.toPath(), true);
+      }
+      String id = Hashing.sha256().hashString(container + '/' + key + '/' + length + '/' + fingerprint,
+            Charsets.UTF_8).toString();
+      UploadCheckpoint checkpoint = new UploadCheckpoint(new File(directory, id + ".properties"), container, key,
+            length, fingerprint);
+      if (Files.exists(checkpoint.file.toPath(), NOFOLLOW_LINKS)) {
+         checkOwnerOnly(checkpoint.file.toPath(), false);
+         Properties properties = new Properties();
+         InputStream in = Files.newInputStream(checkpoint.file.toPath());
+         try {
+            properties.load(in);
+         } finally {
+            Closeables.closeQuietly(in);
+         }
+         if (container.equals(properties.getProperty(CONTAINER)) && key.equals(properties.getProperty(KEY))
+               && String.valueOf(length).equals(properties.getProperty(LENGTH))
+               && fingerprint.equals(properties.getProperty(FINGERPRINT))) {
+            checkpoint.uploadId = properties.getProperty(UPLOAD_ID);
+            checkpoint.committed = Long.parseLong(properties.getProperty(COMMITTED, "0"));
+         }
+      }
+      return checkpoint;
+   }
+
+   /** Checkpoint that is never written, so only lasts as long as this upload. */
+   static UploadCheckpoint inMemory() {
+      return new UploadCheckpoint(null, null, null, 0, null);
+   }
+
+   /** Session of the upload, or null if none was started yet. */
+   @Nullable String uploadId() {
+      return uploadId;
+   }
+
+   /** Bytes the server had committed when last saved. */
+   long committed() {
+      return committed;
+   }
+
+   void save(String uploadId, long committed) throws IOException {
+      if (Objects.equal(this.uploadId, uploadId) && this.committed == committed) {
+         return;
+      }
+      if (file == null) {
+         this.uploadId = checkNotNull(uploadId, "uploadId");
+         this.committed = committed;
+         return;
+      }
+      Properties properties = new Properties();
+      properties.setProperty(CONTAINER, container);
+      properties.setProperty(KEY, key);
+      properties.setProperty(LENGTH, String.valueOf(length));
+      properties.setProperty(FINGERPRINT, fingerprint);
+      properties.setProperty(UPLOAD_ID, checkNotNull(uploadId, "uploadId"));
+      properties.setProperty(COMMITTED, String.valueOf(committed));
+
+      Path directory = file.getParentFile().toPath();
+      createOwnerOnlyDirectory(directory);
+      Path temp = createOwnerOnlyTempFile(directory, file.getName());
+      OutputStream out = Files.newOutputStream(temp);
+      try {
+         properties.store(out, null);
+      } finally {
+         Closeables.close(out, false);
+      }
+      Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      this.uploadId = uploadId;
+      this.committed = committed;
+   }
+
+   void delete() throws IOException {
+      if (file != null) {
+         Files.deleteIfExists(file.toPath());
+      }
+      uploadId = null;
+      committed = 0;
+   }
+
+   private static void createOwnerOnlyDirectory(Path directory) throws IOException {
+      if (!Files.isDirectory(directory)) {
+         try {
+            Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(
+                  PosixFilePermissions.fromString("rwx------")));
+         } catch (UnsupportedOperationException e) {
+            // not a posix file system
+            Files.createDirectories(directory);
+         }
+      }
+      checkOwnerOnly(directory, true);
+   }
+
+   private static Path createOwnerOnlyTempFile(Path directory, String prefix) throws IOException {
+      try {
+         return Files.createTempFile(directory, prefix, ".tmp", PosixFilePermissions.asFileAttribute(
+               PosixFilePermissions.fromString("rw-------")));
+      } catch (UnsupportedOperationException e) {
+         // not a posix file system
+         return Files.createTempFile(directory, prefix, ".tmp");
+      }
+   }
+
+   /**
+    * Fails unless {@code path} is owned by the current user and not accessible to anyone else. Files are not followed
+    * when they are links, so a link planted in the directory is refused.
+    */
+   private static void checkOwnerOnly(Path path, boolean followLinks) throws IOException {
+      PosixFileAttributes attributes;
+      try {
+         attributes = followLinks ? Files.readAttributes(path, PosixFileAttributes.class)
+               : Files.readAttributes(path, PosixFileAttributes.class, NOFOLLOW_LINKS);
+      } catch (UnsupportedOperationException e) {
+         return;
+      }
+      String owner = attributes.owner().getName();
+      if (!owner.equals(System.getProperty("user.name"))) {
+         throw new IOException(path + " is owned by " + owner + ", not the current user");
+      }
+      if (!followLinks && !attributes.isRegularFile()) {
+         throw new IOException(path + " is not a regular file");
+      }
+      if (!Sets.intersection(attributes.permissions(), GROUP_OR_OTHERS).isEmpty()) {
+         throw new IOException(path + " is accessible by others: "
+               + PosixFilePermissions.toString(attributes.permissions()));
+      }
+   }
+}
@@ -20,9 +20,12 @@ import javax.inject.Singleton;
 
 import org.jclouds.domain.Credentials;
 import org.jclouds.googlecloud.config.CurrentProject;
+import org.jclouds.googlecloud.config.GoogleCloudJavaUrlHttpCommandExecutorServiceModule;
+import org.jclouds.googlecloud.handlers.RateLimitRetryHandler;
 import org.jclouds.googlecloudstorage.GoogleCloudStorageApi;
 import org.jclouds.googlecloudstorage.handlers.GoogleCloudStorageErrorHandler;
 import org.jclouds.http.HttpErrorHandler;
+import org.jclouds.http.HttpRetryHandler;
 import org.jclouds.http.annotation.ClientError;
 import org.jclouds.http.annotation.Redirection;
 import org.jclouds.http.annotation.ServerError;
@@ -41,6 +44,7 @@ public class GoogleCloudStorageHttpApiModule extends HttpApiModule<GoogleCloudSt
 
    @Override public void configure(){
       super.configure();
+      install(new GoogleCloudJavaUrlHttpCommandExecutorServiceModule());
       bind(OAuthScopes.class).toInstance(GoogleCloudStorageOAuthScopes.create());
    }
 
@@ -51,6 +55,10 @@ public class GoogleCloudStorageHttpApiModule extends HttpApiModule<GoogleCloudSt
       bind(HttpErrorHandler.class).annotatedWith(ServerError.class).to(GoogleCloudStorageErrorHandler.class);
    }
 
+   @Override protected void bindRetryHandlers() {
+      bind(HttpRetryHandler.class).annotatedWith(ClientError.class).to(RateLimitRetryHandler.class);
+   }
+
    @Provides
    @Singleton @CurrentProject
    public Supplier<String> supplyProject(@Provider final Supplier<Credentials> creds) {
@@ -50,7 +50,7 @@ public class GoogleCloudStorageParserModule extends AbstractModule {
 
    // TODO: change jclouds core to use collaborative set bindings
    @Provides @Singleton Set<TypeAdapterFactory> typeAdapterFactories() {
-      return ImmutableSet.<TypeAdapterFactory>of(new ListPageAdapterFactory());
+      return ImmutableSet.<TypeAdapterFactory>of(new ListPageAdapterFactory(), new GoogleCloudStorageTypeAdapterFactory());
    }
 
    private static class BucketTemplateTypeAdapter implements JsonSerializer<BucketTemplate> {
@@ -33,33 +33,35 @@ import com.google.auto.value.AutoValue;
 /**
  * This class represent an object in a Google Cloud Storage Bucket.
  *
+ * <p/>When left out of a {@code fields} projection, collections are empty, numbers are zero and other fields are
+ * null.
+ *
  * @see <a href = "https://developers.google.com/storage/docs/json_api/v1/Objects"/>
  */
 @AutoValue
-// TODO: nullable sweep
 public abstract class GoogleCloudStorageObject {
 
-   public abstract String id();
-   public abstract URI selfLink();
-   public abstract String etag();
-   public abstract String name();
-   public abstract String bucket();
+   @Nullable public abstract String id();
+   @Nullable public abstract URI selfLink();
+   @Nullable public abstract String etag();
+   @Nullable public abstract String name();
+   @Nullable public abstract String bucket();
    public abstract long generation();
    public abstract long metageneration();
-   public abstract String contentType();
-   public abstract Date updated();
+   @Nullable public abstract String contentType();
+   @Nullable public abstract Date updated();
    @Nullable public abstract Date timeDeleted();
-   public abstract StorageClass storageClass();
+   @Nullable public abstract StorageClass storageClass();
    public abstract long size();
    @Nullable public abstract String md5Hash();
-   public abstract URI mediaLink();
+   @Nullable public abstract URI mediaLink();
    public abstract Map<String, String> metadata();
    @Nullable public abstract String contentEncoding();
    @Nullable public abstract String contentDisposition();
    @Nullable public abstract String contentLanguage();
    @Nullable public abstract String cacheControl();
    public abstract List<ObjectAccessControls> acl();
-   public abstract Owner owner();
+   @Nullable public abstract Owner owner();
    @Nullable public abstract String crc32c();
    @Nullable public abstract Integer componentCount();
 
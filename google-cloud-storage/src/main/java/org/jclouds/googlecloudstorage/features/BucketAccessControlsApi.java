@@ -31,6 +31,7 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 
 import org.jclouds.Fallbacks.NullOnNotFoundOr404;
+import org.jclouds.googlecloud.filters.AdaptiveRateLimitFilter;
 import org.jclouds.googlecloudstorage.domain.BucketAccessControls;
 import org.jclouds.googlecloudstorage.domain.templates.BucketAccessControlsTemplate;
 import org.jclouds.http.HttpResponse;
@@ -51,7 +52,7 @@ import org.jclouds.rest.binders.BindToJsonPayload;
  */
 
 @SkipEncoding({ '/', '=' })
-@RequestFilters(OAuthFilter.class)
+@RequestFilters({ OAuthFilter.class, AdaptiveRateLimitFilter.class })
 @Consumes(APPLICATION_JSON)
 public interface BucketAccessControlsApi {
 
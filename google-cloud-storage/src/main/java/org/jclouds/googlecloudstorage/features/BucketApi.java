@@ -33,6 +33,7 @@ import org.jclouds.Fallbacks.FalseOnNotFoundOr404;
 import org.jclouds.Fallbacks.NullOnNotFoundOr404;
 import org.jclouds.blobstore.BlobStoreFallbacks.NullOnKeyAlreadyExists;
 import org.jclouds.googlecloud.domain.ListPage;
+import org.jclouds.googlecloud.filters.AdaptiveRateLimitFilter;
 import org.jclouds.googlecloudstorage.GoogleCloudStorageFallbacks.NullOnBucketAlreadyExists;
 import org.jclouds.googlecloudstorage.domain.Bucket;
 import org.jclouds.googlecloudstorage.domain.templates.BucketTemplate;
@@ -57,7 +58,7 @@ import org.jclouds.rest.binders.BindToJsonPayload;
  */
 
 @SkipEncoding({ '/', '=' })
-@RequestFilters(OAuthFilter.class)
+@RequestFilters({ OAuthFilter.class, AdaptiveRateLimitFilter.class })
 @Consumes(APPLICATION_JSON)
 public interface BucketApi {
 
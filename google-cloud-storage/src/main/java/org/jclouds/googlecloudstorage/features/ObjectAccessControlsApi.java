@@ -32,6 +32,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 
 import org.jclouds.Fallbacks.NullOnNotFoundOr404;
+import org.jclouds.googlecloud.filters.AdaptiveRateLimitFilter;
 import org.jclouds.googlecloudstorage.domain.ObjectAccessControls;
 import org.jclouds.googlecloudstorage.domain.templates.ObjectAccessControlsTemplate;
 import org.jclouds.javax.annotation.Nullable;
@@ -50,7 +51,7 @@ import org.jclouds.rest.binders.BindToJsonPayload;
  * @see <a href = " https://developers.google.com/storage/docs/json_api/v1/objectAccessControls "/>
  */
 @SkipEncoding({ '/', '=' })
-@RequestFilters(OAuthFilter.class)
+@RequestFilters({ OAuthFilter.class, AdaptiveRateLimitFilter.class })
 @Consumes(APPLICATION_JSON)
 public interface ObjectAccessControlsApi {
 
@@ -31,6 +31,7 @@ import javax.ws.rs.Produces;
 
 import org.jclouds.Fallbacks.FalseOnNotFoundOr404;
 import org.jclouds.Fallbacks.NullOnNotFoundOr404;
+import org.jclouds.googlecloud.filters.AdaptiveRateLimitFilter;
 import org.jclouds.googlecloudstorage.binders.MultipartUploadBinder;
 import org.jclouds.googlecloudstorage.binders.UploadBinder;
 import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
@@ -66,7 +67,7 @@ import org.jclouds.rest.binders.BindToJsonPayload;
  * @see <a href="https://developers.google.com/storage/docs/json_api/v1/objects"/>
  */
 @SkipEncoding({ '/', '=' })
-@RequestFilters(OAuthFilter.class)
+@RequestFilters({ OAuthFilter.class, AdaptiveRateLimitFilter.class })
 public interface ObjectApi {
 
    /**
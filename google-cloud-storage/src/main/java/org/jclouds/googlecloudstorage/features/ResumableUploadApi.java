@@ -28,6 +28,7 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.QueryParam;
 
+import org.jclouds.googlecloud.filters.AdaptiveRateLimitFilter;
 import org.jclouds.googlecloudstorage.binders.UploadBinder;
 import org.jclouds.googlecloudstorage.domain.ResumableUpload;
 import org.jclouds.googlecloudstorage.domain.templates.ObjectTemplate;
@@ -51,7 +52,7 @@ import org.jclouds.rest.binders.BindToJsonPayload;
  * @see <a href="https://developers.google.com/storage/docs/json_api/v1/how-tos/upload#resumable"/>
  */
 @SkipEncoding({ '/', '=' })
-@RequestFilters(OAuthFilter.class)
+@RequestFilters({ OAuthFilter.class, AdaptiveRateLimitFilter.class })
 @Consumes(APPLICATION_JSON)
 public interface ResumableUploadApi {
 
@@ -106,6 +107,29 @@ public interface ResumableUploadApi {
             @HeaderParam("X-Upload-Content-Length") Long contentLength,
             @BinderParam(BindToJsonPayload.class) ObjectTemplate metadata);
 
+   /**
+    * initiate a Resumable Upload Session for an object whose length is not known yet
+    *
+    * @see https://developers.google.com/storage/docs/json_api/v1/how-tos/upload#resumable
+    *
+    * @param bucketName
+    *           Name of the bucket in which the object to be stored
+    * @param contentType
+    *           Content type of the uploaded data (Media part)
+    * @param metadata
+    *           Supply an {@link ObjectTemplate}
+    *
+    * @return a {@link ResumableUpload}
+    */
+   @Named("Object:resumableUpload")
+   @POST
+   @QueryParams(keys = "uploadType", values = "resumable")
+   @Path("/upload/storage/v1/b/{bucket}/o")
+   @ResponseParser(ParseToResumableUpload.class)
+   ResumableUpload initResumableUpload(@PathParam("bucket") String bucketName,
+            @HeaderParam("X-Upload-Content-Type") String contentType,
+            @BinderParam(BindToJsonPayload.class) ObjectTemplate metadata);
+
    /**
     * Stores a new object
     *
@@ -20,6 +20,7 @@ import static org.jclouds.http.HttpUtils.closeClientButKeepContentStream;
 
 import javax.inject.Singleton;
 
+import org.jclouds.googlecloud.handlers.RateLimitedResponses;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpErrorHandler;
 import org.jclouds.http.HttpResponse;
@@ -49,9 +50,13 @@ public class GoogleCloudStorageErrorHandler implements HttpErrorHandler {
          case 308:
             return;
          case 401:
-         case 403:
             exception = new AuthorizationException(message, exception);
             break;
+         case 403:
+            if (!RateLimitedResponses.isRateLimited(403, message)) {
+               exception = new AuthorizationException(message, exception);
+            }
+            break;
          case 404:            
              exception = new ResourceNotFoundException(message, exception);           
              break;
@@ -58,6 +58,12 @@ public class GetObjectOptions extends BaseHttpRequestOptions {
       return this;
    }
 
+   /** Limits the response to a partial response selector, such as {@code name,size,md5Hash}. */
+   public GetObjectOptions fields(String fields) {
+      this.queryParameters.put("fields", checkNotNull(fields, "fields"));
+      return this;
+   }
+
    public static class Builder {
 
       public GetObjectOptions ifGenerationMatch(Long ifGenerationMatch) {
@@ -83,5 +89,9 @@ public class GetObjectOptions extends BaseHttpRequestOptions {
       public GetObjectOptions projection(Projection projection) {
          return new GetObjectOptions().projection(projection);
       }
+
+      public GetObjectOptions fields(String fields) {
+         return new GetObjectOptions().fields(fields);
+      }
    }
 }
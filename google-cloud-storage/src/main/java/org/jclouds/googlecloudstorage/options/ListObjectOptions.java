@@ -53,6 +53,12 @@ public class ListObjectOptions extends BaseHttpRequestOptions {
       return this;
    }
 
+   /** Limits the response to a partial response selector, such as {@code items(name,size),nextPageToken}. */
+   public ListObjectOptions fields(String fields) {
+      this.queryParameters.put("fields", checkNotNull(fields, "fields"));
+      return this;
+   }
+
    public static class Builder {
 
       public ListObjectOptions delimiter(String delimiter) {
@@ -78,5 +84,9 @@ public class ListObjectOptions extends BaseHttpRequestOptions {
       public ListObjectOptions projection(Projection projection) {
          return new ListObjectOptions().projection(projection);
       }
+
+      public ListObjectOptions fields(String fields) {
+         return new ListObjectOptions().fields(fields);
+      }
    }
 }
@@ -34,4 +34,86 @@ public final class GoogleCloudStorageConstants {
     */
    @Beta
    public static final String OPERATION_COMPLETE_INTERVAL = "jclouds.google-cloud-storage.operation-complete-interval";
+
+   /**
+    * How {@code putBlob} with {@link org.jclouds.blobstore.options.PutOptions#multipart()} uploads parts: either
+    * {@code sequential}, one part after another, {@code parallel}, several parts at a time, or {@code resumable}, in
+    * chunks of one resumable upload session that survives failures and restarts. Defaults to {@code sequential}.
+    */
+   @Beta
+   public static final String MULTIPART_UPLOAD_STRATEGY = "jclouds.google-cloud-storage.multipart-upload-strategy";
+
+   /**
+    * Most parts uploaded at the same time by the {@code parallel} multipart upload strategy. Defaults to {@code 4}.
+    */
+   @Beta
+   public static final String MULTIPART_UPLOAD_PARALLELISM =
+         "jclouds.google-cloud-storage.multipart-upload.parallelism";
+
+   /**
+    * Most bytes of parts being uploaded at the same time by the {@code parallel} multipart upload strategy, which
+    * bounds the memory used to buffer parts of payloads that cannot be re-read. Defaults to 256 MiB. At least one
+    * part is always uploaded, whatever its size.
+    */
+   @Beta
+   public static final String MULTIPART_UPLOAD_MAX_IN_FLIGHT_BYTES =
+         "jclouds.google-cloud-storage.multipart-upload.max-in-flight-bytes";
+
+   /**
+    * Times the {@code parallel} and {@code resumable} multipart upload strategies upload a failed part or chunk
+    * again before giving up on the whole upload. Defaults to {@code 3}.
+    */
+   @Beta
+   public static final String MULTIPART_UPLOAD_PART_RETRIES =
+         "jclouds.google-cloud-storage.multipart-upload.part-retries";
+
+   /**
+    * Whether multipart uploads delete their part and intermediate compose objects once done with them, whether the
+    * upload succeeded or failed. Deletes run in the background, off the upload. Defaults to {@code true}.
+    */
+   @Beta
+   public static final String MULTIPART_UPLOAD_DELETE_PARTS =
+         "jclouds.google-cloud-storage.multipart-upload.delete-parts";
+
+   /**
+    * Age in milliseconds after which objects named like the parts of a key, such as {@code key_jclouds-part_01} or
+    * {@code key_jclouds-part_compose1_1}, are considered left behind by a failed upload. When positive, each multipart
+    * upload of the key deletes them in the background. Names under {@code key_jclouds-part_} are reserved for parts,
+    * and any object of the bucket named like one is deleted, so this is disabled by default.
+    */
+   @Beta
+   public static final String MULTIPART_UPLOAD_STALE_PART_AGE =
+         "jclouds.google-cloud-storage.multipart-upload.stale-part-age";
+
+   /**
+    * Size in bytes of the chunks sent by the {@code resumable} multipart upload strategy and by uploads of blobs of
+    * unknown length, a multiple of 256 KiB. Each chunk is buffered in memory. Defaults to 8 MiB.
+    */
+   @Beta
+   public static final String RESUMABLE_UPLOAD_CHUNK_SIZE =
+         "jclouds.google-cloud-storage.resumable-upload.chunk-size";
+
+   /**
+    * Directory where the {@code resumable} multipart upload strategy records the session and committed offset of
+    * each upload, so that a later {@code putBlob} of the same content continues where it stopped. Defaults to
+    * {@code jclouds-google-cloud-storage-uploads} in {@code java.io.tmpdir}.
+    */
+   @Beta
+   public static final String RESUMABLE_UPLOAD_CHECKPOINT_DIR =
+         "jclouds.google-cloud-storage.resumable-upload.checkpoint-dir";
+
+   /**
+    * Most chunks buffered at the same time by uploads of blobs of unknown length, which stream their payload without
+    * spooling it. Each upload holds one chunk; further uploads wait for one to be released. Defaults to {@code 4}.
+    */
+   @Beta
+   public static final String STREAMING_UPLOAD_BUFFERS = "jclouds.google-cloud-storage.streaming-upload.buffers";
+
+   /**
+    * Whether uploads of blobs of unknown length buffer their chunks in direct memory, outside of the heap. Defaults
+    * to {@code false}.
+    */
+   @Beta
+   public static final String STREAMING_UPLOAD_DIRECT_BUFFERS =
+         "jclouds.google-cloud-storage.streaming-upload.direct-buffers";
 }
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.strategy.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "ByteBufferPoolTest")
+public class ByteBufferPoolTest {
+
+   public void reusesReleasedBuffers() throws Exception {
+      ByteBufferPool pool = new ByteBufferPool(16, 2, false);
+      ByteBuffer buffer = pool.acquire();
+      buffer.put((byte) 1);
+      pool.release(buffer);
+
+      ByteBuffer reused = pool.acquire();
+      assertSame(reused, buffer);
+      assertEquals(reused.position(), 0);
+      assertEquals(reused.remaining(), 16);
+   }
+
+   public void allocatesDirectBuffers() throws Exception {
+      assertTrue(new ByteBufferPool(16, 1, true).acquire().isDirect());
+      assertFalse(new ByteBufferPool(16, 1, false).acquire().isDirect());
+   }
+
+   public void waitsForAReleasedBuffer() throws Exception {
+      final ByteBufferPool pool = new ByteBufferPool(16, 1, false);
+      ByteBuffer buffer = pool.acquire();
+      final CountDownLatch acquired = new CountDownLatch(1);
+      Thread waiter = new Thread() {
+         @Override public void run() {
+            try {
+               pool.acquire();
+               acquired.countDown();
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            }
+         }
+      };
+      waiter.start();
+
+      assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+      pool.release(buffer);
+      assertTrue(acquired.await(5, TimeUnit.SECONDS));
+   }
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.strategy.internal;
+
+import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
+import static org.jclouds.blobstore.options.PutOptions.Builder.multipart;
+import static org.jclouds.googlecloud.config.GoogleCloudProperties.CREDENTIAL_TYPE;
+import static org.jclouds.googlecloud.config.GoogleCloudProperties.PROJECT_NAME;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.MULTIPART_UPLOAD_DELETE_PARTS;
+import static org.jclouds.oauth.v2.config.CredentialType.BEARER_TOKEN_CREDENTIALS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.concurrent.config.ExecutorServiceModule;
+import org.jclouds.googlecloudstorage.GoogleCloudStorageProviderMetadata;
+import org.jclouds.googlecloudstorage.internal.BaseGoogleCloudStorageApiMockTest;
+import org.jclouds.http.okhttp.config.OkHttpCommandExecutorServiceModule;
+import org.jclouds.io.Payloads;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.gson.JsonParser;
+import com.google.inject.Module;
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+@Test(groups = "unit", testName = "ComposeTreeMockTest", singleThreaded = true)
+public class ComposeTreeMockTest extends BaseGoogleCloudStorageApiMockTest {
+
+   public void singleComposeUpToMaxSources() {
+      assertEquals(ComposeTree.groupSizes(2), ImmutableList.of());
+      assertEquals(ComposeTree.groupSizes(32), ImmutableList.of());
+   }
+
+   public void composesOnlyWhatDoesNotFit() {
+      assertEquals(ComposeTree.groupSizes(33), ImmutableList.of(2));
+      assertEquals(ComposeTree.groupSizes(64), ImmutableList.of(17, 17));
+   }
+
+   public void balancesFullLevels() {
+      List<Integer> sizes = ComposeTree.groupSizes(1024);
+      assertEquals(sizes.size(), 32);
+      for (int size : sizes) {
+         assertEquals(size, 32);
+      }
+   }
+
+   public void usesMinimumComposes() {
+      for (int parts : new int[] { 33, 100, 1000, 1025, 5000, MultipartUpload.MAX_NUMBER_OF_PARTS }) {
+         int composes = 1;
+         int levels = 1;
+         for (int sources = parts; sources > 32; levels++) {
+            List<Integer> sizes = ComposeTree.groupSizes(sources);
+            for (int size : sizes) {
+               assertTrue(size >= 2 && size <= 32, parts + " parts: group of " + size);
+               sources -= size - 1;
+            }
+            composes += sizes.size();
+         }
+         assertEquals(composes, (parts - 2) / 31 + 1, parts + " parts");
+         assertEquals(levels, (int) Math.ceil(Math.log(parts) / Math.log(32)), parts + " parts");
+      }
+   }
+
+   public void composesIntermediateObjectBeforeDestination() throws Exception {
+      for (int i = 0; i < 33 + 2; i++) {
+         server.enqueue(jsonResponse("/object_get.json"));
+      }
+
+      Properties overrides = new Properties();
+      overrides.setProperty("jclouds.mpu.parts.size", "1024");
+      overrides.setProperty(MULTIPART_UPLOAD_DELETE_PARTS, "false");
+      BlobStore blobStore = builder().overrides(overrides).buildView(BlobStoreContext.class).getBlobStore();
+      Blob blob = blobStore.blobBuilder("key").payload(Payloads.newByteArrayPayload(new byte[32 * 1024 + 100]))
+            .contentType("application/octet-stream").build();
+      assertEquals(blobStore.putBlob("bucket", blob, multipart()), "etag");
+
+      for (int i = 1; i <= 33; i++) {
+         assertSent(server, "POST",
+               String.format("/upload/storage/v1/b/bucket/o?uploadType=media&name=key_jclouds-part_%02d", i), null);
+      }
+      assertEquals(sourceCount(
+            assertSent(server, "POST", "/storage/v1/b/bucket/o/key_jclouds-part_compose1_1/compose")), 2);
+      assertEquals(sourceCount(assertSent(server, "POST", "/storage/v1/b/bucket/o/key/compose")), 32);
+   }
+
+   public void deletesIntermediatesOnlyOnceRunningComposesStopped() throws Exception {
+      final AtomicInteger composes = new AtomicInteger();
+      final AtomicInteger slowStarted = new AtomicInteger();
+      final AtomicInteger slowFinished = new AtomicInteger();
+      final AtomicInteger startedAtDelete = new AtomicInteger(-1);
+      final AtomicInteger finishedAtDelete = new AtomicInteger(-1);
+      final CountDownLatch deleted = new CountDownLatch(1);
+      server.setDispatcher(new Dispatcher() {
+         @Override public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            if (request.getPath().startsWith("/upload/")) {
+               return jsonResponse("/object_get.json");
+            }
+            if (request.getPath().startsWith("/batch/")) {
+               if (new String(request.getBody(), Charsets.UTF_8).contains("key_jclouds-part_compose1_")) {
+                  startedAtDelete.set(slowStarted.get());
+                  finishedAtDelete.set(slowFinished.get());
+                  deleted.countDown();
+               }
+               return new MockResponse().setResponseCode(500);
+            }
+            if (!request.getPath().contains("/key_jclouds-part_compose1_")) {
+               return new MockResponse().setResponseCode(500);
+            }
+            if (composes.getAndIncrement() == 0) {
+               // fail only once the other compose of the level is running
+               for (int i = 0; i < 100 && slowStarted.get() == 0; i++) {
+                  Thread.sleep(50);
+               }
+               return new MockResponse().setResponseCode(400);
+            }
+            slowStarted.incrementAndGet();
+            Thread.sleep(500);
+            slowFinished.incrementAndGet();
+            return jsonResponse("/object_get.json");
+         }
+      });
+
+      ListeningExecutorService userExecutor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(8));
+      try {
+         Properties overrides = new Properties();
+         overrides.setProperty(PROJECT_NAME, "party");
+         overrides.setProperty(CREDENTIAL_TYPE, BEARER_TOKEN_CREDENTIALS.toString());
+         overrides.setProperty("jclouds.mpu.parts.size", "1024");
+         overrides.setProperty(PROPERTY_MAX_RETRIES, "0");
+         BlobStore blobStore = ContextBuilder.newBuilder(new GoogleCloudStorageProviderMetadata())
+               .credentials(identity, credential)
+               .endpoint(url(""))
+               .overrides(overrides)
+               .modules(ImmutableSet.<Module>of(new ExecutorServiceModule(userExecutor),
+                     new OkHttpCommandExecutorServiceModule()))
+               .buildView(BlobStoreContext.class).getBlobStore();
+         // 64 parts are composed by two intermediate objects
+         Blob blob = blobStore.blobBuilder("key").payload(Payloads.newByteArrayPayload(new byte[64 * 1024]))
+               .contentType("application/octet-stream").build();
+         try {
+            blobStore.putBlob("bucket", blob, multipart());
+            fail("expected the failed compose to fail the upload");
+         } catch (RuntimeException expected) {
+         }
+
+         assertTrue(deleted.await(10, TimeUnit.SECONDS), "intermediate objects were not deleted");
+         assertTrue(startedAtDelete.get() > 0, "no compose was running when the level failed");
+         assertEquals(finishedAtDelete.get(), startedAtDelete.get());
+      } finally {
+         userExecutor.shutdownNow();
+      }
+   }
+
+   private static int sourceCount(RecordedRequest request) {
+      return new JsonParser().parse(new String(request.getBody(), Charsets.UTF_8)).getAsJsonObject()
+            .getAsJsonArray("sourceObjects").size();
+   }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.strategy.internal;
+
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.MULTIPART_UPLOAD_DELETE_PARTS;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.MULTIPART_UPLOAD_STALE_PART_AGE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Properties;
+
+import org.jclouds.googlecloudstorage.internal.BaseGoogleCloudStorageApiMockTest;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+@Test(groups = "unit", testName = "MultipartUploadCleanerMockTest", singleThreaded = true)
+public class MultipartUploadCleanerMockTest extends BaseGoogleCloudStorageApiMockTest {
+
+   public void deletesPartsInOneBatch() throws Exception {
+      server.enqueue(batchResponse(204, 404, 204));
+
+      cleaner(new Properties()).delete("bucket", ImmutableList.of("key_1", "key_2", "key_3")).get();
+
+      assertEquals(server.getRequestCount(), 1);
+      String body = batchBody(server.takeRequest());
+      assertTrue(body.contains("DELETE /storage/v1/b/bucket/o/key_1 HTTP/1.1"), body);
+      assertTrue(body.contains("DELETE /storage/v1/b/bucket/o/key_2 HTTP/1.1"), body);
+      assertTrue(body.contains("DELETE /storage/v1/b/bucket/o/key_3 HTTP/1.1"), body);
+   }
+
+   public void keepsPartsWhenDisabled() throws Exception {
+      Properties overrides = new Properties();
+      overrides.setProperty(MULTIPART_UPLOAD_DELETE_PARTS, "false");
+
+      cleaner(overrides).delete("bucket", ImmutableList.of("key_1")).get();
+
+      assertEquals(server.getRequestCount(), 0);
+   }
+
+   public void sweepsOnlyStaleParts() throws Exception {
+      server.enqueue(jsonResponse("/object_list_parts.json"));
+      server.enqueue(batchResponse(204, 204));
+      Properties overrides = new Properties();
+      overrides.setProperty(MULTIPART_UPLOAD_STALE_PART_AGE, "3600000");
+
+      cleaner(overrides).sweep("bucket", "key").get();
+
+      RecordedRequest list = server.takeRequest();
+      assertEquals(list.getMethod(), "GET");
+      assertTrue(list.getPath().startsWith("/storage/v1/b/bucket/o?"), list.getPath());
+      assertTrue(list.getPath().contains("prefix=key_jclouds-part_"), list.getPath());
+      String body = batchBody(server.takeRequest());
+      assertTrue(body.contains("DELETE /storage/v1/b/bucket/o/key_jclouds-part_1 HTTP/1.1"), body);
+      assertTrue(body.contains("DELETE /storage/v1/b/bucket/o/key_jclouds-part_compose1_1 HTTP/1.1"), body);
+      assertFalse(body.contains("key_jclouds-part_2"), body); // updated recently
+      assertFalse(body.contains("key_2020"), body); // not a part
+   }
+
+   public void sweepIsDisabledByDefault() throws Exception {
+      cleaner(new Properties()).sweep("bucket", "key").get();
+
+      assertEquals(server.getRequestCount(), 0);
+   }
+
+   private MultipartUploadCleaner cleaner(Properties overrides) {
+      return builder().overrides(overrides).buildInjector().getInstance(MultipartUploadCleaner.class);
+   }
+
+   private static String batchBody(RecordedRequest request) {
+      assertEquals(request.getMethod(), "POST");
+      assertEquals(request.getPath(), "/batch/storage/v1");
+      return new String(request.getBody(), Charsets.UTF_8);
+   }
+
+   private static MockResponse batchResponse(int... statusCodes) {
+      StringBuilder body = new StringBuilder();
+      for (int i = 0; i < statusCodes.length; i++) {
+         body.append("--batch_parts\r\n")
+               .append("Content-Type: application/http\r\n")
+               .append("Content-ID: <response-item").append(i).append(">\r\n")
+               .append("\r\n")
+               .append("HTTP/1.1 ").append(statusCodes[i]).append(statusCodes[i] == 404 ? " Not Found" : " No Content")
+               .append("\r\n\r\n");
+      }
+      body.append("--batch_parts--\r\n");
+      return new MockResponse().addHeader("Content-Type", "multipart/mixed; boundary=batch_parts")
+            .setBody(body.toString());
+   }
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.strategy.internal;
+
+import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
+import static org.jclouds.blobstore.options.PutOptions.Builder.multipart;
+import static org.jclouds.googlecloud.config.GoogleCloudProperties.CREDENTIAL_TYPE;
+import static org.jclouds.googlecloud.config.GoogleCloudProperties.PROJECT_NAME;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.MULTIPART_UPLOAD_DELETE_PARTS;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.MULTIPART_UPLOAD_PART_RETRIES;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.MULTIPART_UPLOAD_STRATEGY;
+import static org.jclouds.oauth.v2.config.CredentialType.BEARER_TOKEN_CREDENTIALS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.concurrent.config.ExecutorServiceModule;
+import org.jclouds.googlecloudstorage.GoogleCloudStorageProviderMetadata;
+import org.jclouds.googlecloudstorage.internal.BaseGoogleCloudStorageApiMockTest;
+import org.jclouds.http.okhttp.config.OkHttpCommandExecutorServiceModule;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.Module;
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+@Test(groups = "unit", testName = "ParallelMultipartUploadStrategyMockTest", singleThreaded = true)
+public class ParallelMultipartUploadStrategyMockTest extends BaseGoogleCloudStorageApiMockTest {
+
+   private static final byte[] CONTENT = new byte[2500];
+
+   public void uploadsPartsThenComposes() throws Exception {
+      enqueueUploadedParts(3);
+      server.enqueue(jsonResponse("/object_get.json"));
+
+      BlobStore blobStore = blobStore();
+      assertEquals(blobStore.putBlob("bucket", blob(blobStore, Payloads.newByteArrayPayload(CONTENT)), multipart()),
+            "etag");
+
+      assertPartSent("key_jclouds-part_1", 1024);
+      assertPartSent("key_jclouds-part_2", 1024);
+      assertPartSent("key_jclouds-part_3", 452);
+      assertSent(server, "POST", "/storage/v1/b/bucket/o/key/compose");
+   }
+
+   public void buffersPartsOfStreams() throws Exception {
+      enqueueUploadedParts(3);
+      server.enqueue(jsonResponse("/object_get.json"));
+
+      Payload stream = Payloads.newInputStreamPayload(new ByteArrayInputStream(CONTENT));
+      stream.getContentMetadata().setContentLength((long) CONTENT.length);
+      BlobStore blobStore = blobStore();
+      assertEquals(blobStore.putBlob("bucket", blob(blobStore, stream), multipart()), "etag");
+
+      assertPartSent("key_jclouds-part_1", 1024);
+      assertPartSent("key_jclouds-part_2", 1024);
+      assertPartSent("key_jclouds-part_3", 452);
+      assertSent(server, "POST", "/storage/v1/b/bucket/o/key/compose");
+   }
+
+   public void retriesFailedPart() throws Exception {
+      enqueueUploadedParts(1);
+      server.enqueue(new MockResponse().setResponseCode(503));
+      enqueueUploadedParts(2);
+      server.enqueue(jsonResponse("/object_get.json"));
+
+      BlobStore blobStore = blobStore();
+      assertEquals(blobStore.putBlob("bucket", blob(blobStore, Payloads.newByteArrayPayload(CONTENT)), multipart()),
+            "etag");
+
+      assertPartSent("key_jclouds-part_1", 1024);
+      assertPartSent("key_jclouds-part_2", 1024);
+      assertPartSent("key_jclouds-part_2", 1024);
+      assertPartSent("key_jclouds-part_3", 452);
+      assertSent(server, "POST", "/storage/v1/b/bucket/o/key/compose");
+   }
+
+   public void deletesPartsOnlyOnceRunningUploadsStopped() throws Exception {
+      final AtomicInteger slowStarted = new AtomicInteger();
+      final AtomicInteger slowFinished = new AtomicInteger();
+      final AtomicInteger startedAtDelete = new AtomicInteger(-1);
+      final AtomicInteger finishedAtDelete = new AtomicInteger(-1);
+      final CountDownLatch deleted = new CountDownLatch(1);
+      server.setDispatcher(new Dispatcher() {
+         @Override public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            if (request.getPath().startsWith("/batch/")) {
+               startedAtDelete.set(slowStarted.get());
+               finishedAtDelete.set(slowFinished.get());
+               deleted.countDown();
+               return new MockResponse().setResponseCode(500);
+            }
+            if (request.getPath().endsWith("name=key_jclouds-part_1")) {
+               // fail only once another part is being written
+               for (int i = 0; i < 100 && slowStarted.get() == 0; i++) {
+                  Thread.sleep(50);
+               }
+               return new MockResponse().setResponseCode(400);
+            }
+            slowStarted.incrementAndGet();
+            Thread.sleep(500);
+            slowFinished.incrementAndGet();
+            return jsonResponse("/object_get.json");
+         }
+      });
+
+      ListeningExecutorService userExecutor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(8));
+      try {
+         Properties overrides = new Properties();
+         overrides.setProperty(PROJECT_NAME, "party");
+         overrides.setProperty(CREDENTIAL_TYPE, BEARER_TOKEN_CREDENTIALS.toString());
+         overrides.setProperty(MULTIPART_UPLOAD_STRATEGY, "parallel");
+         overrides.setProperty(MULTIPART_UPLOAD_PART_RETRIES, "0");
+         overrides.setProperty("jclouds.mpu.parts.size", "1024");
+         overrides.setProperty(PROPERTY_MAX_RETRIES, "0");
+         BlobStore blobStore = ContextBuilder.newBuilder(new GoogleCloudStorageProviderMetadata())
+               .credentials(identity, credential)
+               .endpoint(url(""))
+               .overrides(overrides)
+               .modules(ImmutableSet.<Module>of(new ExecutorServiceModule(userExecutor),
+                     new OkHttpCommandExecutorServiceModule()))
+               .buildView(BlobStoreContext.class).getBlobStore();
+         try {
+            blobStore.putBlob("bucket", blob(blobStore, Payloads.newByteArrayPayload(CONTENT)), multipart());
+            fail("expected the failed part to fail the upload");
+         } catch (RuntimeException expected) {
+         }
+
+         assertTrue(deleted.await(10, TimeUnit.SECONDS), "parts were not deleted");
+         assertTrue(startedAtDelete.get() > 0, "no part was being written when the upload failed");
+         assertEquals(finishedAtDelete.get(), startedAtDelete.get());
+      } finally {
+         userExecutor.shutdownNow();
+      }
+   }
+
+   private BlobStore blobStore() {
+      Properties overrides = new Properties();
+      overrides.setProperty(MULTIPART_UPLOAD_STRATEGY, "parallel");
+      overrides.setProperty("jclouds.mpu.parts.size", "1024");
+      overrides.setProperty(PROPERTY_MAX_RETRIES, "0");
+      overrides.setProperty(MULTIPART_UPLOAD_DELETE_PARTS, "false");
+      return builder().overrides(overrides).buildView(BlobStoreContext.class).getBlobStore();
+   }
+
+   private static Blob blob(BlobStore blobStore, Payload payload) {
+      return blobStore.blobBuilder("key").payload(payload).contentType("application/octet-stream").build();
+   }
+
+   private void enqueueUploadedParts(int count) {
+      for (int i = 0; i < count; i++) {
+         server.enqueue(jsonResponse("/object_get.json"));
+      }
+   }
+
+   private void assertPartSent(String name, int size) throws InterruptedException {
+      assertEquals(assertSent(server, "POST", "/upload/storage/v1/b/bucket/o?uploadType=media&name=" + name,
+            null).getBody().length, size);
+   }
+}
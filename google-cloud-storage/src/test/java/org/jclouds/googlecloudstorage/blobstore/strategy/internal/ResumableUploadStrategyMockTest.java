@@ -0,0 +1,263 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.strategy.internal;
+
+import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
+import static org.jclouds.blobstore.options.PutOptions.Builder.multipart;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.MULTIPART_UPLOAD_STRATEGY;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.RESUMABLE_UPLOAD_CHECKPOINT_DIR;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.RESUMABLE_UPLOAD_CHUNK_SIZE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Properties;
+
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.googlecloudstorage.internal.BaseGoogleCloudStorageApiMockTest;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.util.Closeables2;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.hash.Hashing;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+@Test(groups = "unit", testName = "ResumableUploadStrategyMockTest", singleThreaded = true)
+public class ResumableUploadStrategyMockTest extends BaseGoogleCloudStorageApiMockTest {
+
+   private static final int CHUNK = 256 * 1024;
+   private static final byte[] CONTENT = new byte[CHUNK + 100];
+   private static final String WHOLE = "/" + CONTENT.length;
+
+   private File checkpoints;
+   private BlobStoreContext context;
+
+   @BeforeMethod
+   public void createContext() throws Exception {
+      checkpoints = Files.createTempDirectory("checkpoints").resolve("uploads").toFile();
+      Properties overrides = new Properties();
+      overrides.setProperty(MULTIPART_UPLOAD_STRATEGY, "resumable");
+      overrides.setProperty(RESUMABLE_UPLOAD_CHUNK_SIZE, String.valueOf(CHUNK));
+      overrides.setProperty(RESUMABLE_UPLOAD_CHECKPOINT_DIR, checkpoints.getPath());
+      overrides.setProperty(PROPERTY_MAX_RETRIES, "0");
+      context = builder().overrides(overrides).buildView(BlobStoreContext.class);
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void closeContext() {
+      Closeables2.closeQuietly(context);
+      if (checkpoints.isDirectory()) {
+         for (File file : checkpoints.listFiles()) {
+            file.delete();
+         }
+      }
+      checkpoints.delete();
+      checkpoints.getParentFile().delete();
+   }
+
+   public void uploadsInChunks() throws Exception {
+      server.enqueue(sessionResponse());
+      server.enqueue(resumeIncomplete(CHUNK));
+      server.enqueue(jsonResponse("/object_get.json"));
+      server.enqueue(jsonResponse("/object_get.json"));
+
+      assertEquals(putBlob(), "etag");
+
+      assertSent(server, "POST", "/upload/storage/v1/b/bucket/o?uploadType=resumable");
+      assertChunkSent("bytes 0-" + (CHUNK - 1) + WHOLE, CHUNK);
+      assertChunkSent("bytes " + CHUNK + "-" + (CONTENT.length - 1) + WHOLE, 100);
+      assertSent(server, "GET", "/storage/v1/b/bucket/o/key");
+      assertEquals(checkpoints.list().length, 0);
+   }
+
+   public void retriesChunkFromCommittedByte() throws Exception {
+      server.enqueue(sessionResponse());
+      server.enqueue(new MockResponse().setResponseCode(503));
+      server.enqueue(resumeIncomplete(CHUNK / 2));
+      server.enqueue(resumeIncomplete(CHUNK));
+      server.enqueue(jsonResponse("/object_get.json"));
+      server.enqueue(jsonResponse("/object_get.json"));
+
+      assertEquals(putBlob(), "etag");
+
+      assertSent(server, "POST", "/upload/storage/v1/b/bucket/o?uploadType=resumable");
+      assertChunkSent("bytes 0-" + (CHUNK - 1) + WHOLE, CHUNK);
+      assertChunkSent("bytes */" + CONTENT.length, 0);
+      assertChunkSent("bytes " + CHUNK / 2 + "-" + (CHUNK - 1) + WHOLE, CHUNK / 2);
+      assertChunkSent("bytes " + CHUNK + "-" + (CONTENT.length - 1) + WHOLE, 100);
+      assertSent(server, "GET", "/storage/v1/b/bucket/o/key");
+   }
+
+   public void resumesSessionOfFailedUpload() throws Exception {
+      failAfterFirstChunk(true);
+      assertEquals(checkpointCount(), 1);
+
+      server.enqueue(resumeIncomplete(CHUNK));
+      server.enqueue(jsonResponse("/object_get.json"));
+      server.enqueue(jsonResponse("/object_get.json"));
+
+      assertEquals(putBlob(), "etag");
+
+      assertChunkSent("bytes */" + CONTENT.length, 0);
+      assertChunkSent("bytes " + CHUNK + "-" + (CONTENT.length - 1) + WHOLE, 100);
+      assertSent(server, "GET", "/storage/v1/b/bucket/o/key");
+      assertEquals(checkpoints.list().length, 0);
+   }
+
+   public void resumesFromServerOffsetWhenAheadOfCheckpoint() throws Exception {
+      // the first chunk reaches the server, but its response and the status check fail, so the checkpoint stays at 0
+      server.enqueue(sessionResponse());
+      server.enqueue(new MockResponse().setResponseCode(503));
+      server.enqueue(new MockResponse().setResponseCode(503));
+      try {
+         putBlob();
+         fail("expected the status check to fail");
+      } catch (RuntimeException expected) {
+      }
+      for (int i = 0; i < 3; i++) {
+         server.takeRequest();
+      }
+
+      server.enqueue(resumeIncomplete(CHUNK));
+      server.enqueue(jsonResponse("/object_get.json"));
+      server.enqueue(jsonResponse("/object_get.json"));
+
+      assertEquals(putBlob(), "etag");
+
+      assertChunkSent("bytes */" + CONTENT.length, 0);
+      assertChunkSent("bytes " + CHUNK + "-" + (CONTENT.length - 1) + WHOLE, 100);
+      assertSent(server, "GET", "/storage/v1/b/bucket/o/key");
+   }
+
+   public void keepsCheckpointsOwnerOnly() throws Exception {
+      if (!checkpoints.toPath().getFileSystem().supportedFileAttributeViews().contains("posix")) {
+         return;
+      }
+      failAfterFirstChunk(true);
+
+      assertEquals(PosixFilePermissions.toString(Files.getPosixFilePermissions(checkpoints.toPath())), "rwx------");
+      File[] files = checkpoints.listFiles();
+      assertEquals(files.length, 1);
+      assertEquals(PosixFilePermissions.toString(Files.getPosixFilePermissions(files[0].toPath())), "rw-------");
+   }
+
+   public void neverResumesContentWithoutFingerprint() throws Exception {
+      failAfterFirstChunk(false);
+      assertEquals(checkpointCount(), 0);
+
+      server.enqueue(sessionResponse());
+      server.enqueue(resumeIncomplete(CHUNK));
+      server.enqueue(jsonResponse("/object_get.json"));
+      server.enqueue(jsonResponse("/object_get.json"));
+
+      assertEquals(putBlob(false), "etag");
+
+      assertSent(server, "POST", "/upload/storage/v1/b/bucket/o?uploadType=resumable");
+      assertChunkSent("bytes 0-" + (CHUNK - 1) + WHOLE, CHUNK);
+   }
+
+   public void ignoresCheckpointOthersCanAccess() throws Exception {
+      if (!checkpoints.toPath().getFileSystem().supportedFileAttributeViews().contains("posix")) {
+         return;
+      }
+      failAfterFirstChunk(true);
+      Files.setPosixFilePermissions(checkpoints.listFiles()[0].toPath(), PosixFilePermissions.fromString("rw-rw-rw-"));
+
+      server.enqueue(sessionResponse());
+      server.enqueue(resumeIncomplete(CHUNK));
+      server.enqueue(jsonResponse("/object_get.json"));
+      server.enqueue(jsonResponse("/object_get.json"));
+
+      assertEquals(putBlob(), "etag");
+
+      assertSent(server, "POST", "/upload/storage/v1/b/bucket/o?uploadType=resumable");
+      assertChunkSent("bytes 0-" + (CHUNK - 1) + WHOLE, CHUNK);
+   }
+
+   public void refusesCheckpointDirectoryOthersCanAccess() throws Exception {
+      if (!checkpoints.toPath().getFileSystem().supportedFileAttributeViews().contains("posix")) {
+         return;
+      }
+      Files.createDirectories(checkpoints.toPath());
+      Files.setPosixFilePermissions(checkpoints.toPath(), PosixFilePermissions.fromString("rwxrwxrwx"));
+
+      failAfterFirstChunk(true);
+
+      assertEquals(checkpointCount(), 0);
+   }
+
+   /** Uploads the first chunk, then fails the second one and the status check that follows it. */
+   private void failAfterFirstChunk(boolean fingerprinted) throws InterruptedException {
+      server.enqueue(sessionResponse());
+      server.enqueue(resumeIncomplete(CHUNK));
+      server.enqueue(new MockResponse().setResponseCode(503));
+      server.enqueue(new MockResponse().setResponseCode(503));
+      try {
+         putBlob(fingerprinted);
+         fail("expected the status check to fail");
+      } catch (RuntimeException expected) {
+      }
+      for (int i = 0; i < 4; i++) {
+         server.takeRequest();
+      }
+   }
+
+   private int checkpointCount() {
+      return checkpoints.isDirectory() ? checkpoints.list().length : 0;
+   }
+
+   private String putBlob() {
+      return putBlob(true);
+   }
+
+   private String putBlob(boolean fingerprinted) {
+      BlobStore blobStore = context.getBlobStore();
+      Payload payload = Payloads.newByteArrayPayload(CONTENT);
+      if (fingerprinted) {
+         payload.getContentMetadata().setContentMD5(Hashing.md5().hashBytes(CONTENT));
+      }
+      Blob blob = blobStore.blobBuilder("key").payload(payload).contentType("application/octet-stream").build();
+      return blobStore.putBlob("bucket", blob, multipart());
+   }
+
+   private MockResponse sessionResponse() {
+      return new MockResponse().addHeader("Location",
+            url("/upload/storage/v1/b/bucket/o?uploadType=resumable&upload_id=session"));
+   }
+
+   private static MockResponse resumeIncomplete(long committed) {
+      return new MockResponse().setResponseCode(308).addHeader("Range", "bytes=0-" + (committed - 1));
+   }
+
+   private void assertChunkSent(String contentRange, int size) throws InterruptedException {
+      RecordedRequest request = server.takeRequest();
+      assertEquals(request.getMethod(), "PUT");
+      assertTrue(request.getPath().startsWith("/upload/storage/v1/b/bucket/o?"), request.getPath());
+      assertTrue(request.getPath().contains("upload_id=session"), request.getPath());
+      assertEquals(request.getHeader("Content-Range"), contentRange);
+      assertEquals(request.getBody().length, size);
+   }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.strategy.internal;
+
+import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.RESUMABLE_UPLOAD_CHUNK_SIZE;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.STREAMING_UPLOAD_BUFFERS;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.STREAMING_UPLOAD_DIRECT_BUFFERS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.util.Properties;
+
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.googlecloudstorage.internal.BaseGoogleCloudStorageApiMockTest;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.testng.annotations.Test;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+@Test(groups = "unit", testName = "StreamingUploadStrategyMockTest", singleThreaded = true)
+public class StreamingUploadStrategyMockTest extends BaseGoogleCloudStorageApiMockTest {
+
+   private static final int CHUNK = 256 * 1024;
+
+   public void sendsChunksOfUnknownTotalThenTheLength() throws Exception {
+      server.enqueue(sessionResponse());
+      server.enqueue(resumeIncomplete(CHUNK));
+      server.enqueue(resumeIncomplete(2 * CHUNK));
+      server.enqueue(jsonResponse("/object_get.json"));
+      server.enqueue(jsonResponse("/object_get.json"));
+
+      assertEquals(putStream(new byte[2 * CHUNK + 100], new Properties()), "etag");
+
+      assertSessionStarted();
+      assertChunkSent("bytes 0-" + (CHUNK - 1) + "/*", CHUNK);
+      assertChunkSent("bytes " + CHUNK + "-" + (2 * CHUNK - 1) + "/*", CHUNK);
+      assertChunkSent("bytes " + 2 * CHUNK + "-" + (2 * CHUNK + 99) + "/" + (2 * CHUNK + 100), 100);
+      assertSent(server, "GET", "/storage/v1/b/bucket/o/key");
+   }
+
+   public void sendsFullLastChunkWithTheLength() throws Exception {
+      server.enqueue(sessionResponse());
+      server.enqueue(jsonResponse("/object_get.json"));
+      server.enqueue(jsonResponse("/object_get.json"));
+
+      Properties overrides = new Properties();
+      overrides.setProperty(STREAMING_UPLOAD_DIRECT_BUFFERS, "true");
+      assertEquals(putStream(new byte[CHUNK], overrides), "etag");
+
+      assertSessionStarted();
+      assertChunkSent("bytes 0-" + (CHUNK - 1) + "/" + CHUNK, CHUNK);
+      assertSent(server, "GET", "/storage/v1/b/bucket/o/key");
+   }
+
+   public void resendsUncommittedBytes() throws Exception {
+      server.enqueue(sessionResponse());
+      server.enqueue(new MockResponse().setResponseCode(503));
+      server.enqueue(resumeIncomplete(CHUNK / 2));
+      server.enqueue(resumeIncomplete(CHUNK));
+      server.enqueue(jsonResponse("/object_get.json"));
+      server.enqueue(jsonResponse("/object_get.json"));
+
+      assertEquals(putStream(new byte[CHUNK + 100], new Properties()), "etag");
+
+      assertSessionStarted();
+      assertChunkSent("bytes 0-" + (CHUNK - 1) + "/*", CHUNK);
+      assertChunkSent("bytes */*", 0);
+      assertChunkSent("bytes " + CHUNK / 2 + "-" + (CHUNK - 1) + "/*", CHUNK / 2);
+      assertChunkSent("bytes " + CHUNK + "-" + (CHUNK + 99) + "/" + (CHUNK + 100), 100);
+      assertSent(server, "GET", "/storage/v1/b/bucket/o/key");
+   }
+
+   public void finalizesEmptyObject() throws Exception {
+      server.enqueue(sessionResponse());
+      server.enqueue(jsonResponse("/object_get.json"));
+      server.enqueue(jsonResponse("/object_get.json"));
+
+      assertEquals(putStream(new byte[0], new Properties()), "etag");
+
+      assertSessionStarted();
+      assertChunkSent("bytes */0", 0);
+      assertSent(server, "GET", "/storage/v1/b/bucket/o/key");
+   }
+
+   public void releasesBufferWhenSessionCannotStart() throws Exception {
+      server.enqueue(new MockResponse().setResponseCode(500));
+      server.enqueue(sessionResponse());
+      server.enqueue(jsonResponse("/object_get.json"));
+      server.enqueue(jsonResponse("/object_get.json"));
+
+      Properties overrides = new Properties();
+      overrides.setProperty(STREAMING_UPLOAD_BUFFERS, "1");
+      BlobStore blobStore = blobStore(overrides);
+      try {
+         putStream(blobStore, new byte[100]);
+         fail("session should not have started");
+      } catch (HttpResponseException expected) {
+      }
+      // the only buffer went back to the pool, so the next upload does not wait for it
+      assertEquals(putStream(blobStore, new byte[100]), "etag");
+
+      assertSessionStarted();
+      assertSessionStarted();
+      assertChunkSent("bytes 0-99/100", 100);
+      assertSent(server, "GET", "/storage/v1/b/bucket/o/key");
+   }
+
+   private String putStream(byte[] content, Properties overrides) {
+      return putStream(blobStore(overrides), content);
+   }
+
+   private BlobStore blobStore(Properties overrides) {
+      overrides.setProperty(RESUMABLE_UPLOAD_CHUNK_SIZE, String.valueOf(CHUNK));
+      overrides.setProperty(PROPERTY_MAX_RETRIES, "0");
+      return builder().overrides(overrides).buildView(BlobStoreContext.class).getBlobStore();
+   }
+
+   private static String putStream(BlobStore blobStore, byte[] content) {
+      Payload payload = Payloads.newInputStreamPayload(new ByteArrayInputStream(content));
+      Blob blob = blobStore.blobBuilder("key").payload(payload).contentType("application/octet-stream").build();
+      return blobStore.putBlob("bucket", blob);
+   }
+
+   private MockResponse sessionResponse() {
+      return new MockResponse().addHeader("Location",
+            url("/upload/storage/v1/b/bucket/o?uploadType=resumable&upload_id=session"));
+   }
+
+   private static MockResponse resumeIncomplete(long committed) {
+      return new MockResponse().setResponseCode(308).addHeader("Range", "bytes=0-" + (committed - 1));
+   }
+
+   private void assertSessionStarted() throws InterruptedException {
+      RecordedRequest request = assertSent(server, "POST", "/upload/storage/v1/b/bucket/o?uploadType=resumable");
+      assertEquals(request.getHeader("X-Upload-Content-Type"), "application/octet-stream");
+      assertNull(request.getHeader("X-Upload-Content-Length"));
+   }
+
+   private void assertChunkSent(String contentRange, int size) throws InterruptedException {
+      RecordedRequest request = server.takeRequest();
+      assertEquals(request.getMethod(), "PUT");
+      assertTrue(request.getPath().contains("upload_id=session"), request.getPath());
+      assertEquals(request.getHeader("Content-Range"), contentRange);
+      assertEquals(request.getBody().length, size);
+   }
+}
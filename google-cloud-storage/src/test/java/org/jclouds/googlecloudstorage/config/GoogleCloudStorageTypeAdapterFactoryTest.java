@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.config;
+
+import static org.jclouds.googlecloud.config.StreamingAdapterAssertions.assertMatchesSerializedNames;
+import static org.jclouds.util.Strings2.toStringAndClose;
+import static org.testng.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Set;
+
+import javax.inject.Singleton;
+
+import org.jclouds.googlecloud.config.ListPageAdapterFactory;
+import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
+import org.jclouds.json.config.GsonModule;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapterFactory;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Provides;
+import com.google.inject.util.Modules;
+
+@Test(groups = "unit", testName = "GoogleCloudStorageTypeAdapterFactoryTest")
+public class GoogleCloudStorageTypeAdapterFactoryTest {
+
+   private final Gson streaming = Guice.createInjector(new GsonModule(), new GoogleCloudStorageParserModule())
+         .getInstance(Gson.class);
+
+   private final Gson reflective = Guice.createInjector(new GsonModule(),
+         Modules.override(new GoogleCloudStorageParserModule()).with(new AbstractModule() {
+            @Override protected void configure() {
+            }
+
+            @Provides @Singleton Set<TypeAdapterFactory> typeAdapterFactories() {
+               return ImmutableSet.<TypeAdapterFactory>of(new ListPageAdapterFactory());
+            }
+         })).getInstance(Gson.class);
+
+   public void objectMatchesReflectiveParsing() throws IOException {
+      String json = toStringAndClose(getClass().getResourceAsStream("/object_get.json"));
+      assertEquals(streaming.fromJson(json, GoogleCloudStorageObject.class),
+            reflective.fromJson(json, GoogleCloudStorageObject.class));
+   }
+
+   public void objectAdapterFollowsSerializedNames() throws IOException {
+      JsonParser parser = new JsonParser();
+      JsonObject samples = parser.parse(toStringAndClose(getClass().getResourceAsStream("/object_get.json")))
+            .getAsJsonObject();
+      samples.add("acl", parser.parse("[{\"entity\":\"user-foo\",\"role\":\"OWNER\"}]"));
+      assertMatchesSerializedNames(streaming, reflective, GoogleCloudStorageObject.class, samples);
+   }
+}
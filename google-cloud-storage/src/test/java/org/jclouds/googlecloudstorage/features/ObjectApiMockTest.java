@@ -24,6 +24,8 @@ import static com.google.common.base.Charsets.UTF_8;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 
 import org.jclouds.googlecloudstorage.domain.DomainResourceReferences.DestinationPredefinedAcl;
+import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
+import org.jclouds.googlecloudstorage.domain.ListPageWithPrefixes;
 import org.jclouds.googlecloudstorage.domain.DomainResourceReferences.PredefinedAcl;
 import org.jclouds.googlecloudstorage.domain.DomainResourceReferences.Projection;
 import org.jclouds.googlecloudstorage.domain.templates.ComposeObjectTemplate;
@@ -87,6 +89,38 @@ public class ObjectApiMockTest extends BaseGoogleCloudStorageApiMockTest {
       assertSent(server, "GET", "/storage/v1/b/test/o/file_name?ifGenerationMatch=1000");
    }
 
+   public void get_with_fields() throws Exception {
+      server.enqueue(new MockResponse().addHeader("Content-Type", APPLICATION_JSON)
+            .setBody("{\"name\":\"file_name\",\"size\":\"1000\",\"md5Hash\":\"Wv7x4KPfmtpmOqxoBbHaFA==\"}"));
+
+      GoogleCloudStorageObject object = objectApi().getObject("test", "file_name",
+            new GetObjectOptions().fields("name,size,md5Hash"));
+      assertEquals(object.name(), "file_name");
+      assertEquals(object.size(), 1000);
+      assertEquals(object.md5Hash(), "Wv7x4KPfmtpmOqxoBbHaFA==");
+      assertNull(object.selfLink());
+      assertNull(object.bucket());
+      assertTrue(object.metadata().isEmpty());
+      assertTrue(object.acl().isEmpty());
+      assertSent(server, "GET", "/storage/v1/b/test/o/file_name?fields=name%2Csize%2Cmd5Hash");
+   }
+
+   public void list_with_fields() throws Exception {
+      server.enqueue(new MockResponse().addHeader("Content-Type", APPLICATION_JSON)
+            .setBody("{\"items\":[{\"name\":\"a\",\"size\":\"1\"},{\"name\":\"b\",\"size\":\"2\"}],"
+                  + "\"nextPageToken\":\"t\"}"));
+
+      ListPageWithPrefixes<GoogleCloudStorageObject> page = objectApi().listObjects("test",
+            new ListObjectOptions().fields("items(name,size),nextPageToken"));
+      assertEquals(page.size(), 2);
+      assertEquals(page.get(0).name(), "a");
+      assertEquals(page.get(1).size(), 2);
+      assertNull(page.get(1).etag());
+      assertEquals(page.nextPageToken(), "t");
+      assertTrue(page.prefixes().isEmpty());
+      assertSent(server, "GET", "/storage/v1/b/test/o?fields=items%28name%2Csize%29%2CnextPageToken");
+   }
+
    public void simpleUpload() throws Exception {
       server.enqueue(jsonResponse("/object_get.json"));
 
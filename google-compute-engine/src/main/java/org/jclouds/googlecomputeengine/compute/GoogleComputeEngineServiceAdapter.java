@@ -23,10 +23,12 @@ import static com.google.common.collect.Lists.newArrayList;
 import static java.lang.String.format;
 import static org.jclouds.googlecloud.internal.ListPages.concat;
 import static org.jclouds.googlecomputeengine.config.GoogleComputeEngineProperties.IMAGE_PROJECTS;
+import static org.jclouds.util.Closeables2.closeQuietly;
 
 import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.inject.Inject;
@@ -41,6 +43,7 @@ import org.jclouds.domain.Location;
 import org.jclouds.domain.LocationBuilder;
 import org.jclouds.domain.LocationScope;
 import org.jclouds.domain.LoginCredentials;
+import org.jclouds.googlecloud.config.ListPageReader;
 import org.jclouds.googlecomputeengine.GoogleComputeEngineApi;
 import org.jclouds.googlecomputeengine.compute.functions.FirewallTagNamingConvention;
 import org.jclouds.googlecomputeengine.compute.functions.Resources;
@@ -64,6 +67,7 @@ import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.Atomics;
 import com.google.common.util.concurrent.UncheckedTimeoutException;
 
@@ -227,12 +231,30 @@ public final class GoogleComputeEngineServiceAdapter
       return concat(api.aggregatedList().instances());
    }
 
-   @Override public Iterable<Instance> listNodesByIds(final Iterable<String> selfLinks) {
-      return filter(listNodes(), new Predicate<Instance>() { // TODO: convert to server-side filter
-         @Override public boolean apply(Instance instance) {
-            return Iterables.contains(selfLinks, instance.selfLink().toString());
+   /** Streams the aggregated list, so only the requested instances are kept rather than every page. */
+   @Override public Iterable<Instance> listNodesByIds(Iterable<String> selfLinks) {
+      Set<String> wanted = Sets.newHashSet(selfLinks); // TODO: convert to server-side filter
+      ImmutableList.Builder<Instance> found = ImmutableList.builder();
+      String pageToken = null;
+      // stop reading, and paging, as soon as every requested instance was seen
+      while (!wanted.isEmpty()) {
+         ListPageReader<Instance> page = api.aggregatedList().streamPageOfInstances(pageToken, null);
+         try {
+            while (!wanted.isEmpty() && page.hasNext()) {
+               Instance instance = page.next();
+               if (wanted.remove(instance.selfLink().toString())) {
+                  found.add(instance);
+               }
+            }
+            pageToken = wanted.isEmpty() ? null : page.nextPageToken();
+         } finally {
+            closeQuietly(page);
          }
-      });
+         if (pageToken == null) {
+            break;
+         }
+      }
+      return found.build();
    }
 
    @Override public void destroyNode(String selfLink) {
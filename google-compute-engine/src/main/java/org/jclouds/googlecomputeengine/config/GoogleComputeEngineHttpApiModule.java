@@ -36,10 +36,14 @@ import javax.ws.rs.PathParam;
 
 import org.jclouds.domain.Credentials;
 import org.jclouds.googlecloud.config.CurrentProject;
+import org.jclouds.googlecloud.config.GoogleCloudJavaUrlHttpCommandExecutorServiceModule;
+import org.jclouds.googlecloud.filters.AdaptiveRateLimitFilter;
+import org.jclouds.googlecloud.handlers.RateLimitRetryHandler;
 import org.jclouds.googlecomputeengine.GoogleComputeEngineApi;
 import org.jclouds.googlecomputeengine.domain.Project;
 import org.jclouds.googlecomputeengine.handlers.GoogleComputeEngineErrorHandler;
 import org.jclouds.http.HttpErrorHandler;
+import org.jclouds.http.HttpRetryHandler;
 import org.jclouds.http.annotation.ClientError;
 import org.jclouds.http.annotation.Redirection;
 import org.jclouds.http.annotation.ServerError;
@@ -66,6 +70,7 @@ public final class GoogleComputeEngineHttpApiModule extends HttpApiModule<Google
 
    @Override protected void configure() {
       super.configure();
+      install(new GoogleCloudJavaUrlHttpCommandExecutorServiceModule());
       bindHttpApi(binder(), UseApiToResolveProjectName.GetProject.class);
       bind(OAuthScopes.class).toInstance(ReadOrWriteScopes.create( //
             "https://www.googleapis.com/auth/compute.readonly", //
@@ -79,6 +84,10 @@ public final class GoogleComputeEngineHttpApiModule extends HttpApiModule<Google
       bind(HttpErrorHandler.class).annotatedWith(ServerError.class).to(GoogleComputeEngineErrorHandler.class);
    }
 
+   @Override protected void bindRetryHandlers() {
+      bind(HttpRetryHandler.class).annotatedWith(ClientError.class).to(RateLimitRetryHandler.class);
+   }
+
    @Provides @Singleton @CurrentProject Supplier<URI> project(@Named(PROJECT_NAME) final String projectName,
          @Provider Supplier<URI> defaultEndpoint, final UseApiToResolveProjectName useApiToResolveProjectName,
          @Provider final Supplier<Credentials> creds, AtomicReference<AuthorizationException> authException,
@@ -116,7 +125,7 @@ public final class GoogleComputeEngineHttpApiModule extends HttpApiModule<Google
    static final class UseApiToResolveProjectName implements Function<Credentials, URI> {
 
       @SkipEncoding({ '/', '=' })
-      @RequestFilters(OAuthFilter.class)
+      @RequestFilters({ OAuthFilter.class, AdaptiveRateLimitFilter.class })
       @Consumes(APPLICATION_JSON)
       interface GetProject {
          @Named("Projects:get")
@@ -56,7 +56,7 @@ public final class GoogleComputeEngineParserModule extends AbstractModule {
 
    // TODO: change jclouds core to use collaborative set bindings
    @Provides @Singleton Set<TypeAdapterFactory> typeAdapterFactories() {
-      return ImmutableSet.<TypeAdapterFactory>of(new ListPageAdapterFactory());
+      return ImmutableSet.<TypeAdapterFactory>of(new ListPageAdapterFactory(), new GoogleComputeEngineTypeAdapterFactory());
    }
 
    private static final class FirewallOptionsTypeAdapter implements JsonSerializer<FirewallOptions> {
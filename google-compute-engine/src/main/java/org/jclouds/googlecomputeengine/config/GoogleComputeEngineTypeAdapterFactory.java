@@ -0,0 +1,310 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecomputeengine.config;
+
+import static org.jclouds.googlecloud.config.JsonReaders.nextBoolean;
+import static org.jclouds.googlecloud.config.JsonReaders.nextInteger;
+import static org.jclouds.googlecloud.config.JsonReaders.nextString;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Date;
+import java.util.List;
+
+import org.jclouds.googlecomputeengine.domain.Instance;
+import org.jclouds.googlecomputeengine.domain.Instance.AttachedDisk;
+import org.jclouds.googlecomputeengine.domain.Instance.NetworkInterface;
+import org.jclouds.googlecomputeengine.domain.Instance.Scheduling;
+import org.jclouds.googlecomputeengine.domain.Instance.ServiceAccount;
+import org.jclouds.googlecomputeengine.domain.Metadata;
+import org.jclouds.googlecomputeengine.domain.Operation;
+import org.jclouds.googlecomputeengine.domain.Tags;
+import org.jclouds.googlecomputeengine.domain.Warning;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Deserializes the types read most, {@link Instance} and {@link Operation}, by calling their factory methods from
+ * streaming adapters, instead of through the reflective {@code @SerializedNames} path. Aggregated listings of many
+ * instances and operation polling spend most of their parsing time here.
+ *
+ * <p/>Nested types are still read by their usual adapters. Writing is delegated to the default adapters.
+ *
+ * <p/>The adapters are written by hand, and only for the types above; tests check that they follow the
+ * {@code @SerializedNames} of each factory method. Generating them from those annotations is not done yet.
+ */
+public final class GoogleComputeEngineTypeAdapterFactory implements TypeAdapterFactory {
+
+   @SuppressWarnings("unchecked")
+   @Override public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+      if (type.getRawType() == Instance.class) {
+         return (TypeAdapter<T>) new InstanceAdapter(gson, gson.getDelegateAdapter(this, (TypeToken<Instance>) type));
+      } else if (type.getRawType() == Operation.class) {
+         return (TypeAdapter<T>) new OperationAdapter(gson, gson.getDelegateAdapter(this, (TypeToken<Operation>) type));
+      }
+      return null;
+   }
+
+   private static final class InstanceAdapter extends TypeAdapter<Instance> {
+      private final TypeAdapter<Instance> delegate;
+      private final TypeAdapter<Date> date;
+      private final TypeAdapter<URI> uri;
+      private final TypeAdapter<Tags> tags;
+      private final TypeAdapter<Instance.Status> status;
+      private final TypeAdapter<List<NetworkInterface>> networkInterfaces;
+      private final TypeAdapter<List<AttachedDisk>> disks;
+      private final TypeAdapter<Metadata> metadata;
+      private final TypeAdapter<List<ServiceAccount>> serviceAccounts;
+      private final TypeAdapter<Scheduling> scheduling;
+
+      InstanceAdapter(Gson gson, TypeAdapter<Instance> delegate) {
+         this.delegate = delegate;
+         this.date = gson.getAdapter(Date.class);
+         this.uri = gson.getAdapter(URI.class);
+         this.tags = gson.getAdapter(Tags.class);
+         this.status = gson.getAdapter(Instance.Status.class);
+         this.networkInterfaces = gson.getAdapter(new TypeToken<List<NetworkInterface>>() {
+         });
+         this.disks = gson.getAdapter(new TypeToken<List<AttachedDisk>>() {
+         });
+         this.metadata = gson.getAdapter(Metadata.class);
+         this.serviceAccounts = gson.getAdapter(new TypeToken<List<ServiceAccount>>() {
+         });
+         this.scheduling = gson.getAdapter(Scheduling.class);
+      }
+
+      @Override public void write(JsonWriter out, Instance value) throws IOException {
+         delegate.write(out, value);
+      }
+
+      @Override public Instance read(JsonReader in) throws IOException {
+         if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+         }
+         String id = null;
+         Date creationTimestamp = null;
+         URI selfLink = null;
+         String name = null;
+         String description = null;
+         Tags tags = null;
+         URI machineType = null;
+         Instance.Status status = null;
+         String statusMessage = null;
+         URI zone = null;
+         Boolean canIpForward = null;
+         List<NetworkInterface> networkInterfaces = null;
+         List<AttachedDisk> disks = null;
+         Metadata metadata = null;
+         List<ServiceAccount> serviceAccounts = null;
+         Scheduling scheduling = null;
+         in.beginObject();
+         while (in.hasNext()) {
+            switch (in.nextName()) {
+               case "id":
+                  id = nextString(in);
+                  break;
+               case "creationTimestamp":
+                  creationTimestamp = this.date.read(in);
+                  break;
+               case "selfLink":
+                  selfLink = this.uri.read(in);
+                  break;
+               case "name":
+                  name = nextString(in);
+                  break;
+               case "description":
+                  description = nextString(in);
+                  break;
+               case "tags":
+                  tags = this.tags.read(in);
+                  break;
+               case "machineType":
+                  machineType = this.uri.read(in);
+                  break;
+               case "status":
+                  status = this.status.read(in);
+                  break;
+               case "statusMessage":
+                  statusMessage = nextString(in);
+                  break;
+               case "zone":
+                  zone = this.uri.read(in);
+                  break;
+               case "canIpForward":
+                  canIpForward = nextBoolean(in);
+                  break;
+               case "networkInterfaces":
+                  networkInterfaces = this.networkInterfaces.read(in);
+                  break;
+               case "disks":
+                  disks = this.disks.read(in);
+                  break;
+               case "metadata":
+                  metadata = this.metadata.read(in);
+                  break;
+               case "serviceAccounts":
+                  serviceAccounts = this.serviceAccounts.read(in);
+                  break;
+               case "scheduling":
+                  scheduling = this.scheduling.read(in);
+                  break;
+               default:
+                  in.skipValue();
+            }
+         }
+         in.endObject();
+         return Instance.create(id, creationTimestamp, selfLink, name, description, tags, machineType, status,
+               statusMessage, zone, canIpForward, networkInterfaces, disks, metadata, serviceAccounts, scheduling);
+      }
+   }
+
+   private static final class OperationAdapter extends TypeAdapter<Operation> {
+      private final TypeAdapter<Operation> delegate;
+      private final TypeAdapter<Date> date;
+      private final TypeAdapter<URI> uri;
+      private final TypeAdapter<Operation.Status> status;
+      private final TypeAdapter<Operation.Error> error;
+      private final TypeAdapter<List<Warning>> warnings;
+
+      OperationAdapter(Gson gson, TypeAdapter<Operation> delegate) {
+         this.delegate = delegate;
+         this.date = gson.getAdapter(Date.class);
+         this.uri = gson.getAdapter(URI.class);
+         this.status = gson.getAdapter(Operation.Status.class);
+         this.error = gson.getAdapter(Operation.Error.class);
+         this.warnings = gson.getAdapter(new TypeToken<List<Warning>>() {
+         });
+      }
+
+      @Override public void write(JsonWriter out, Operation value) throws IOException {
+         delegate.write(out, value);
+      }
+
+      @Override public Operation read(JsonReader in) throws IOException {
+         if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+         }
+         String id = null;
+         Date creationTimestamp = null;
+         URI selfLink = null;
+         String name = null;
+         String description = null;
+         URI targetLink = null;
+         String targetId = null;
+         String clientOperationId = null;
+         Operation.Status status = null;
+         String statusMessage = null;
+         String user = null;
+         Integer progress = null;
+         Date insertTime = null;
+         Date startTime = null;
+         Date endTime = null;
+         Integer httpErrorStatusCode = null;
+         String httpErrorMessage = null;
+         String operationType = null;
+         Operation.Error error = null;
+         List<Warning> warnings = null;
+         URI region = null;
+         URI zone = null;
+         in.beginObject();
+         while (in.hasNext()) {
+            switch (in.nextName()) {
+               case "id":
+                  id = nextString(in);
+                  break;
+               case "creationTimestamp":
+                  creationTimestamp = this.date.read(in);
+                  break;
+               case "selfLink":
+                  selfLink = this.uri.read(in);
+                  break;
+               case "name":
+                  name = nextString(in);
+                  break;
+               case "description":
+                  description = nextString(in);
+                  break;
+               case "targetLink":
+                  targetLink = this.uri.read(in);
+                  break;
+               case "targetId":
+                  targetId = nextString(in);
+                  break;
+               case "clientOperationId":
+                  clientOperationId = nextString(in);
+                  break;
+               case "status":
+                  status = this.status.read(in);
+                  break;
+               case "statusMessage":
+                  statusMessage = nextString(in);
+                  break;
+               case "user":
+                  user = nextString(in);
+                  break;
+               case "progress":
+                  progress = nextInteger(in);
+                  break;
+               case "insertTime":
+                  insertTime = this.date.read(in);
+                  break;
+               case "startTime":
+                  startTime = this.date.read(in);
+                  break;
+               case "endTime":
+                  endTime = this.date.read(in);
+                  break;
+               case "httpErrorStatusCode":
+                  httpErrorStatusCode = nextInteger(in);
+                  break;
+               case "httpErrorMessage":
+                  httpErrorMessage = nextString(in);
+                  break;
+               case "operationType":
+                  operationType = nextString(in);
+                  break;
+               case "error":
+                  error = this.error.read(in);
+                  break;
+               case "warnings":
+                  warnings = this.warnings.read(in);
+                  break;
+               case "region":
+                  region = this.uri.read(in);
+                  break;
+               case "zone":
+                  zone = this.uri.read(in);
+                  break;
+               default:
+                  in.skipValue();
+            }
+         }
+         in.endObject();
+         return Operation.create(id, creationTimestamp, selfLink, name, description, targetLink, targetId,
+               clientOperationId, status, statusMessage, user, progress, insertTime, startTime, endTime,
+               httpErrorStatusCode, httpErrorMessage, operationType, error, warnings, region, zone);
+      }
+   }
+}
@@ -29,7 +29,11 @@ import org.jclouds.json.SerializedNames;
 
 import com.google.auto.value.AutoValue;
 
-/** Represents a virtual machine. */
+/**
+ * Represents a virtual machine.
+ *
+ * <p/>References such as {@link #name()} are only null when left out of a {@code fields} projection.
+ */
 @AutoValue
 public abstract class Instance {
 
@@ -211,19 +215,19 @@ public abstract class Instance {
       TERMINATED
    }
 
-   public abstract String id();
+   @Nullable public abstract String id();
 
    @Nullable public abstract Date creationTimestamp();
 
-   public abstract URI selfLink();
+   @Nullable public abstract URI selfLink();
 
-   public abstract String name();
+   @Nullable public abstract String name();
 
    @Nullable public abstract String description();
 
    public abstract Tags tags();
 
-   public abstract URI machineType();
+   @Nullable public abstract URI machineType();
 
    @Nullable public abstract Status status();
 
@@ -234,7 +238,7 @@ public abstract class Instance {
     * URL of the zone resource describing where this instance should be hosted; provided by the client when
     * the instance is created.
     */
-   public abstract URI zone();
+   @Nullable public abstract URI zone();
 
    @Nullable public abstract Boolean canIpForward();
 
@@ -246,15 +250,17 @@ public abstract class Instance {
 
    public abstract List<ServiceAccount> serviceAccounts();
 
-   public abstract Scheduling scheduling();
+   @Nullable public abstract Scheduling scheduling();
 
    @SerializedNames({ "id", "creationTimestamp", "selfLink", "name", "description", "tags", "machineType", "status", "statusMessage", "zone",
          "canIpForward", "networkInterfaces", "disks", "metadata", "serviceAccounts", "scheduling"})
    public static Instance create(String id, Date creationTimestamp, URI selfLink, String name, String description, Tags tags, URI machineType,
          Status status, String statusMessage, URI zone, Boolean canIpForward, List<NetworkInterface> networkInterfaces,
          List<AttachedDisk> disks, Metadata metadata, List<ServiceAccount> serviceAccounts, Scheduling scheduling) {
-      return new AutoValue_Instance(id, creationTimestamp, selfLink, name, description, tags, machineType, status, statusMessage, zone,
-            canIpForward, copyOf(networkInterfaces), copyOf(disks), metadata, copyOf(serviceAccounts), scheduling);
+      return new AutoValue_Instance(id, creationTimestamp, selfLink, name, description,
+            tags != null ? tags : Tags.create(), machineType, status, statusMessage, zone, canIpForward,
+            copyOf(networkInterfaces), copyOf(disks), metadata != null ? metadata : Metadata.create(),
+            copyOf(serviceAccounts), scheduling);
    }
 
    Instance() {
@@ -33,6 +33,7 @@ import javax.ws.rs.QueryParam;
 
 import org.jclouds.Fallbacks.NullOnNotFoundOr404;
 import org.jclouds.googlecloud.domain.ListPage;
+import org.jclouds.googlecloud.filters.AdaptiveRateLimitFilter;
 import org.jclouds.googlecomputeengine.GoogleComputeEngineApi;
 import org.jclouds.googlecomputeengine.domain.Address;
 import org.jclouds.googlecomputeengine.domain.Operation;
@@ -53,7 +54,7 @@ import org.jclouds.rest.binders.BindToJsonPayload;
 import com.google.common.base.Function;
 
 @SkipEncoding({'/', '='})
-@RequestFilters(OAuthFilter.class)
+@RequestFilters({ OAuthFilter.class, AdaptiveRateLimitFilter.class })
 @Path("/addresses")
 @Consumes(APPLICATION_JSON)
 public interface AddressApi {
@@ -27,7 +27,10 @@ import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.QueryParam;
 
+import org.jclouds.googlecloud.config.ListPageReader;
+import org.jclouds.googlecloud.config.ParseListPageReader;
 import org.jclouds.googlecloud.domain.ListPage;
+import org.jclouds.googlecloud.filters.AdaptiveRateLimitFilter;
 import org.jclouds.googlecomputeengine.GoogleComputeEngineApi;
 import org.jclouds.googlecomputeengine.domain.Address;
 import org.jclouds.googlecomputeengine.domain.Disk;
@@ -39,17 +42,21 @@ import org.jclouds.googlecomputeengine.domain.Operation;
 import org.jclouds.googlecomputeengine.domain.TargetInstance;
 import org.jclouds.googlecomputeengine.domain.TargetPool;
 import org.jclouds.googlecomputeengine.internal.BaseToIteratorOfListPage;
+import org.jclouds.googlecomputeengine.options.InstanceListOptions;
 import org.jclouds.googlecomputeengine.options.ListOptions;
 import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.oauth.v2.filters.OAuthFilter;
 import org.jclouds.rest.annotations.RequestFilters;
+import org.jclouds.rest.annotations.ResponseParser;
 import org.jclouds.rest.annotations.SkipEncoding;
 import org.jclouds.rest.annotations.Transform;
 
 import com.google.common.base.Function;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
 
 @SkipEncoding({ '/', '=' })
-@RequestFilters(OAuthFilter.class)
+@RequestFilters({ OAuthFilter.class, AdaptiveRateLimitFilter.class })
 @Path("/aggregated")
 @Consumes(APPLICATION_JSON)
 public interface AggregatedListApi {
@@ -133,6 +140,43 @@ public interface AggregatedListApi {
    @Transform(InstancePages.class)
    Iterator<ListPage<Instance>> instances(ListOptions options);
 
+   /**
+    * Like {@link #pageOfInstances(String, ListOptions)}, but also accepts a partial response selector, which keeps
+    * inventory sweeps small.
+    *
+    * @see InstanceListOptions#fields(String)
+    */
+   @Named("Instances:aggregatedList")
+   @GET
+   @Path("/instances")
+   ListPage<Instance> pageOfInstances(@Nullable @QueryParam("pageToken") String pageToken,
+         InstanceListOptions listOptions);
+
+   /** @see #pageOfInstances(String, InstanceListOptions) */
+   @Named("Instances:aggregatedList")
+   @GET
+   @Path("/instances")
+   @Transform(ProjectedInstancePages.class)
+   Iterator<ListPage<Instance>> instances(InstanceListOptions options);
+
+   /**
+    * Like {@link #pageOfInstances(String, ListOptions)}, but parses the instances as they are iterated, so a caller
+    * that keeps only some of them never holds the whole page. The reader must be closed once done.
+    */
+   @Named("Instances:aggregatedList")
+   @GET
+   @Path("/instances")
+   @ResponseParser(InstanceReader.class)
+   ListPageReader<Instance> streamPageOfInstances(@Nullable @QueryParam("pageToken") String pageToken,
+         ListOptions listOptions);
+
+   static final class InstanceReader extends ParseListPageReader<Instance> {
+      @Inject
+      InstanceReader(Gson gson) {
+         super(gson, TypeToken.get(Instance.class));
+      }
+   }
+
    static final class InstancePages extends BaseToIteratorOfListPage<Instance, InstancePages> {
       private final GoogleComputeEngineApi api;
 
@@ -152,6 +196,27 @@ public interface AggregatedListApi {
       }
    }
 
+   static final class ProjectedInstancePages
+         extends org.jclouds.googlecloud.internal.BaseToIteratorOfListPage<Instance, InstanceListOptions,
+         ProjectedInstancePages> {
+      private final GoogleComputeEngineApi api;
+
+      @Inject
+      ProjectedInstancePages(GoogleComputeEngineApi api) {
+         this.api = api;
+      }
+
+      @Override
+      protected Function<String, ListPage<Instance>> fetchNextPage(final InstanceListOptions options) {
+         return new Function<String, ListPage<Instance>>() {
+            @Override
+            public ListPage<Instance> apply(String pageToken) {
+               return api.aggregatedList().pageOfInstances(pageToken, options);
+            }
+         };
+      }
+   }
+
    /**
     * Retrieves the list of address resources available to the specified
     * project. By default the list as a maximum size of 100, if no options are
@@ -35,6 +35,8 @@ import javax.ws.rs.QueryParam;
 
 import org.jclouds.Fallbacks.NullOnNotFoundOr404;
 import org.jclouds.googlecloud.domain.ListPage;
+import org.jclouds.googlecloud.filters.AdaptiveRateLimitFilter;
+import org.jclouds.googlecloud.options.FieldsOptions;
 import org.jclouds.googlecomputeengine.GoogleComputeEngineApi;
 import org.jclouds.googlecomputeengine.domain.AttachDisk;
 import org.jclouds.googlecomputeengine.domain.Instance;
@@ -43,6 +45,7 @@ import org.jclouds.googlecomputeengine.domain.Metadata;
 import org.jclouds.googlecomputeengine.domain.NewInstance;
 import org.jclouds.googlecomputeengine.domain.Operation;
 import org.jclouds.googlecomputeengine.internal.BaseCallerArg0ToIteratorOfListPage;
+import org.jclouds.googlecomputeengine.options.InstanceListOptions;
 import org.jclouds.googlecomputeengine.options.ListOptions;
 import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.oauth.v2.filters.OAuthFilter;
@@ -58,7 +61,7 @@ import org.jclouds.rest.binders.BindToJsonPayload;
 import com.google.common.base.Function;
 
 @SkipEncoding({'/', '='})
-@RequestFilters(OAuthFilter.class)
+@RequestFilters({ OAuthFilter.class, AdaptiveRateLimitFilter.class })
 @Path("/instances")
 @Consumes(APPLICATION_JSON)
 public interface InstanceApi {
@@ -71,6 +74,18 @@ public interface InstanceApi {
    @Nullable
    Instance get(@PathParam("instance") String instance);
 
+   /**
+    * Like {@link #get(String)}, except only the fields named in {@code options} are returned.
+    *
+    * @see FieldsOptions#fields(String)
+    */
+   @Named("Instances:get")
+   @GET
+   @Path("/{instance}")
+   @Fallback(NullOnNotFoundOr404.class)
+   @Nullable
+   Instance get(@PathParam("instance") String instance, FieldsOptions options);
+
    /**
     * Creates a instance resource in the specified project using the data included in the request.
     *
@@ -301,6 +316,21 @@ public interface InstanceApi {
    @Transform(InstancePages.class)
    Iterator<ListPage<Instance>> list(ListOptions options);
 
+   /**
+    * Like {@link #listPage(String, ListOptions)}, but also accepts a partial response selector.
+    *
+    * @see InstanceListOptions#fields(String)
+    */
+   @Named("Instances:list")
+   @GET
+   ListPage<Instance> listPage(@Nullable @QueryParam("pageToken") String pageToken, InstanceListOptions listOptions);
+
+   /** @see #listPage(String, InstanceListOptions) */
+   @Named("Instances:list")
+   @GET
+   @Transform(ProjectedInstancePages.class)
+   Iterator<ListPage<Instance>> list(InstanceListOptions options);
+
    static final class InstancePages extends BaseCallerArg0ToIteratorOfListPage<Instance, InstancePages> {
 
       private final GoogleComputeEngineApi api;
@@ -319,5 +349,25 @@ public interface InstanceApi {
       }
    }
 
+   static final class ProjectedInstancePages
+         extends org.jclouds.googlecloud.internal.BaseCallerArg0ToIteratorOfListPage<Instance, InstanceListOptions,
+         ProjectedInstancePages> {
+
+      private final GoogleComputeEngineApi api;
+
+      @Inject ProjectedInstancePages(GoogleComputeEngineApi api) {
+         this.api = api;
+      }
+
+      @Override protected Function<String, ListPage<Instance>> fetchNextPage(final String zoneName,
+            final InstanceListOptions options) {
+         return new Function<String, ListPage<Instance>>() {
+            @Override public ListPage<Instance> apply(String pageToken) {
+               return api.instancesInZone(zoneName).listPage(pageToken, options);
+            }
+         };
+      }
+   }
+
 }
 
@@ -18,6 +18,7 @@ package org.jclouds.googlecomputeengine.handlers;
 
 import static org.jclouds.http.HttpUtils.closeClientButKeepContentStream;
 
+import org.jclouds.googlecloud.handlers.RateLimitedResponses;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpErrorHandler;
 import org.jclouds.http.HttpResponse;
@@ -42,9 +43,13 @@ public class GoogleComputeEngineErrorHandler implements HttpErrorHandler {
          case 400:
             break;
          case 401:
-         case 403:
             exception = new AuthorizationException(message, exception);
             break;
+         case 403:
+            if (!RateLimitedResponses.isRateLimited(403, message)) {
+               exception = new AuthorizationException(message, exception);
+            }
+            break;
          case 404:
             if (!command.getCurrentRequest().getMethod().equals("DELETE")) {
                exception = new ResourceNotFoundException(message, exception);
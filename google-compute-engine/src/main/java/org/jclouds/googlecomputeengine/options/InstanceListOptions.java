@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecomputeengine.options;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Options of instance listings, which unlike other listings also accept a partial response selector, as
+ * {@link org.jclouds.googlecomputeengine.domain.Instance} tolerates missing fields.
+ *
+ * @see ListOptions
+ */
+public final class InstanceListOptions extends org.jclouds.googlecloud.options.ListOptions {
+
+   /** @see ListOptions#filter(String) */
+   public InstanceListOptions filter(String filter) {
+      this.queryParameters.put("filter", checkNotNull(filter, "filter"));
+      return this;
+   }
+
+   /** @see ListOptions#maxResults(Integer) */
+   @Override public InstanceListOptions maxResults(Integer maxResults) {
+      return (InstanceListOptions) super.maxResults(maxResults);
+   }
+
+   /**
+    * Limits each page to the fields named by a partial response selector, such as {@code items(name,status)}. A
+    * selector that leaves out {@code nextPageToken} gets it appended, so that the following pages are still listed.
+    *
+    * @see org.jclouds.googlecloud.options.FieldsOptions
+    */
+   public InstanceListOptions fields(String fields) {
+      checkNotNull(fields, "fields");
+      if (!fields.contains("nextPageToken")) {
+         fields += ",nextPageToken";
+      }
+      this.queryParameters.put("fields", fields);
+      return this;
+   }
+
+   public static final class Builder {
+
+      /**
+       * @see InstanceListOptions#filter(String)
+       */
+      public static InstanceListOptions filter(String filter) {
+         return new InstanceListOptions().filter(filter);
+      }
+
+      /**
+       * @see InstanceListOptions#maxResults(Integer)
+       */
+      public static InstanceListOptions maxResults(Integer maxResults) {
+         return new InstanceListOptions().maxResults(maxResults);
+      }
+
+      /**
+       * @see InstanceListOptions#fields(String)
+       */
+      public static InstanceListOptions fields(String fields) {
+         return new InstanceListOptions().fields(fields);
+      }
+
+      private Builder() {
+      }
+   }
+}
@@ -146,6 +146,22 @@ public class GoogleComputeEngineServiceMockTest extends BaseGoogleComputeEngineA
       assertSent(server, "GET", "/projects/party/aggregated/machineTypes");
    }
 
+   public void listNodesByIdsStopsPagingOnceAllAreFound() throws Exception {
+      String body = stringFromResource("/aggregated_instance_list.json").trim();
+      // another page follows, but it must not be requested once test-0 was seen
+      server.enqueue(new MockResponse().setBody(body.substring(0, body.length() - 1) + ",\"nextPageToken\":\"next\"}"));
+      server.enqueue(singleRegionSingleZoneResponse());
+      server.enqueue(jsonResponse("/aggregated_machinetype_list.json"));
+
+      Set<? extends NodeMetadata> nodes = computeService().listNodesByIds(
+            ImmutableSet.of(url("/projects/party/zones/us-central1-a/instances/test-0")));
+      assertEquals(nodes.size(), 1);
+
+      assertSent(server, "GET", "/projects/party/aggregated/instances");
+      assertSent(server, "GET", "/projects/party/regions");
+      assertSent(server, "GET", "/projects/party/aggregated/machineTypes");
+   }
+
    public void createNodeWhenNetworkNorFirewallExistDoesNotExist() throws Exception {
       server.enqueue(singleRegionSingleZoneResponse());
       server.enqueue(jsonResponse("/image_list.json"));
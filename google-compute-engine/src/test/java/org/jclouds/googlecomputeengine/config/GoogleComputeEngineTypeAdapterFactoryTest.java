@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecomputeengine.config;
+
+import static org.jclouds.googlecloud.config.StreamingAdapterAssertions.assertMatchesSerializedNames;
+import static org.jclouds.util.Strings2.toStringAndClose;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Set;
+
+import javax.inject.Singleton;
+
+import org.jclouds.googlecloud.config.ListPageAdapterFactory;
+import org.jclouds.googlecomputeengine.domain.Instance;
+import org.jclouds.googlecomputeengine.domain.Operation;
+import org.jclouds.json.config.GsonModule;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapterFactory;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Provides;
+import com.google.inject.util.Modules;
+
+@Test(groups = "unit", testName = "GoogleComputeEngineTypeAdapterFactoryTest")
+public class GoogleComputeEngineTypeAdapterFactoryTest {
+
+   private final Gson streaming = Guice.createInjector(new GsonModule(), new GoogleComputeEngineParserModule())
+         .getInstance(Gson.class);
+
+   private final Gson reflective = Guice.createInjector(new GsonModule(),
+         Modules.override(new GoogleComputeEngineParserModule()).with(new AbstractModule() {
+            @Override protected void configure() {
+            }
+
+            @Provides @Singleton Set<TypeAdapterFactory> typeAdapterFactories() {
+               return ImmutableSet.<TypeAdapterFactory>of(new ListPageAdapterFactory());
+            }
+         })).getInstance(Gson.class);
+
+   public void instanceMatchesReflectiveParsing() throws IOException {
+      String json = resource("/instance_get.json");
+      assertEquals(streaming.fromJson(json, Instance.class), reflective.fromJson(json, Instance.class));
+   }
+
+   public void operationMatchesReflectiveParsing() throws IOException {
+      for (String resource : ImmutableSet.of("/operation.json", "/zone_operation_error.json",
+            "/region_operation.json")) {
+         String json = resource(resource);
+         assertEquals(streaming.fromJson(json, Operation.class), reflective.fromJson(json, Operation.class), resource);
+      }
+   }
+
+   public void instanceAdapterFollowsSerializedNames() throws IOException {
+      assertMatchesSerializedNames(streaming, reflective, Instance.class, sample("/instance_get.json"));
+   }
+
+   public void operationAdapterFollowsSerializedNames() throws IOException {
+      assertMatchesSerializedNames(streaming, reflective, Operation.class, sample("/operation.json"));
+   }
+
+   public void skipsUnknownFieldsAndNulls() {
+      Instance instance = streaming.fromJson("{\"name\":\"test-1\",\"cpuPlatform\":{\"a\":[1]},\"description\":null}",
+            Instance.class);
+      assertEquals(instance.name(), "test-1");
+      assertNull(instance.description());
+      assertTrue(instance.disks().isEmpty());
+   }
+
+   private JsonObject sample(String name) throws IOException {
+      return new JsonParser().parse(resource(name)).getAsJsonObject();
+   }
+
+   private String resource(String name) throws IOException {
+      return toStringAndClose(getClass().getResourceAsStream(name));
+   }
+}
@@ -16,10 +16,17 @@
  */
 package org.jclouds.googlecomputeengine.features;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
+import java.net.URLDecoder;
+
+import org.jclouds.googlecloud.config.ListPageReader;
+import org.jclouds.googlecomputeengine.domain.Instance;
 import org.jclouds.googlecomputeengine.internal.BaseGoogleComputeEngineApiMockTest;
+import org.jclouds.googlecomputeengine.options.InstanceListOptions;
 import org.testng.annotations.Test;
 
 @Test(groups = "unit", testName = "AggregatedListApiMockTest", singleThreaded = true)
@@ -55,6 +62,32 @@ public class AggregatedListApiMockTest extends BaseGoogleComputeEngineApiMockTes
       assertSent(server, "GET", "/projects/party/aggregated/instances");
    }
 
+   public void instancesWithFields() throws Exception {
+      server.enqueue(jsonResponse("/aggregated_instance_list.json"));
+
+      assertTrue(api().aggregatedList().instances(InstanceListOptions.Builder.fields("items/*/instances(selfLink)"))
+            .hasNext());
+
+      assertEquals(URLDecoder.decode(server.takeRequest().getPath(), "UTF-8"),
+            "/projects/party/aggregated/instances?fields=items/*/instances(selfLink),nextPageToken");
+   }
+
+   public void streamPageOfInstances() throws Exception {
+      server.enqueue(jsonResponse("/aggregated_instance_list.json"));
+
+      ListPageReader<Instance> page = api().aggregatedList().streamPageOfInstances(null, null);
+      try {
+         assertTrue(page.hasNext());
+         assertEquals(page.next().name(), "test-0");
+         assertFalse(page.hasNext());
+         assertNull(page.nextPageToken());
+      } finally {
+         page.close();
+      }
+
+      assertSent(server, "GET", "/projects/party/aggregated/instances");
+   }
+
    public void instances_4xx() throws Exception {
       server.enqueue(jsonResponse("/aggregated_instance_list_empty.json"));
 
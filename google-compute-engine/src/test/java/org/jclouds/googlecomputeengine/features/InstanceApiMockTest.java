@@ -16,21 +16,28 @@
  */
 package org.jclouds.googlecomputeengine.features;
 
+import static org.jclouds.googlecloud.options.FieldsOptions.Builder.fields;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 import java.net.URI;
+import java.net.URLDecoder;
 import java.util.Arrays;
+import java.util.Iterator;
 
+import org.jclouds.googlecloud.domain.ListPage;
 import org.jclouds.googlecomputeengine.domain.AttachDisk;
 import org.jclouds.googlecomputeengine.domain.AttachDisk.DiskInterface;
+import org.jclouds.googlecomputeengine.domain.Instance;
 import org.jclouds.googlecomputeengine.domain.Instance.NetworkInterface.AccessConfig;
 import org.jclouds.googlecomputeengine.domain.Instance.NetworkInterface.AccessConfig.Type;
 import org.jclouds.googlecomputeengine.domain.Metadata;
 import org.jclouds.googlecomputeengine.domain.NewInstance;
 import org.jclouds.googlecomputeengine.domain.Instance.Scheduling.OnHostMaintenance;
 import org.jclouds.googlecomputeengine.internal.BaseGoogleComputeEngineApiMockTest;
+import org.jclouds.googlecomputeengine.options.InstanceListOptions;
 import org.jclouds.googlecomputeengine.parse.ParseInstanceListTest;
 import org.jclouds.googlecomputeengine.parse.ParseInstanceSerialOutputTest;
 import org.jclouds.googlecomputeengine.parse.ParseInstanceTest;
@@ -38,6 +45,8 @@ import org.jclouds.googlecomputeengine.parse.ParseZoneOperationTest;
 import org.testng.annotations.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
 
 @Test(groups = "unit", testName = "InstanceApiMockTest", singleThreaded = true)
 public class InstanceApiMockTest extends BaseGoogleComputeEngineApiMockTest {
@@ -56,6 +65,18 @@ public class InstanceApiMockTest extends BaseGoogleComputeEngineApiMockTest {
       assertSent(server, "GET", "/projects/party/zones/us-central1-a/instances/test-1");
    }
 
+   public void getWithFields() throws Exception {
+      server.enqueue(new MockResponse().addHeader("Content-Type", "application/json")
+            .setBody("{\"name\":\"test-instance\",\"status\":\"RUNNING\"}"));
+
+      Instance instance = instanceApi().get("test-instance", fields("name,status"));
+      assertEquals(instance.name(), "test-instance");
+      assertEquals(instance.status(), Instance.Status.RUNNING);
+      assertNull(instance.selfLink());
+      assertTrue(instance.disks().isEmpty());
+      assertSent(server, "GET", "/projects/party/zones/us-central1-a/instances/test-instance?fields=name%2Cstatus");
+   }
+
    public void getInstanceSerialPortOutput() throws Exception {
       server.enqueue(jsonResponse("/instance_serial_port.json"));
 
@@ -145,6 +166,28 @@ public class InstanceApiMockTest extends BaseGoogleComputeEngineApiMockTest {
       assertSent(server, "GET", "/projects/party/zones/us-central1-a/instances");
    }
 
+   public void listWithFieldsKeepsSelectorOnEveryPage() throws Exception {
+      server.enqueue(new MockResponse().addHeader("Content-Type", "application/json")
+            .setBody("{\"items\":[{\"name\":\"test-0\",\"status\":\"RUNNING\"}],\"nextPageToken\":\"next\"}"));
+      server.enqueue(new MockResponse().addHeader("Content-Type", "application/json")
+            .setBody("{\"items\":[{\"name\":\"test-1\",\"status\":\"STOPPED\"}]}"));
+
+      Iterator<ListPage<Instance>> pages = instanceApi().list(InstanceListOptions.Builder.fields("items(name,status)"));
+      assertEquals(pages.next().get(0).name(), "test-0");
+      Instance second = pages.next().get(0);
+      assertEquals(second.name(), "test-1");
+      assertEquals(second.status(), Instance.Status.STOPPED);
+      assertTrue(second.disks().isEmpty());
+      assertFalse(pages.hasNext());
+
+      assertEquals(decodedPath(server.takeRequest()),
+            "/projects/party/zones/us-central1-a/instances?fields=items(name,status),nextPageToken");
+      String next = decodedPath(server.takeRequest());
+      assertTrue(next.startsWith("/projects/party/zones/us-central1-a/instances?"), next);
+      assertTrue(next.contains("pageToken=next"), next);
+      assertTrue(next.contains("fields=items(name,status),nextPageToken"), next);
+   }
+
    public void list_empty() throws Exception {
       server.enqueue(jsonResponse("/list_empty.json"));
 
@@ -252,4 +295,9 @@ public class InstanceApiMockTest extends BaseGoogleComputeEngineApiMockTest {
    InstanceApi instanceApi(){
       return api().instancesInZone("us-central1-a");
    }
+
+   private static String decodedPath(RecordedRequest request) throws Exception {
+      assertEquals(request.getMethod(), "GET");
+      return URLDecoder.decode(request.getPath(), "UTF-8");
+   }
 }
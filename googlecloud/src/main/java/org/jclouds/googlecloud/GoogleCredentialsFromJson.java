@@ -17,10 +17,21 @@
 package org.jclouds.googlecloud;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.propagate;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 import org.jclouds.domain.Credentials;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Charsets;
 import com.google.common.base.Supplier;
+import com.google.common.base.Ticker;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
@@ -28,14 +39,57 @@ import com.google.gson.JsonParser;
  * Provides an easy way to pass in credentials using the json-key format.
  * Just provide the path to the .json file and this extracts and sets identity
  *  and credentials from the json.
+ *
+ * The json is only parsed once. When constructed with a file, the file is checked at most once a second and re-parsed
+ * only when its modification time or size changed and its contents hash differs, so a rotated key is picked up
+ * without a restart. Returning new credentials makes the oauth module discard the private key and tokens derived from the
+ * previous ones.
  */
 public class GoogleCredentialsFromJson implements Supplier<Credentials>{
 
+   /** How often the key file is stat'ed, so that authorizing a request rarely touches the file system. */
+   private static final long CHECK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
    private final String jsonKeyString;
+   private final File jsonKeyFile;
+   private final Ticker ticker;
+
+   /** The credentials last parsed, with what they were parsed from. */
+   private volatile Loaded loaded;
+
+   private static final class Loaded {
+      final Credentials credentials;
+      final long lastModified;
+      final long length;
+      final HashCode hash;
+      final long checkedAtNanos;
+
+      Loaded(Credentials credentials, long lastModified, long length, HashCode hash, long checkedAtNanos) {
+         this.credentials = credentials;
+         this.lastModified = lastModified;
+         this.length = length;
+         this.hash = hash;
+         this.checkedAtNanos = checkedAtNanos;
+      }
+   }
 
    public GoogleCredentialsFromJson(String jsonString){
       checkNotNull(jsonString, "Google Credentials jsonString cannot be null");
       jsonKeyString = jsonString;
+      jsonKeyFile = null;
+      ticker = Ticker.systemTicker();
+   }
+
+   /** Reads credentials from a json key file, reloading them whenever the file changes. */
+   public GoogleCredentialsFromJson(File jsonFile){
+      this(jsonFile, Ticker.systemTicker());
+   }
+
+   @VisibleForTesting GoogleCredentialsFromJson(File jsonFile, Ticker ticker) {
+      checkNotNull(jsonFile, "Google Credentials jsonFile cannot be null");
+      jsonKeyString = null;
+      jsonKeyFile = jsonFile;
+      this.ticker = checkNotNull(ticker, "ticker");
    }
 
    /**
@@ -58,6 +112,40 @@ public class GoogleCredentialsFromJson implements Supplier<Credentials>{
 
    @Override
    public Credentials get() {
-      return parseJsonKeyString(jsonKeyString);
+      Loaded current = loaded;
+      if (jsonKeyFile == null) {
+         if (current == null) {
+            current = loaded = new Loaded(parseJsonKeyString(jsonKeyString), 0, 0, null, 0);
+         }
+         return current.credentials;
+      }
+      long now = ticker.read();
+      if (current != null && now - current.checkedAtNanos < CHECK_INTERVAL_NANOS) {
+         return current.credentials;
+      }
+      if (current != null && current.lastModified == jsonKeyFile.lastModified()
+            && current.length == jsonKeyFile.length()) {
+         loaded = new Loaded(current.credentials, current.lastModified, current.length, current.hash, now);
+         return current.credentials;
+      }
+      return reload(now);
+   }
+
+   private synchronized Credentials reload(long now) {
+      try {
+         long lastModified = jsonKeyFile.lastModified();
+         long length = jsonKeyFile.length();
+         byte[] contents = Files.toByteArray(jsonKeyFile);
+         HashCode hash = Hashing.sha256().hashBytes(contents);
+         Loaded current = loaded;
+         // touched but not changed: keep the same credentials, so nothing derived from them is thrown away
+         Credentials credentials = current != null && current.hash.equals(hash)
+               ? current.credentials
+               : parseJsonKeyString(new String(contents, Charsets.UTF_8));
+         loaded = new Loaded(credentials, lastModified, length, hash, now);
+         return credentials;
+      } catch (IOException e) {
+         throw propagate(e);
+      }
    }
 }
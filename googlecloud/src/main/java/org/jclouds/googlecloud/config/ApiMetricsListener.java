@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.config;
+
+import com.google.inject.ImplementedBy;
+
+/**
+ * Told about every call made through the Google apis, keyed by the {@code @Named} value of the api method, such as
+ * {@code Operations:get} or {@code Object:simpleUpload}. Calls happen on request threads, so implementations must be
+ * thread-safe and fast.
+ *
+ * <p/>Calls are only reported when using the default http driver. Defaults to {@link InMemoryApiMetricsListener}. To
+ * plug in another implementation, bind it in a module passed to {@link org.jclouds.ContextBuilder#modules(Iterable)}.
+ */
+@ImplementedBy(InMemoryApiMetricsListener.class)
+public interface ApiMetricsListener {
+
+   /**
+    * A call got its final response, after {@code retries} retries.
+    *
+    * @param statusCode status of the final response, or 0 if no response was received
+    * @param latencyNanos time until the response headers were received, including retries and their backoff
+    * @param requestBytes length of the request body, or 0 if it has none or its length is unknown
+    */
+   void requestCompleted(String method, int statusCode, long latencyNanos, long requestBytes, int retries);
+
+   /** The body of a response was closed after {@code bytes} bytes were read from it. */
+   void responseBytesRead(String method, long bytes);
+
+   /** A call shared the response of an identical call in flight instead of calling the api. */
+   void requestCoalesced(String method);
+}
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.config;
+
+import org.jclouds.googlecloud.internal.GoogleCloudJavaUrlHttpCommandExecutorService;
+import org.jclouds.http.internal.JavaUrlHttpCommandExecutorService;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Injector;
+import com.google.inject.Provides;
+
+/**
+ * Swaps the default {@link JavaUrlHttpCommandExecutorService} for one that uses gzip on the wire and reports
+ * per api method metrics.
+ *
+ * <p/>The replacement is looked up lazily, so contexts configured with another http driver, whose executor
+ * dependencies are not bound, are unaffected.
+ */
+public final class GoogleCloudJavaUrlHttpCommandExecutorServiceModule extends AbstractModule {
+
+   @Override protected void configure() {
+   }
+
+   @Provides JavaUrlHttpCommandExecutorService googleCloud(Injector injector) {
+      return injector.getInstance(GoogleCloudJavaUrlHttpCommandExecutorService.class);
+   }
+}
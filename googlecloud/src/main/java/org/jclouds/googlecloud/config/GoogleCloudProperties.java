@@ -35,6 +35,43 @@ public final class GoogleCloudProperties {
     */
    public static final String PROJECT_NAME = "jclouds.googlecloud.project-name";
 
+   /**
+    * How many list pages to request ahead of the consumer when iterating over a multi-page listing. Each following
+    * page is requested on the user executor as soon as the page before it arrives. Defaults to {@code 0}, which
+    * fetches each page on the calling thread only once the previous one has been consumed.
+    */
+   public static final String PAGE_PREFETCH_DEPTH = "jclouds.googlecloud.page-prefetch-depth";
+
+   /**
+    * Set to false to stop requesting gzip compressed responses when using the default http driver. Defaults to true.
+    *
+    * @see GoogleCloudJavaUrlHttpCommandExecutorServiceModule
+    */
+   public static final String GZIP_RESPONSES = "jclouds.googlecloud.gzip-responses";
+
+   /**
+    * Requests per second allowed for an api method in a project once Google first says it exceeded a rate limit.
+    * Defaults to {@code 10}.
+    *
+    * @see org.jclouds.googlecloud.internal.AdaptiveRateLimiter
+    */
+   public static final String RATE_LIMIT_INITIAL_RATE = "jclouds.googlecloud.rate-limit.initial-rate";
+
+   /**
+    * Requests per second at which a recovering api method is no longer throttled. Defaults to {@code 100}.
+    *
+    * @see org.jclouds.googlecloud.internal.AdaptiveRateLimiter
+    */
+   public static final String RATE_LIMIT_MAX_RATE = "jclouds.googlecloud.rate-limit.max-rate";
+
+   /**
+    * Set to true so that concurrent identical GET requests share one in-flight response instead of each calling the
+    * api, when using the default http driver. Defaults to false.
+    *
+    * @see org.jclouds.googlecloud.internal.SingleFlightGets
+    */
+   public static final String COALESCE_GETS = "jclouds.googlecloud.coalesce-gets";
+
    private GoogleCloudProperties() {
    }
 }
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts values into power-of-two buckets, which is precise enough to tell microseconds from milliseconds from seconds
+ * without allocating per value. Values are recorded by the listeners of this package; callers only read them.
+ */
+public final class Histogram {
+   private final AtomicLongArray buckets = new AtomicLongArray(64);
+   private final AtomicLong count = new AtomicLong();
+   private final AtomicLong sum = new AtomicLong();
+   private final AtomicLong max = new AtomicLong();
+
+   Histogram() {
+   }
+
+   void record(long value) {
+      long positive = Math.max(value, 0);
+      buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(positive) - (positive == 0 ? 0 : 1));
+      count.incrementAndGet();
+      sum.addAndGet(positive);
+      long currentMax;
+      while (positive > (currentMax = max.get()) && !max.compareAndSet(currentMax, positive)) {
+         // retry until the max is this value or a greater one
+      }
+   }
+
+   public long count() {
+      return count.get();
+   }
+
+   public long sum() {
+      return sum.get();
+   }
+
+   public long max() {
+      return max.get();
+   }
+
+   public long mean() {
+      long n = count();
+      return n == 0 ? 0 : sum() / n;
+   }
+
+   /** Returns an upper bound of the given percentile, e.g. {@code 0.99}, of recorded values. */
+   public long percentile(double percentile) {
+      long rank = (long) Math.ceil(percentile * count());
+      long seen = 0;
+      for (int i = 0; i < buckets.length(); i++) {
+         seen += buckets.get(i);
+         if (seen >= rank && seen > 0) {
+            return i >= 62 ? Long.MAX_VALUE : (2L << i) - 1;
+         }
+      }
+      return 0;
+   }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.config;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Singleton;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Ordering;
+
+/**
+ * Keeps per api method latency histograms and counters in memory. {@link #dump()} lists them, busiest method first,
+ * to see which calls dominate provisioning and transfer time.
+ */
+@Singleton
+public class InMemoryApiMetricsListener implements ApiMetricsListener {
+
+   /** Everything recorded about one api method. */
+   public static final class MethodMetrics {
+      private final Histogram latency = new Histogram();
+      private final ConcurrentMap<Integer, AtomicLong> statusCodes = new ConcurrentHashMap<Integer, AtomicLong>();
+      private final AtomicLong requestBytes = new AtomicLong();
+      private final AtomicLong responseBytes = new AtomicLong();
+      private final AtomicLong retries = new AtomicLong();
+      private final AtomicLong coalesced = new AtomicLong();
+
+      /** Nanoseconds until response headers were received, including retries. */
+      public Histogram latency() {
+         return latency;
+      }
+
+      /** Count of final responses by status code; 0 counts calls that got no response. */
+      public Map<Integer, Long> statusCodes() {
+         ImmutableSortedMap.Builder<Integer, Long> counts = ImmutableSortedMap.naturalOrder();
+         for (Entry<Integer, AtomicLong> entry : statusCodes.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().get());
+         }
+         return counts.build();
+      }
+
+      public long requestBytes() {
+         return requestBytes.get();
+      }
+
+      public long responseBytes() {
+         return responseBytes.get();
+      }
+
+      public long retries() {
+         return retries.get();
+      }
+
+      /** Count of calls that shared the response of an identical call in flight. */
+      public long coalesced() {
+         return coalesced.get();
+      }
+
+      private AtomicLong statusCode(int statusCode) {
+         AtomicLong count = statusCodes.get(statusCode);
+         if (count == null) {
+            AtomicLong existing = statusCodes.putIfAbsent(statusCode, count = new AtomicLong());
+            count = existing != null ? existing : count;
+         }
+         return count;
+      }
+   }
+
+   /** Most total latency first. */
+   private static final Ordering<Entry<String, MethodMetrics>> BY_TOTAL_LATENCY =
+         new Ordering<Entry<String, MethodMetrics>>() {
+            @Override public int compare(Entry<String, MethodMetrics> left, Entry<String, MethodMetrics> right) {
+               return Long.compare(right.getValue().latency().sum(), left.getValue().latency().sum());
+            }
+         };
+
+   private final ConcurrentMap<String, MethodMetrics> methods = new ConcurrentHashMap<String, MethodMetrics>();
+
+   @Override public void requestCompleted(String method, int statusCode, long latencyNanos, long requestBytes,
+         int retries) {
+      MethodMetrics metrics = metrics(method);
+      metrics.latency.record(latencyNanos);
+      metrics.statusCode(statusCode).incrementAndGet();
+      metrics.requestBytes.addAndGet(requestBytes);
+      metrics.retries.addAndGet(retries);
+   }
+
+   @Override public void responseBytesRead(String method, long bytes) {
+      metrics(method).responseBytes.addAndGet(bytes);
+   }
+
+   @Override public void requestCoalesced(String method) {
+      metrics(method).coalesced.incrementAndGet();
+   }
+
+   /** Metrics of the given api method, or null if it was never called. */
+   @Nullable public MethodMetrics get(String method) {
+      return methods.get(method);
+   }
+
+   /** Metrics of every api method called so far. */
+   public Map<String, MethodMetrics> methods() {
+      return ImmutableMap.copyOf(methods);
+   }
+
+   /** Forgets everything recorded so far. */
+   public void reset() {
+      methods.clear();
+   }
+
+   /**
+    * Lists each api method on a line, with most total time first: call count, total, mean, p99 and max latency in
+    * milliseconds, bytes sent and received, retries, coalesced calls and status codes.
+    */
+   public String dump() {
+      List<Entry<String, MethodMetrics>> entries = BY_TOTAL_LATENCY.sortedCopy(methods.entrySet());
+      StringBuilder out = new StringBuilder(String.format("%-40s %8s %10s %8s %8s %8s %12s %12s %7s %9s %s%n",
+            "method", "calls", "total_ms", "mean_ms", "p99_ms", "max_ms", "sent", "received", "retries", "coalesced",
+            "status"));
+      for (Entry<String, MethodMetrics> entry : entries) {
+         MethodMetrics metrics = entry.getValue();
+         Histogram latency = metrics.latency();
+         out.append(String.format("%-40s %8d %10d %8d %8d %8d %12d %12d %7d %9d %s%n", entry.getKey(),
+               latency.count(), NANOSECONDS.toMillis(latency.sum()), NANOSECONDS.toMillis(latency.mean()),
+               NANOSECONDS.toMillis(latency.percentile(0.99)), NANOSECONDS.toMillis(latency.max()),
+               metrics.requestBytes(), metrics.responseBytes(), metrics.retries(), metrics.coalesced(),
+               metrics.statusCodes()));
+      }
+      return out.toString();
+   }
+
+   private MethodMetrics metrics(String method) {
+      MethodMetrics metrics = methods.get(method);
+      if (metrics == null) {
+         MethodMetrics existing = methods.putIfAbsent(method, metrics = new MethodMetrics());
+         metrics = existing != null ? existing : metrics;
+      }
+      return metrics;
+   }
+}
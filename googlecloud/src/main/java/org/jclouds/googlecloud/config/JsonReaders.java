@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.config;
+
+import java.io.IOException;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Reads values that may be {@code null} in streaming type adapters, which deserialize domain types by calling their
+ * {@code @SerializedNames} factory methods directly instead of through reflection.
+ */
+public final class JsonReaders {
+
+   @Nullable public static String nextString(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+         in.nextNull();
+         return null;
+      }
+      return in.nextString();
+   }
+
+   /** Also reads numbers sent as strings, as Google does for 64-bit values. */
+   public static long nextLong(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+         in.nextNull();
+         return 0;
+      }
+      return in.nextLong();
+   }
+
+   @Nullable public static Integer nextInteger(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+         in.nextNull();
+         return null;
+      }
+      return in.nextInt();
+   }
+
+   @Nullable public static Boolean nextBoolean(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+         in.nextNull();
+         return null;
+      }
+      return in.nextBoolean();
+   }
+
+   private JsonReaders() {
+   }
+}
@@ -23,21 +23,22 @@ import java.lang.reflect.Type;
 import org.jclouds.googlecloud.domain.ForwardingListPage;
 import org.jclouds.googlecloud.domain.ListPage;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
 import com.google.gson.TypeAdapter;
 import com.google.gson.TypeAdapterFactory;
 import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
-import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 
 public final class ListPageAdapterFactory implements TypeAdapterFactory {
    static final class ListPageAdapter extends TypeAdapter<ListPage<?>> {
-      private final TypeAdapter<?> itemAdapter;
+      private final TypeAdapter<Object> itemAdapter;
 
-      ListPageAdapter(TypeAdapter<?> itemAdapter) {
-         this.itemAdapter = itemAdapter;
+      @SuppressWarnings("unchecked") ListPageAdapter(TypeAdapter<?> itemAdapter) {
+         this.itemAdapter = (TypeAdapter<Object>) itemAdapter;
          nullSafe();
       }
 
@@ -46,55 +47,26 @@ public final class ListPageAdapterFactory implements TypeAdapterFactory {
       }
 
       public ListPage<?> read(JsonReader in) throws IOException {
-         ImmutableList.Builder<Object> items = ImmutableList.builder();
-         String nextPageToken = null;
-         in.beginObject();
-         while (in.hasNext()) {
-            String name = in.nextName();
-            if (name.equals("items")) {
-               if (in.peek() == JsonToken.BEGIN_ARRAY) {
-                  readItems(in, items);
-               } else { // aggregated
-                  readAggregate(in, items);
-               }
-            } else if (name.equals("nextPageToken")) {
-               nextPageToken = in.nextString();
-            } else {
-               in.skipValue();
-            }
+         ListPageReader<Object> reader = new ListPageReader<Object>(in, itemAdapter);
+         try {
+            ImmutableList<Object> items = ImmutableList.copyOf(reader);
+            return ForwardingListPage.create(items, reader.nextPageToken());
+         } catch (JsonIOException e) {
+            Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+            throw e;
          }
-         in.endObject();
-         return ForwardingListPage.create(items.build(), nextPageToken);
-      }
-
-      private void readItems(JsonReader in, ImmutableList.Builder<Object> items) throws IOException {
-         in.beginArray();
-         while (in.hasNext()) {
-            Object item = itemAdapter.read(in);
-            if (item != null) {
-               items.add(item);
-            }
-         }
-         in.endArray();
       }
+   }
 
-      private void readAggregate(JsonReader in, ImmutableList.Builder<Object> items) throws IOException {
-         in.beginObject(); // enter zone name -> type -> items map
-         while (in.hasNext()) {
-            String scope = in.nextName(); // skip zone name
-            in.beginObject(); // enter zone map
-            while (in.hasNext()) {
-               String resourceTypeOrWarning = in.nextName();
-               if (!resourceTypeOrWarning.equals("warning")) {
-                  readItems(in, items);
-               } else {
-                  in.skipValue();
-               }
-            }
-            in.endObject(); // end zone map
-         }
-         in.endObject(); // end item wrapper
-      }
+   /**
+    * Reads a list response item by item instead of materializing the page, for example to process an aggregated
+    * list spanning every zone without holding it all in memory.
+    *
+    * @param itemType type of the items, such as {@code TypeToken.get(Instance.class)}
+    * @param in positioned at the start of the response object
+    */
+   public static <T> ListPageReader<T> streaming(Gson gson, TypeToken<T> itemType, JsonReader in) {
+      return new ListPageReader<T>(in, gson.getAdapter(itemType));
    }
 
    @SuppressWarnings("unchecked") public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> ownerType) {
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.config;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.gson.JsonIOException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Pulls the items of a list response one at a time as the reader advances, so only one item needs to be in memory.
+ * Handles both the plain {@code items} array and the aggregated {@code items} map of scope to resource type to array.
+ *
+ * <p/>The {@link #nextPageToken() next page token} is known once the iterator is exhausted, as Google may write it
+ * after the items.
+ */
+public final class ListPageReader<T> extends AbstractIterator<T> implements Closeable {
+
+   private enum State {
+      START, TOP, ITEMS, SCOPES, RESOURCE_TYPES, AGGREGATED_ITEMS, END
+   }
+
+   private final JsonReader in;
+   private final TypeAdapter<T> itemAdapter;
+   private State state = State.START;
+   private String nextPageToken;
+
+   public ListPageReader(JsonReader in, TypeAdapter<T> itemAdapter) {
+      this.in = checkNotNull(in, "in");
+      this.itemAdapter = checkNotNull(itemAdapter, "itemAdapter");
+   }
+
+   /** Token of the page after this one, or null if this is the last. Only valid once all items were read. */
+   @Nullable public String nextPageToken() {
+      checkState(state == State.END, "items not fully read");
+      return nextPageToken;
+   }
+
+   @Override protected T computeNext() {
+      try {
+         T item;
+         while ((item = advance()) == null) {
+            if (state == State.END) {
+               return endOfData();
+            }
+         }
+         return item;
+      } catch (IOException e) {
+         throw new JsonIOException(e);
+      }
+   }
+
+   /** Moves the reader by at most one item, returning it, or null if only structure was consumed. */
+   @Nullable private T advance() throws IOException {
+      switch (state) {
+         case START:
+            in.beginObject();
+            state = State.TOP;
+            return null;
+         case TOP:
+            if (!in.hasNext()) {
+               in.endObject();
+               state = State.END;
+            } else {
+               String name = in.nextName();
+               if (name.equals("items")) {
+                  if (in.peek() == JsonToken.BEGIN_ARRAY) {
+                     in.beginArray();
+                     state = State.ITEMS;
+                  } else { // aggregated
+                     in.beginObject(); // enter zone name -> type -> items map
+                     state = State.SCOPES;
+                  }
+               } else if (name.equals("nextPageToken")) {
+                  nextPageToken = in.nextString();
+               } else {
+                  in.skipValue();
+               }
+            }
+            return null;
+         case ITEMS:
+         case AGGREGATED_ITEMS:
+            if (in.hasNext()) {
+               return itemAdapter.read(in); // null items are skipped
+            }
+            in.endArray();
+            state = state == State.ITEMS ? State.TOP : State.RESOURCE_TYPES;
+            return null;
+         case SCOPES:
+            if (in.hasNext()) {
+               in.nextName(); // skip zone name
+               in.beginObject(); // enter zone map
+               state = State.RESOURCE_TYPES;
+            } else {
+               in.endObject(); // end item wrapper
+               state = State.TOP;
+            }
+            return null;
+         case RESOURCE_TYPES:
+            if (in.hasNext()) {
+               if (!in.nextName().equals("warning")) {
+                  in.beginArray();
+                  state = State.AGGREGATED_ITEMS;
+               } else {
+                  in.skipValue();
+               }
+            } else {
+               in.endObject(); // end zone map
+               state = State.SCOPES;
+            }
+            return null;
+         default:
+            return null;
+      }
+   }
+
+   @Override public void close() throws IOException {
+      in.close();
+   }
+}
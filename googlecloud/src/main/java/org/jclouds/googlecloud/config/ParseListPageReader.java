@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.config;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.propagate;
+import static org.jclouds.util.Closeables2.closeQuietly;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+import org.jclouds.http.HttpResponse;
+
+import com.google.common.base.Function;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+
+/**
+ * Parses a list response into a {@link ListPageReader} over the open response stream, so items are only read as the
+ * caller iterates. Callers must {@link ListPageReader#close() close} the reader, which releases the connection.
+ *
+ * <p/>Subclass with the item type, as {@link org.jclouds.rest.annotations.ResponseParser} needs a concrete class.
+ */
+public abstract class ParseListPageReader<T> implements Function<HttpResponse, ListPageReader<T>> {
+   private final Gson gson;
+   private final TypeToken<T> itemType;
+
+   protected ParseListPageReader(Gson gson, TypeToken<T> itemType) {
+      this.gson = checkNotNull(gson, "gson");
+      this.itemType = checkNotNull(itemType, "itemType");
+   }
+
+   @Override public ListPageReader<T> apply(HttpResponse response) {
+      checkNotNull(response.getPayload(), "payload of %s", response);
+      try {
+         JsonReader in = new JsonReader(new InputStreamReader(response.getPayload().openStream(), UTF_8));
+         return ListPageAdapterFactory.streaming(gson, itemType, in);
+      } catch (IOException e) {
+         closeQuietly(response.getPayload());
+         throw propagate(e);
+      }
+   }
+}
@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.filters;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.googlecloud.internal.AdaptiveRateLimiter;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpRequestFilter;
+
+/** Holds each request until {@link AdaptiveRateLimiter} permits its api method to be called. */
+@Singleton
+public final class AdaptiveRateLimitFilter implements HttpRequestFilter {
+
+   private final AdaptiveRateLimiter limiter;
+
+   @Inject AdaptiveRateLimitFilter(AdaptiveRateLimiter limiter) {
+      this.limiter = limiter;
+   }
+
+   @Override public HttpRequest filter(HttpRequest request) {
+      limiter.acquire(AdaptiveRateLimiter.key(request));
+      return request;
+   }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.filters;
+
+import static com.google.common.net.HttpHeaders.ACCEPT_ENCODING;
+import static com.google.common.net.HttpHeaders.USER_AGENT;
+
+import java.net.URI;
+
+import javax.inject.Singleton;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpRequestFilter;
+import org.jclouds.http.internal.JavaUrlHttpCommandExecutorService;
+
+import com.google.common.base.Splitter;
+
+/**
+ * Asks for a gzip compressed response. Google only compresses responses when the user agent also says it can
+ * handle gzip, so {@code (gzip)} is appended to it.
+ *
+ * <p/>Only json api calls are compressed. Media downloads ({@code alt=media} or {@code /download/} urls) are left
+ * alone, so their bytes, length and checksums are those of the stored object, as is any request that already sets
+ * {@code Accept-Encoding}.
+ *
+ * <p/>The response must be inflated by whoever sends the request, which is why this is applied by
+ * {@link org.jclouds.googlecloud.internal.GoogleCloudJavaUrlHttpCommandExecutorService} instead of annotating apis.
+ *
+ * @see <a href="https://cloud.google.com/compute/docs/api/how-tos/performance#gzip">Using gzip</a>
+ */
+@Singleton
+public final class GzipRequestFilter implements HttpRequestFilter {
+
+   static final String GZIP_USER_AGENT_SUFFIX = " (gzip)";
+
+   /** Whether {@code request} is a json api call that did not choose its own encoding. */
+   public boolean appliesTo(HttpRequest request) {
+      if (request.getFirstHeaderOrNull(ACCEPT_ENCODING) != null) {
+         return false;
+      }
+      URI endpoint = request.getEndpoint();
+      if (endpoint.getRawPath() != null && endpoint.getRawPath().contains("/download/")) {
+         return false;
+      }
+      if (endpoint.getRawQuery() != null) {
+         for (String parameter : Splitter.on('&').split(endpoint.getRawQuery())) {
+            if (parameter.equals("alt=media")) {
+               return false;
+            }
+         }
+      }
+      return true;
+   }
+
+   @Override public HttpRequest filter(HttpRequest request) {
+      if (!appliesTo(request)) {
+         return request;
+      }
+      String userAgent = request.getFirstHeaderOrNull(USER_AGENT);
+      if (userAgent == null) {
+         userAgent = JavaUrlHttpCommandExecutorService.DEFAULT_USER_AGENT;
+      }
+      if (!userAgent.contains("gzip")) {
+         userAgent += GZIP_USER_AGENT_SUFFIX;
+      }
+      return request.toBuilder()
+            .replaceHeader(ACCEPT_ENCODING, "gzip")
+            .replaceHeader(USER_AGENT, userAgent).build();
+   }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.handlers;
+
+import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
+import static org.jclouds.Constants.PROPERTY_RETRY_DELAY_START;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.googlecloud.internal.AdaptiveRateLimiter;
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpRetryHandler;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.inject.Inject;
+
+/**
+ * Retries requests refused for exceeding a rate limit, after an exponential backoff with full jitter: a random delay
+ * up to {@code retry-delay-start * 2^attempt}, capped at {@link #MAX_BACKOFF_MILLIS}. Each refusal also slows down
+ * later requests for the same api method through {@link AdaptiveRateLimiter}.
+ *
+ * @see <a href="https://cloud.google.com/storage/docs/exponential-backoff">Exponential backoff</a>
+ */
+@Singleton
+public final class RateLimitRetryHandler implements HttpRetryHandler {
+
+   static final long MAX_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(32);
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   @Inject(optional = true) @Named(PROPERTY_MAX_RETRIES)
+   private int retryCountLimit = 5;
+
+   @Inject(optional = true) @Named(PROPERTY_RETRY_DELAY_START)
+   private long delayStart = 50L;
+
+   private final AdaptiveRateLimiter limiter;
+   private final Random random = new Random();
+
+   @Inject RateLimitRetryHandler(AdaptiveRateLimiter limiter) {
+      this.limiter = limiter;
+   }
+
+   @Override public boolean shouldRetryRequest(HttpCommand command, HttpResponse response) {
+      if (!RateLimitedResponses.isRateLimited(response)) {
+         return false;
+      }
+      limiter.onRateLimited(AdaptiveRateLimiter.key(command.getCurrentRequest()));
+      if (!command.isReplayable()) {
+         logger.warn("Cannot retry after rate limit exceeded; payload is not replayable: %s",
+               command.getCurrentRequest().getRequestLine());
+         return false;
+      }
+      int attempt = command.incrementFailureCount();
+      if (attempt > retryCountLimit) {
+         logger.warn("Rate limit still exceeded after %d attempts: %s", retryCountLimit,
+               command.getCurrentRequest().getRequestLine());
+         return false;
+      }
+      long delay = backoffMillis(attempt);
+      logger.debug("Rate limit exceeded, retrying in %dms: %s", delay, command.getCurrentRequest().getRequestLine());
+      Uninterruptibles.sleepUninterruptibly(delay, TimeUnit.MILLISECONDS);
+      return true;
+   }
+
+   @VisibleForTesting long backoffMillis(int attempt) {
+      long ceiling = Math.min(MAX_BACKOFF_MILLIS, delayStart << Math.min(attempt, 20));
+      return (long) (random.nextDouble() * ceiling);
+   }
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.handlers;
+
+import static org.jclouds.http.HttpUtils.closeClientButKeepContentStream;
+
+import java.util.regex.Pattern;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Tells rate limit errors apart from other failures. Google answers with {@code 429}, or with {@code 403} and a
+ * reason of {@code rateLimitExceeded} or {@code userRateLimitExceeded}; other {@code 403}s are authorization errors.
+ */
+public final class RateLimitedResponses {
+
+   private static final Pattern RATE_LIMIT_REASON = Pattern
+         .compile("\"reason\"\\s*:\\s*\"(rateLimitExceeded|userRateLimitExceeded)\"");
+
+   /** Reads the body of a {@code 403}, keeping it for later readers such as the error handler. */
+   public static boolean isRateLimited(HttpResponse response) {
+      int status = response.getStatusCode();
+      if (status == 429) {
+         return true;
+      } else if (status != 403) {
+         return false;
+      }
+      byte[] data = closeClientButKeepContentStream(response);
+      return isRateLimited(status, data != null ? new String(data) : null);
+   }
+
+   public static boolean isRateLimited(int status, @Nullable String body) {
+      return status == 429 || status == 403 && body != null && RATE_LIMIT_REASON.matcher(body).find();
+   }
+
+   private RateLimitedResponses() {
+   }
+}
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.internal;
+
+import static org.jclouds.googlecloud.config.GoogleCloudProperties.RATE_LIMIT_INITIAL_RATE;
+import static org.jclouds.googlecloud.config.GoogleCloudProperties.RATE_LIMIT_MAX_RATE;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.inject.Inject;
+
+/**
+ * Client-side throttle per api method and project, which only starts limiting once Google says a rate limit was
+ * exceeded.
+ *
+ * <p/>Rates follow AIMD: each rate-limited response halves the permitted rate of its key, and the rate then grows
+ * back by one request per second, every second. Once it grows past the max rate, the key is unthrottled again.
+ */
+@Singleton
+public final class AdaptiveRateLimiter {
+
+   /** Rate never drops below this many requests per second. */
+   static final double MIN_RATE = 0.1;
+
+   /** Requests per second added back for each second since the last adjustment. */
+   static final double ADDITIVE_INCREASE = 1.0;
+
+   private static final Pattern PROJECT = Pattern.compile("/projects/([^/?]+)");
+
+   private static final class Limit {
+      private final RateLimiter limiter;
+      private double rate;
+      private long adjustedAtNanos;
+
+      Limit(double rate, long now) {
+         this.limiter = RateLimiter.create(rate);
+         this.rate = rate;
+         this.adjustedAtNanos = now;
+      }
+   }
+
+   private final ConcurrentMap<String, Limit> limits = new ConcurrentHashMap<String, Limit>();
+   private final AtomicLong rateLimitedResponses = new AtomicLong();
+   private final Ticker ticker;
+
+   @Inject(optional = true) @Named(RATE_LIMIT_INITIAL_RATE)
+   @VisibleForTesting double initialRate = 10;
+
+   @Inject(optional = true) @Named(RATE_LIMIT_MAX_RATE)
+   @VisibleForTesting double maxRate = 100;
+
+   @Inject AdaptiveRateLimiter() {
+      this(Ticker.systemTicker());
+   }
+
+   @VisibleForTesting AdaptiveRateLimiter(Ticker ticker) {
+      this.ticker = ticker;
+   }
+
+   /**
+    * Identifies what a request is limited by: the {@code @Named} api method, such as {@code Instances:insert}, and
+    * the project in its path, if any.
+    */
+   public static String key(HttpRequest request) {
+      String method = ApiMethods.nameOf(request);
+      Matcher project = PROJECT.matcher(request.getEndpoint().getRawPath());
+      return project.find() ? project.group(1) + "/" + method : method;
+   }
+
+   /** Waits until a request for {@code key} is permitted. Returns immediately for keys that were never limited. */
+   public void acquire(String key) {
+      Limit limit = limits.get(key);
+      if (limit == null) {
+         return;
+      }
+      synchronized (limit) {
+         if (recover(limit) >= maxRate) {
+            limits.remove(key, limit);
+            return;
+         }
+      }
+      limit.limiter.acquire();
+   }
+
+   /** Halves the permitted rate of {@code key}, or starts limiting it at the initial rate. */
+   public void onRateLimited(String key) {
+      rateLimitedResponses.incrementAndGet();
+      Limit limit = limits.get(key);
+      if (limit == null) {
+         limit = limits.putIfAbsent(key, new Limit(initialRate, ticker.read()));
+         if (limit == null) {
+            return;
+         }
+      }
+      synchronized (limit) {
+         setRate(limit, Math.max(MIN_RATE, recover(limit) / 2));
+      }
+   }
+
+   /** Current permitted requests per second for {@code key}, or null if it is not limited. */
+   @Nullable public Double permitsPerSecond(String key) {
+      Limit limit = limits.get(key);
+      if (limit == null) {
+         return null;
+      }
+      synchronized (limit) {
+         return recover(limit);
+      }
+   }
+
+   /** Permitted requests per second of every limited key. */
+   public Map<String, Double> permitsPerSecond() {
+      ImmutableMap.Builder<String, Double> rates = ImmutableMap.builder();
+      for (Map.Entry<String, Limit> entry : limits.entrySet()) {
+         synchronized (entry.getValue()) {
+            rates.put(entry.getKey(), recover(entry.getValue()));
+         }
+      }
+      return rates.build();
+   }
+
+   /** Count of responses that said a rate limit was exceeded. */
+   public long rateLimitedResponses() {
+      return rateLimitedResponses.get();
+   }
+
+   /** Applies the additive increase since the last adjustment; caller holds the lock on {@code limit}. */
+   private double recover(Limit limit) {
+      long seconds = TimeUnit.NANOSECONDS.toSeconds(ticker.read() - limit.adjustedAtNanos);
+      if (seconds > 0) {
+         limit.rate = Math.min(maxRate, limit.rate + ADDITIVE_INCREASE * seconds);
+         limit.adjustedAtNanos += TimeUnit.SECONDS.toNanos(seconds);
+         limit.limiter.setRate(limit.rate);
+      }
+      return limit.rate;
+   }
+
+   private void setRate(Limit limit, double rate) {
+      limit.rate = rate;
+      limit.adjustedAtNanos = ticker.read();
+      limit.limiter.setRate(rate);
+   }
+}
@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.internal;
+
+import javax.inject.Named;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.rest.internal.GeneratedHttpRequest;
+
+/** Names requests after the api method that made them, for throttling and metrics. */
+public final class ApiMethods {
+
+   /**
+    * Returns the {@code @Named} value of the api method, such as {@code Instances:insert}, or the http method for
+    * requests not made through an annotated api.
+    */
+   public static String nameOf(HttpRequest request) {
+      if (request instanceof GeneratedHttpRequest) {
+         Named named = ((GeneratedHttpRequest) request).getInvocation().getInvokable().getAnnotation(Named.class);
+         if (named != null) {
+            return named.value();
+         }
+      }
+      return request.getMethod();
+   }
+
+   private ApiMethods() {
+   }
+}
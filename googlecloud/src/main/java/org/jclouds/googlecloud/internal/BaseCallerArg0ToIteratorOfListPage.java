@@ -18,6 +18,10 @@ package org.jclouds.googlecloud.internal;
 
 import java.util.Iterator;
 
+import javax.inject.Named;
+
+import org.jclouds.Constants;
+import org.jclouds.googlecloud.config.GoogleCloudProperties;
 import org.jclouds.googlecloud.domain.ListPage;
 import org.jclouds.googlecloud.options.ListOptions;
 import org.jclouds.http.HttpRequest;
@@ -25,12 +29,20 @@ import org.jclouds.rest.InvocationContext;
 import org.jclouds.rest.internal.GeneratedHttpRequest;
 
 import com.google.common.base.Function;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Inject;
 
 public abstract class BaseCallerArg0ToIteratorOfListPage<T, O extends ListOptions, I extends BaseCallerArg0ToIteratorOfListPage<T, O, I>>
       implements Function<ListPage<T>, Iterator<ListPage<T>>>, InvocationContext<I> {
 
    private GeneratedHttpRequest request;
 
+   @Inject(optional = true) @Named(GoogleCloudProperties.PAGE_PREFETCH_DEPTH)
+   private int prefetchDepth = 0;
+
+   @Inject(optional = true) @Named(Constants.PROPERTY_USER_THREADS)
+   private ListeningExecutorService userExecutor;
+
    @Override public Iterator<ListPage<T>> apply(ListPage<T> input) {
       if (input.nextPageToken() == null) {
          return ListPages.singletonOrEmptyIterator(input);
@@ -39,7 +51,7 @@ public abstract class BaseCallerArg0ToIteratorOfListPage<T, O extends ListOption
       String arg0 = (String) request.getCaller().get().getArgs().get(0);
       O options = ListPages.listOptions(request.getInvocation().getArgs());
 
-      return new AdvancingIterator<T>(input, fetchNextPage(arg0, options));
+      return ListPages.advancing(input, fetchNextPage(arg0, options), prefetchDepth, userExecutor);
    }
 
    /**
@@ -0,0 +1,369 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.internal;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.propagate;
+import static org.jclouds.util.Closeables2.closeQuietly;
+import static org.jclouds.util.Strings2.toStringAndClose;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpRequestFilter;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.http.handlers.DelegatingErrorHandler;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.reflect.Invocation;
+import org.jclouds.rest.Fallback;
+import org.jclouds.rest.internal.GeneratedHttpRequest;
+import org.jclouds.rest.internal.RestAnnotationProcessor;
+import org.jclouds.rest.internal.TransformerForRequest;
+
+import com.google.common.base.Function;
+import com.google.common.base.Splitter;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import com.google.inject.AbstractModule;
+import com.google.inject.Injector;
+import com.google.inject.name.Names;
+
+/**
+ * Sends many api calls in one {@code multipart/mixed} request to a Google batch endpoint, such as
+ * {@code https://www.googleapis.com/batch/storage/v1}. Each part of the response is handled as if its call had been
+ * made on its own: errors go through the api's error handler and {@code @Fallback}, and successes through the
+ * method's response parser.
+ *
+ * <p/>Build calls with {@link #request(Invocation, Invocation)}. The batch request is sent through the filters of its
+ * calls, such as authorization, so all calls in one batch must share the same filters, as calls on one api do.
+ *
+ * @see <a href="https://cloud.google.com/storage/docs/json_api/v1/how-tos/batch">Sending batch requests</a>
+ */
+@Singleton
+public final class BatchExecutor {
+
+   /** Google rejects batches of more calls than this; longer lists are split. */
+   public static final int MAX_CALLS_PER_BATCH = 100;
+
+   private static final String CRLF = "\r\n";
+
+   /** Value or error of one call in a batch. */
+   public static final class Result {
+      private final Object value;
+      private final Exception error;
+
+      private Result(@Nullable Object value, @Nullable Exception error) {
+         this.value = value;
+         this.error = error;
+      }
+
+      /** The parsed response, or the fallback value. Rethrows the error of a failed call. */
+      @Nullable public Object get() {
+         if (error != null) {
+            throw propagate(error);
+         }
+         return value;
+      }
+
+      @Nullable public Exception error() {
+         return error;
+      }
+   }
+
+   private final Injector injector;
+   private final RestAnnotationProcessor processor;
+   /** Processors of the apis returned by caller invocations, built once per caller rather than once per call. */
+   private final LoadingCache<Invocation, RestAnnotationProcessor> callerProcessors;
+   private final TransformerForRequest transformer;
+   private final DelegatingErrorHandler errorHandler;
+   private final HttpCommandExecutorService http;
+
+   @Inject BatchExecutor(Injector injector, RestAnnotationProcessor processor, TransformerForRequest transformer,
+         DelegatingErrorHandler errorHandler, HttpCommandExecutorService http) {
+      this.injector = injector;
+      this.processor = processor;
+      this.transformer = transformer;
+      this.errorHandler = errorHandler;
+      this.http = http;
+      this.callerProcessors = CacheBuilder.newBuilder().maximumSize(100)
+            .build(new CacheLoader<Invocation, RestAnnotationProcessor>() {
+               @Override public RestAnnotationProcessor load(final Invocation caller) {
+                  return BatchExecutor.this.injector.createChildInjector(new AbstractModule() {
+                     @Override protected void configure() {
+                        bind(Invocation.class).annotatedWith(Names.named("caller")).toInstance(caller);
+                     }
+                  }).getInstance(RestAnnotationProcessor.Caller.class);
+               }
+            });
+   }
+
+   /**
+    * Builds the request an api method would send, without sending it.
+    *
+    * @param caller the call that returned the api, such as {@code instancesInZone("us-central1-a")}, or null for a
+    *               top-level api.
+    */
+   public GeneratedHttpRequest request(@Nullable Invocation caller, Invocation invocation) {
+      if (caller == null) {
+         return processor.apply(invocation);
+      }
+      try {
+         return callerProcessors.get(caller).apply(invocation);
+      } catch (ExecutionException e) {
+         throw propagate(e.getCause());
+      }
+   }
+
+   /** Sends {@code calls} in as few batches as allowed, returning their results in the same order. */
+   public List<Result> execute(URI batchEndpoint, List<? extends HttpRequest> calls) {
+      checkNotNull(batchEndpoint, "batchEndpoint");
+      if (calls.isEmpty()) {
+         return Collections.emptyList();
+      }
+      List<HttpRequestFilter> filters = calls.get(0).getFilters();
+      for (HttpRequest call : calls) {
+         checkArgument(call.getFilters().equals(filters), "calls in a batch must share filters; %s has %s, not %s",
+               call.getRequestLine(), call.getFilters(), filters);
+      }
+      ImmutableList.Builder<Result> results = ImmutableList.builder();
+      for (List<? extends HttpRequest> batch : Lists.partition(calls, MAX_CALLS_PER_BATCH)) {
+         results.addAll(executeBatch(batchEndpoint, batch));
+      }
+      return results.build();
+   }
+
+   private List<Result> executeBatch(URI batchEndpoint, List<? extends HttpRequest> calls) {
+      String boundary = "batch_" + UUID.randomUUID().toString().replace("-", "");
+      HttpCommand command = new HttpCommand(toBatchRequest(batchEndpoint, calls, boundary));
+      HttpResponse response = http.invoke(command);
+      if (command.getException() != null) {
+         throw propagate(command.getException());
+      }
+      if (response.getStatusCode() >= 300) {
+         throw new HttpResponseException(command, response);
+      }
+
+      String contentType = response.getPayload().getContentMetadata().getContentType();
+      List<HttpResponse> parts;
+      try {
+         parts = parseParts(toStringAndClose(response.getPayload().openStream()), boundary(contentType), calls.size());
+      } catch (IOException e) {
+         throw propagate(e);
+      }
+
+      ImmutableList.Builder<Result> results = ImmutableList.builder();
+      for (int i = 0; i < calls.size(); i++) {
+         HttpResponse part = parts.get(i);
+         results.add(part != null ? result(calls.get(i), part)
+               : new Result(null, new IllegalStateException("no response for call " + i + " in batch")));
+      }
+      return results.build();
+   }
+
+   private Result result(HttpRequest call, HttpResponse response) {
+      try {
+         if (response.getStatusCode() >= 300) {
+            HttpCommand command = new HttpCommand(call);
+            errorHandler.handleError(command, response);
+            Exception error = command.getException() != null ? command.getException()
+                  : new HttpResponseException(command, response);
+            return new Result(fallback(call, error), null);
+         }
+         if (call instanceof GeneratedHttpRequest) {
+            Function<HttpResponse, ?> parser = transformer.apply(call);
+            return new Result(parser.apply(response), null);
+         }
+         return new Result(response, null);
+      } catch (Exception e) {
+         return new Result(null, e);
+      }
+   }
+
+   private Object fallback(HttpRequest call, Exception error) throws Exception {
+      if (call instanceof GeneratedHttpRequest) {
+         org.jclouds.rest.annotations.Fallback annotation = ((GeneratedHttpRequest) call).getInvocation()
+               .getInvokable().getAnnotation(org.jclouds.rest.annotations.Fallback.class);
+         if (annotation != null) {
+            Fallback<?> fallback = injector.getInstance(annotation.value());
+            return fallback.createOrPropagate(error);
+         }
+      }
+      throw error;
+   }
+
+   static HttpRequest toBatchRequest(URI batchEndpoint, List<? extends HttpRequest> calls, String boundary) {
+      ByteArrayOutputStream body = new ByteArrayOutputStream();
+      try {
+         for (int i = 0; i < calls.size(); i++) {
+            HttpRequest call = calls.get(i);
+            StringBuilder head = new StringBuilder();
+            head.append("--").append(boundary).append(CRLF);
+            head.append("Content-Type: application/http").append(CRLF);
+            head.append("Content-ID: <item").append(i).append('>').append(CRLF).append(CRLF);
+
+            URI endpoint = call.getEndpoint();
+            head.append(call.getMethod()).append(' ').append(endpoint.getRawPath());
+            if (endpoint.getRawQuery() != null) {
+               head.append('?').append(endpoint.getRawQuery());
+            }
+            head.append(" HTTP/1.1").append(CRLF);
+            for (Map.Entry<String, String> header : call.getHeaders().entries()) {
+               head.append(header.getKey()).append(": ").append(header.getValue()).append(CRLF);
+            }
+            Payload payload = call.getPayload();
+            if (payload != null && payload.getContentMetadata().getContentType() != null) {
+               head.append("Content-Type: ").append(payload.getContentMetadata().getContentType()).append(CRLF);
+            }
+            if (payload != null) {
+               head.append(CRLF);
+            }
+            body.write(head.toString().getBytes(UTF_8));
+            if (payload != null) {
+               // copied as is: a body need not be text
+               InputStream content = payload.openStream();
+               try {
+                  ByteStreams.copy(content, body);
+               } finally {
+                  closeQuietly(content);
+               }
+            }
+            body.write(CRLF.getBytes(UTF_8));
+         }
+         body.write(("--" + boundary + "--" + CRLF).getBytes(UTF_8));
+      } catch (IOException e) {
+         throw propagate(e);
+      }
+
+      Payload payload = Payloads.newByteArrayPayload(body.toByteArray());
+      payload.getContentMetadata().setContentType("multipart/mixed; boundary=" + boundary);
+      return HttpRequest.builder().method("POST").endpoint(batchEndpoint)
+            .filters(calls.get(0).getFilters())
+            .payload(payload).build();
+   }
+
+   static String boundary(@Nullable String contentType) {
+      checkArgument(contentType != null && contentType.startsWith("multipart/mixed"),
+            "expected a multipart/mixed response, not %s", contentType);
+      for (String parameter : Splitter.on(';').trimResults().split(contentType)) {
+         if (parameter.startsWith("boundary=")) {
+            return parameter.substring("boundary=".length()).replace("\"", "");
+         }
+      }
+      throw new IllegalArgumentException("no boundary in " + contentType);
+   }
+
+   /**
+    * Splits a batch response into one response per call. Parts are matched to calls by {@code Content-ID}, which
+    * Google sets to {@code <response-item...>}, or else by position.
+    */
+   static List<HttpResponse> parseParts(String body, String boundary, int callCount) {
+      HttpResponse[] responses = new HttpResponse[callCount];
+      int position = 0;
+      for (String part : Splitter.on("--" + boundary).split(body.replace(CRLF, "\n"))) {
+         if (part.startsWith("--")) {
+            break; // closing delimiter
+         }
+         int headersEnd = part.indexOf("\n\n");
+         if (part.trim().isEmpty() || headersEnd == -1) {
+            continue; // preamble
+         }
+         Integer index = null;
+         for (String header : Splitter.on('\n').omitEmptyStrings().split(part.substring(0, headersEnd))) {
+            if (header.toLowerCase().startsWith("content-id:")) {
+               index = itemIndex(header.substring("content-id:".length()).trim());
+            }
+         }
+         int i = index != null ? index : position;
+         if (i >= 0 && i < callCount) {
+            responses[i] = parseResponse(part.substring(headersEnd + 2));
+         }
+         position++;
+      }
+      return Lists.newArrayList(responses);
+   }
+
+   @Nullable private static Integer itemIndex(String contentId) {
+      String id = contentId.replace("<", "").replace(">", "");
+      int item = id.lastIndexOf("item");
+      try {
+         return item == -1 ? null : Integer.valueOf(id.substring(item + "item".length()));
+      } catch (NumberFormatException e) {
+         return null;
+      }
+   }
+
+   private static HttpResponse parseResponse(String http) {
+      int headersEnd = http.indexOf("\n\n");
+      String head = headersEnd == -1 ? http.trim() : http.substring(0, headersEnd);
+      String content = headersEnd == -1 ? "" : http.substring(headersEnd + 2);
+      if (content.endsWith("\n")) {
+         content = content.substring(0, content.length() - 1);
+      }
+
+      List<String> lines = Splitter.on('\n').omitEmptyStrings().splitToList(head);
+      List<String> status = Splitter.on(' ').limit(3).splitToList(lines.get(0));
+      ImmutableMultimap.Builder<String, String> headers = ImmutableMultimap.builder();
+      String contentType = null;
+      for (String line : lines.subList(1, lines.size())) {
+         int colon = line.indexOf(':');
+         if (colon == -1) {
+            continue;
+         }
+         String name = line.substring(0, colon).trim();
+         String value = line.substring(colon + 1).trim();
+         if (name.equalsIgnoreCase("Content-Type")) {
+            contentType = value;
+         } else if (!name.equalsIgnoreCase("Content-Length")) {
+            headers.put(name, value);
+         }
+      }
+
+      HttpResponse.Builder<?> response = HttpResponse.builder()
+            .statusCode(Integer.parseInt(status.get(1)))
+            .message(status.size() > 2 ? status.get(2) : "")
+            .headers(headers.build());
+      if (!content.isEmpty()) {
+         Payload payload = Payloads.newStringPayload(content);
+         payload.getContentMetadata().setContentType(contentType);
+         response.payload(payload);
+      }
+      return response.build();
+   }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.internal;
+
+import static com.google.common.net.HttpHeaders.CONTENT_ENCODING;
+import static org.jclouds.googlecloud.config.GoogleCloudProperties.COALESCE_GETS;
+import static org.jclouds.googlecloud.config.GoogleCloudProperties.GZIP_RESPONSES;
+import static org.jclouds.io.Payloads.newInputStreamPayload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.Proxy;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+
+import org.jclouds.googlecloud.config.ApiMetricsListener;
+import org.jclouds.googlecloud.filters.GzipRequestFilter;
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpUtils;
+import org.jclouds.http.IOExceptionRetryHandler;
+import org.jclouds.http.handlers.DelegatingErrorHandler;
+import org.jclouds.http.handlers.DelegatingRetryHandler;
+import org.jclouds.http.internal.HttpWire;
+import org.jclouds.http.internal.JavaUrlHttpCommandExecutorService;
+import org.jclouds.io.ContentMetadataCodec;
+import org.jclouds.io.MutableContentMetadata;
+import org.jclouds.io.Payload;
+import org.jclouds.io.payloads.BaseMutableContentMetadata;
+
+import com.google.common.base.Function;
+import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+import com.google.common.collect.MapMaker;
+import com.google.common.io.CountingInputStream;
+import com.google.inject.Inject;
+
+/**
+ * Default http driver of the Google apis.
+ *
+ * <ul>
+ * <li>Requests gzip compressed json responses and inflates them as they are read, so parsers never see compressed
+ * bytes. Responses to requests that chose their own {@code Accept-Encoding} are returned as sent. Disabled by setting
+ * {@link org.jclouds.googlecloud.config.GoogleCloudProperties#GZIP_RESPONSES} to false.</li>
+ * <li>Reports each call to {@link ApiMetricsListener}, under the name of its api method.</li>
+ * <li>Lets concurrent identical GET requests share one response through {@link SingleFlightGets}, once
+ * {@link org.jclouds.googlecloud.config.GoogleCloudProperties#COALESCE_GETS} is set to true.</li>
+ * </ul>
+ */
+@Singleton
+public final class GoogleCloudJavaUrlHttpCommandExecutorService extends JavaUrlHttpCommandExecutorService {
+
+   private final GzipRequestFilter gzip;
+   private final ApiMetricsListener metrics;
+   /** Connections that asked for gzip on behalf of their request, and so must inflate the response. */
+   private final Set<HttpURLConnection> gzipRequested = Collections.newSetFromMap(new MapMaker().weakKeys()
+         .<HttpURLConnection, Boolean>makeMap());
+
+   private final SingleFlightGets singleFlight;
+   private final SingleFlightGets.Call call = new SingleFlightGets.Call() {
+      @Override public HttpResponse invoke(HttpCommand command) {
+         return GoogleCloudJavaUrlHttpCommandExecutorService.super.invoke(command);
+      }
+   };
+
+   @Inject(optional = true) @Named(GZIP_RESPONSES)
+   private boolean enabled = true;
+
+   @Inject(optional = true) @Named(COALESCE_GETS)
+   private boolean coalesceGets = false;
+
+   @Inject GoogleCloudJavaUrlHttpCommandExecutorService(HttpUtils utils, ContentMetadataCodec contentMetadataCodec,
+         DelegatingRetryHandler retryHandler, IOExceptionRetryHandler ioRetryHandler,
+         DelegatingErrorHandler errorHandler, HttpWire wire, @Named("untrusted") HostnameVerifier verifier,
+         @Named("untrusted") Supplier<SSLContext> untrustedSSLContextProvider, Function<URI, Proxy> proxyForURI,
+         GzipRequestFilter gzip, ApiMetricsListener metrics) throws SecurityException, NoSuchFieldException {
+      super(utils, contentMetadataCodec, retryHandler, ioRetryHandler, errorHandler, wire, verifier,
+            untrustedSSLContextProvider, proxyForURI);
+      this.gzip = gzip;
+      this.metrics = metrics;
+      this.singleFlight = new SingleFlightGets(metrics);
+   }
+
+   @Override public HttpResponse invoke(HttpCommand command) {
+      String method = ApiMethods.nameOf(command.getCurrentRequest());
+      Long requestBytes = command.getCurrentRequest().getPayload() != null
+            ? command.getCurrentRequest().getPayload().getContentMetadata().getContentLength() : null;
+      long start = System.nanoTime();
+      HttpResponse response = null;
+      try {
+         response = coalesceGets ? singleFlight.invoke(command, call) : super.invoke(command);
+      } finally {
+         metrics.requestCompleted(method, response != null ? response.getStatusCode() : 0, System.nanoTime() - start,
+               requestBytes != null ? requestBytes : 0, command.getFailureCount());
+      }
+      Payload payload = response.getPayload();
+      if (payload == null) {
+         return response;
+      }
+      if (payload.isRepeatable()) {
+         // already in memory, as when coalesced: keep it repeatable and report its size
+         Long length = payload.getContentMetadata().getContentLength();
+         metrics.responseBytesRead(method, length != null ? length : 0);
+         return response;
+      }
+      // a stream can only be read once, so wrapping it loses nothing as long as the metadata is carried over
+      Payload counted;
+      try {
+         counted = newInputStreamPayload(new CountingResponseStream(payload.openStream(), method));
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      }
+      counted.setContentMetadata(BaseMutableContentMetadata.fromContentMetadata(payload.getContentMetadata()));
+      counted.setSensitive(payload.isSensitive());
+      return response.toBuilder().payload(counted).build();
+   }
+
+   @Override protected HttpURLConnection convert(HttpRequest request) throws IOException, InterruptedException {
+      if (!enabled || !gzip.appliesTo(request)) {
+         return super.convert(request);
+      }
+      HttpURLConnection connection = super.convert(gzip.filter(request));
+      gzipRequested.add(connection);
+      return connection;
+   }
+
+   @Override protected HttpResponse invoke(HttpURLConnection connection) throws IOException, InterruptedException {
+      boolean inflate = gzipRequested.remove(connection);
+      HttpResponse response = super.invoke(connection);
+      Payload payload = response.getPayload();
+      if (!inflate || payload == null || "HEAD".equals(connection.getRequestMethod())
+            || !"gzip".equalsIgnoreCase(payload.getContentMetadata().getContentEncoding())) {
+         return response;
+      }
+      // Inflate while the parser reads, instead of buffering the whole body.
+      Payload inflated = newInputStreamPayload(new GZIPInputStream(payload.openStream()));
+      MutableContentMetadata metadata = BaseMutableContentMetadata.fromContentMetadata(payload.getContentMetadata());
+      metadata.setContentEncoding(null);
+      metadata.setContentLength(null);
+      inflated.setContentMetadata(metadata);
+      return response.toBuilder().removeHeader(CONTENT_ENCODING).payload(inflated).build();
+   }
+
+   /** Reports the bytes read from a response body when it is closed. */
+   private final class CountingResponseStream extends CountingInputStream {
+      private final String method;
+      private final AtomicBoolean closed = new AtomicBoolean();
+
+      CountingResponseStream(InputStream in, String method) {
+         super(in);
+         this.method = method;
+      }
+
+      @Override public void close() throws IOException {
+         try {
+            super.close();
+         } finally {
+            if (closed.compareAndSet(false, true)) {
+               metrics.responseBytesRead(method, getCount());
+            }
+         }
+      }
+   }
+}
@@ -17,20 +17,34 @@
 package org.jclouds.googlecloud.internal;
 
 import static com.google.common.base.Predicates.instanceOf;
+import static com.google.common.base.Throwables.propagate;
 import static com.google.common.collect.Iterables.tryFind;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.jclouds.googlecloud.domain.ListPage;
 import org.jclouds.googlecloud.options.ListOptions;
 import org.jclouds.javax.annotation.Nullable;
 
+import com.google.common.base.Function;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 public final class ListPages {
 
+   /**
+    * Lazily concatenates the items of each page. Single pass: each page is released once iterated, so a large listing
+    * is never held in memory, and the result yields nothing when iterated again. Copy it if it must be re-read.
+    */
    public static <T> Iterable<T> concat(final Iterator<ListPage<T>> input) {
       return new Iterable<T>() {
          @Override public Iterator<T> iterator() {
@@ -43,6 +57,67 @@ public final class ListPages {
       };
    }
 
+   /**
+    * Applies {@code function} to every item, one task per page on {@code executor}, while the following pages are
+    * still being fetched. Results are in listing order, in a list sized from the pages.
+    *
+    * <p/>If a page or item fails, tasks not yet finished and any {@link #close(Iterator) prefetches} are cancelled
+    * before the failure is rethrown.
+    */
+   public static <T, R> List<R> transformInParallel(Iterator<ListPage<T>> pages,
+         final Function<? super T, ? extends R> function, ListeningExecutorService executor) {
+      List<ListenableFuture<List<R>>> tasks = Lists.newArrayList();
+      int size = 0;
+      try {
+         while (pages.hasNext()) {
+            final ListPage<T> page = pages.next();
+            size += page.size();
+            tasks.add(executor.submit(new Callable<List<R>>() {
+               @Override public List<R> call() {
+                  List<R> results = new ArrayList<R>(page.size());
+                  for (T item : page) {
+                     results.add(function.apply(item));
+                  }
+                  return results;
+               }
+            }));
+         }
+         List<R> results = new ArrayList<R>(size);
+         for (List<R> pageResults : Futures.allAsList(tasks).get()) {
+            results.addAll(pageResults);
+         }
+         return results;
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         cancel(pages, tasks);
+         throw propagate(e);
+      } catch (ExecutionException e) {
+         cancel(pages, tasks);
+         throw propagate(e.getCause());
+      } catch (RuntimeException e) {
+         cancel(pages, tasks);
+         throw e;
+      }
+   }
+
+   private static void cancel(Iterator<?> pages, List<? extends Future<?>> tasks) {
+      close(pages);
+      for (Future<?> task : tasks) {
+         task.cancel(true);
+      }
+   }
+
+   /**
+    * Stops fetching pages ahead of the consumer when {@code pages} came from a listing with
+    * {@link org.jclouds.googlecloud.config.GoogleCloudProperties#PAGE_PREFETCH_DEPTH prefetch} enabled. Call this
+    * when abandoning a listing part way through.
+    */
+   public static void close(Iterator<?> pages) {
+      if (pages instanceof PrefetchingIterator) {
+         ((PrefetchingIterator<?>) pages).close();
+      }
+   }
+
    /** Value of {@code <O>} is a final class in the cloud provider. Rather than playing with reflection, we trust it. */
    @Nullable static <O extends ListOptions> O listOptions(List<Object> args) {
       return (O) tryFind(args, instanceOf(ListOptions.class)).orNull();
@@ -52,6 +127,18 @@ public final class ListPages {
       return input.isEmpty() ? Iterators.<ListPage<T>>emptyIterator() : Iterators.singletonIterator(input);
    }
 
+   /**
+    * Iterates from {@code initial} onwards, fetching following pages on {@code executor} ahead of the consumer when
+    * {@code prefetchDepth} is positive, or on the calling thread otherwise.
+    */
+   static <T> Iterator<ListPage<T>> advancing(ListPage<T> initial, Function<String, ListPage<T>> tokenToNext,
+         int prefetchDepth, @Nullable ListeningExecutorService executor) {
+      if (prefetchDepth > 0 && executor != null) {
+         return new PrefetchingIterator<T>(initial, tokenToNext, executor, prefetchDepth);
+      }
+      return new AdvancingIterator<T>(initial, tokenToNext);
+   }
+
    private ListPages() {
    }
 }
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+
+import org.jclouds.googlecloud.domain.ListPage;
+
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Like {@link AdvancingIterator}, except the request for the next page is submitted to an executor as soon as the
+ * page before it arrives, keeping up to {@code depth} pages in flight or buffered ahead of the consumer.
+ *
+ * <p/>A {@code null} page in the pipeline marks the end of data. {@link #close() Closing} cancels pages not yet
+ * consumed, and may be called from another thread than the one iterating.
+ */
+final class PrefetchingIterator<T> extends AbstractIterator<ListPage<T>> implements Closeable {
+
+   private final Deque<ListenableFuture<ListPage<T>>> pending =
+         new ConcurrentLinkedDeque<ListenableFuture<ListPage<T>>>();
+   private final ListPage<T> initial;
+   private final int depth;
+   private final AsyncFunction<ListPage<T>, ListPage<T>> fetchNext;
+   private ListenableFuture<ListPage<T>> tail;
+   private boolean unread = true;
+   private volatile boolean closed;
+
+   PrefetchingIterator(ListPage<T> initial, final Function<String, ListPage<T>> tokenToNext,
+         final ListeningExecutorService executor, int depth) {
+      checkArgument(depth > 0, "depth must be positive");
+      checkNotNull(tokenToNext, "tokenToNext");
+      checkNotNull(executor, "executor");
+      this.initial = checkNotNull(initial, "initial");
+      this.depth = depth;
+      this.tail = Futures.immediateFuture(initial);
+      this.fetchNext = new AsyncFunction<ListPage<T>, ListPage<T>>() {
+         @Override public ListenableFuture<ListPage<T>> apply(ListPage<T> previous) {
+            if (previous == null || previous.nextPageToken() == null) {
+               return Futures.immediateFuture(null);
+            }
+            final String token = previous.nextPageToken();
+            return executor.submit(new Callable<ListPage<T>>() {
+               @Override public ListPage<T> call() {
+                  return tokenToNext.apply(token);
+               }
+            });
+         }
+      };
+   }
+
+   @Override protected ListPage<T> computeNext() {
+      if (closed) {
+         return endOfData();
+      }
+      if (unread) {
+         unread = false;
+         fill();
+         return initial;
+      }
+      ListenableFuture<ListPage<T>> head = pending.poll();
+      ListPage<T> page;
+      try {
+         page = head != null ? getUninterruptibly(head) : null;
+      } catch (CancellationException e) {
+         if (closed) {
+            return endOfData();
+         }
+         throw e;
+      }
+      if (page == null) {
+         return endOfData();
+      }
+      fill();
+      return page;
+   }
+
+   /** Cancels requests for pages not yet consumed and ends iteration. */
+   @Override public void close() {
+      closed = true;
+      cancelPending();
+   }
+
+   /**
+    * Chains requests onto the last scheduled page until {@code depth} pages are pending. Only called by the iterating
+    * thread. A request added while {@link #close()} runs on another thread is cancelled by whichever sees it last.
+    */
+   private void fill() {
+      while (!closed && pending.size() < depth) {
+         tail = Futures.transform(tail, fetchNext);
+         pending.add(tail);
+      }
+      if (closed) {
+         cancelPending();
+      }
+   }
+
+   private void cancelPending() {
+      for (ListenableFuture<ListPage<T>> future = pending.poll(); future != null; future = pending.poll()) {
+         future.cancel(false);
+      }
+   }
+
+   /** Rethrows the failure of a page request as if it had been made on the calling thread. */
+   private static <T> ListPage<T> getUninterruptibly(ListenableFuture<ListPage<T>> future) {
+      try {
+         return Uninterruptibles.getUninterruptibly(future);
+      } catch (ExecutionException e) {
+         throw Throwables.propagate(e.getCause());
+      }
+   }
+}
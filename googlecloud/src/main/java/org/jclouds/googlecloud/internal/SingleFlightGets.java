@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.internal;
+
+import static org.jclouds.io.Payloads.newByteArrayPayload;
+import static org.jclouds.io.Payloads.newInputStreamPayload;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import org.jclouds.googlecloud.config.ApiMetricsListener;
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.Payload;
+import org.jclouds.io.payloads.BaseMutableContentMetadata;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Lets concurrent identical GET requests share one call. The first caller makes the request; callers arriving while
+ * it is in flight wait for it and get a copy of its response, or its exception, instead of calling the api again.
+ *
+ * <p/>Requests are identical when their endpoint and headers are, before filters run. Filters authorize every request
+ * of a context with the same credentials, so they also share an auth scope. Only response bodies up to
+ * {@link #MAX_SHARED_BYTES} are shared; waiting callers of a larger response, such as an object download, make their
+ * own request.
+ */
+final class SingleFlightGets {
+
+   /** Largest response body that is buffered so it can be shared. */
+   @VisibleForTesting static final int MAX_SHARED_BYTES = 1024 * 1024;
+
+   /** Makes the actual request. */
+   interface Call {
+      HttpResponse invoke(HttpCommand command);
+   }
+
+   /** What a call in flight completes with: a body that can be copied to each waiting caller, or null if too big. */
+   private static final class Shared {
+      private final HttpResponse response;
+      private final byte[] body;
+
+      Shared(HttpResponse response, byte[] body) {
+         this.response = response;
+         this.body = body;
+      }
+
+      HttpResponse copy() {
+         if (response.getPayload() == null) {
+            return response;
+         }
+         Payload payload = newByteArrayPayload(body);
+         payload.setContentMetadata(BaseMutableContentMetadata.fromContentMetadata(response.getPayload()
+               .getContentMetadata()));
+         payload.getContentMetadata().setContentLength((long) body.length);
+         return response.toBuilder().payload(payload).build();
+      }
+   }
+
+   private final ConcurrentMap<List<Object>, SettableFuture<Shared>> inFlight =
+         new ConcurrentHashMap<List<Object>, SettableFuture<Shared>>();
+   private final ApiMetricsListener metrics;
+
+   SingleFlightGets(ApiMetricsListener metrics) {
+      this.metrics = metrics;
+   }
+
+   HttpResponse invoke(HttpCommand command, Call call) {
+      HttpRequest request = command.getCurrentRequest();
+      if (!"GET".equals(request.getMethod()) || request.getPayload() != null) {
+         return call.invoke(command);
+      }
+      List<Object> key = ImmutableList.<Object>of(request.getEndpoint(), request.getHeaders());
+      SettableFuture<Shared> flight = SettableFuture.create();
+      SettableFuture<Shared> existing = inFlight.putIfAbsent(key, flight);
+      if (existing != null) {
+         return join(command, call, existing);
+      }
+      try {
+         HttpResponse response = call.invoke(command);
+         Shared shared = share(response);
+         flight.set(shared);
+         return shared != null ? shared.copy() : response;
+      } catch (RuntimeException e) {
+         flight.setException(e);
+         throw e;
+      } catch (Error e) {
+         flight.setException(e);
+         throw e;
+      } finally {
+         inFlight.remove(key, flight);
+      }
+   }
+
+   private HttpResponse join(HttpCommand command, Call call, SettableFuture<Shared> flight) {
+      Shared shared;
+      try {
+         shared = Uninterruptibles.getUninterruptibly(flight);
+      } catch (ExecutionException e) {
+         metrics.requestCoalesced(ApiMethods.nameOf(command.getCurrentRequest()));
+         throw Throwables.propagate(e.getCause());
+      }
+      if (shared == null) {
+         return call.invoke(command);
+      }
+      metrics.requestCoalesced(ApiMethods.nameOf(command.getCurrentRequest()));
+      return shared.copy();
+   }
+
+   /**
+    * Buffers the body of {@code response} so it can be copied, or returns null after restoring a body too big to
+    * share, whose bytes read so far are replayed ahead of the rest of the stream.
+    */
+   private static Shared share(HttpResponse response) {
+      Payload payload = response.getPayload();
+      if (payload == null) {
+         return new Shared(response, null);
+      }
+      Long length = payload.getContentMetadata().getContentLength();
+      if (length != null && length > MAX_SHARED_BYTES) {
+         return null;
+      }
+      try {
+         InputStream in = payload.openStream();
+         byte[] head = ByteStreams.toByteArray(ByteStreams.limit(in, MAX_SHARED_BYTES + 1));
+         if (head.length <= MAX_SHARED_BYTES) {
+            in.close();
+            return new Shared(response, head);
+         }
+         Payload restored = newInputStreamPayload(new SequenceInputStream(new ByteArrayInputStream(head), in));
+         restored.setContentMetadata(BaseMutableContentMetadata.fromContentMetadata(payload.getContentMetadata()));
+         response.setPayload(restored);
+         return null;
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      }
+   }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.options;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.jclouds.http.options.BaseHttpRequestOptions;
+
+/**
+ * Requests a partial response from a google cloud product, which can be much smaller and faster to parse than the
+ * full resource. Fields left out of the response are null or empty in the domain object.
+ *
+ * <p/>Only methods returning a type that tolerates missing fields accept a selector, such as
+ * {@code InstanceApi.get(String, FieldsOptions)} and {@code InstanceListOptions.fields} in compute, and
+ * {@code GetObjectOptions.fields} and {@code ListObjectOptions.fields} in storage. Most other domain types require their fields, and would fail to
+ * deserialize a projected response.
+ *
+ * @see <a href="https://cloud.google.com/compute/docs/api/how-tos/performance#partial">Partial response</a>
+ */
+public final class FieldsOptions extends BaseHttpRequestOptions {
+
+   /** Sets the partial response selector, such as {@code name,status,networkInterfaces(networkIP)}. */
+   public FieldsOptions fields(String fields) {
+      this.queryParameters.put("fields", checkNotNull(fields, "fields"));
+      return this;
+   }
+
+   public static final class Builder {
+
+      /**
+       * @see FieldsOptions#fields(String)
+       */
+      public static FieldsOptions fields(String fields) {
+         return new FieldsOptions().fields(fields);
+      }
+
+      private Builder() {
+      }
+   }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.config;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import org.jclouds.googlecloud.config.InMemoryApiMetricsListener.MethodMetrics;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+@Test(groups = "unit", testName = "InMemoryApiMetricsListenerTest")
+public class InMemoryApiMetricsListenerTest {
+
+   public void recordsPerMethod() {
+      InMemoryApiMetricsListener listener = new InMemoryApiMetricsListener();
+      listener.requestCompleted("Instances:get", 200, MILLISECONDS.toNanos(10), 0, 0);
+      listener.requestCompleted("Instances:get", 404, MILLISECONDS.toNanos(30), 0, 0);
+      listener.requestCompleted("Instances:get", 0, MILLISECONDS.toNanos(20), 0, 2);
+      listener.responseBytesRead("Instances:get", 1024);
+      listener.requestCompleted("Object:simpleUpload", 200, MILLISECONDS.toNanos(5), 4096, 1);
+
+      MethodMetrics get = listener.get("Instances:get");
+      assertEquals(get.latency().count(), 3);
+      assertEquals(get.latency().sum(), MILLISECONDS.toNanos(60));
+      assertEquals(get.latency().max(), MILLISECONDS.toNanos(30));
+      assertEquals(get.statusCodes(), ImmutableMap.of(0, 1L, 200, 1L, 404, 1L));
+      assertEquals(get.responseBytes(), 1024);
+      assertEquals(get.retries(), 2);
+
+      MethodMetrics upload = listener.get("Object:simpleUpload");
+      assertEquals(upload.requestBytes(), 4096);
+      assertEquals(upload.retries(), 1);
+      assertEquals(listener.methods().keySet().size(), 2);
+      assertNull(listener.get("Operations:get"));
+   }
+
+   public void dumpListsBusiestMethodFirst() {
+      InMemoryApiMetricsListener listener = new InMemoryApiMetricsListener();
+      listener.requestCompleted("Operations:get", 200, MILLISECONDS.toNanos(5), 0, 0);
+      listener.requestCompleted("Instances:insert", 200, MILLISECONDS.toNanos(500), 512, 0);
+
+      String[] lines = listener.dump().split("\n");
+      assertEquals(lines.length, 3);
+      assertTrue(lines[0].startsWith("method"), lines[0]);
+      assertTrue(lines[1].startsWith("Instances:insert"), lines[1]);
+      assertTrue(lines[2].startsWith("Operations:get"), lines[2]);
+      assertTrue(lines[1].endsWith("{200=1}"), lines[1]);
+
+      listener.reset();
+      assertTrue(listener.methods().isEmpty());
+   }
+}
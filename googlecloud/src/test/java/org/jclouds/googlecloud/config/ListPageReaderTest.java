@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.config;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.io.StringReader;
+
+import org.jclouds.googlecloud.domain.ListPage;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+
+@Test(groups = "unit", testName = "ListPageReaderTest")
+public class ListPageReaderTest {
+
+   private final Gson gson = new GsonBuilder().registerTypeAdapterFactory(new ListPageAdapterFactory()).create();
+
+   private ListPageReader<String> reader(String json) {
+      JsonReader in = new JsonReader(new StringReader(json));
+      return ListPageAdapterFactory.streaming(gson, TypeToken.get(String.class), in);
+   }
+
+   public void readsItemsArray() {
+      ListPageReader<String> reader = reader("{\"kind\":\"list\",\"items\":[\"a\",null,\"b\"],"
+            + "\"nextPageToken\":\"t\"}");
+
+      assertEquals(ImmutableList.copyOf(reader), ImmutableList.of("a", "b"));
+      assertEquals(reader.nextPageToken(), "t");
+   }
+
+   public void nextPageTokenBeforeItems() {
+      ListPageReader<String> reader = reader("{\"nextPageToken\":\"t\",\"items\":[\"a\"]}");
+
+      assertEquals(ImmutableList.copyOf(reader), ImmutableList.of("a"));
+      assertEquals(reader.nextPageToken(), "t");
+   }
+
+   public void readsAggregatedItemsAcrossScopes() {
+      ListPageReader<String> reader = reader("{\"items\":{"
+            + "\"zones/a\":{\"instances\":[\"1\",\"2\"]},"
+            + "\"zones/b\":{\"warning\":{\"code\":\"NO_RESULTS_ON_PAGE\"}},"
+            + "\"zones/c\":{\"instances\":[\"3\"]}}}");
+
+      assertEquals(reader.next(), "1");
+      assertEquals(reader.next(), "2");
+      assertEquals(reader.next(), "3");
+      assertEquals(reader.hasNext(), false);
+      assertNull(reader.nextPageToken());
+   }
+
+   public void emptyResponse() {
+      ListPageReader<String> reader = reader("{\"kind\":\"list\"}");
+
+      assertEquals(reader.hasNext(), false);
+      assertNull(reader.nextPageToken());
+   }
+
+   public void adapterMatchesStreamingReader() {
+      String json = "{\"items\":{\"zones/a\":{\"disks\":[\"1\"]},\"zones/b\":{\"disks\":[\"2\"]}},"
+            + "\"nextPageToken\":\"t\"}";
+      ListPage<String> page = gson.fromJson(json, new TypeToken<ListPage<String>>() { }.getType());
+
+      assertEquals(page, ImmutableList.of("1", "2"));
+      assertEquals(page.nextPageToken(), "t");
+   }
+}
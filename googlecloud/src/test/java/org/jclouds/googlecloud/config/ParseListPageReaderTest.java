@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.config;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.Payloads;
+import org.testng.annotations.Test;
+
+import com.google.common.io.CountingInputStream;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+@Test(groups = "unit", testName = "ParseListPageReaderTest")
+public class ParseListPageReaderTest {
+
+   private static final class ParseStrings extends ParseListPageReader<String> {
+      ParseStrings(Gson gson) {
+         super(gson, TypeToken.get(String.class));
+      }
+   }
+
+   private final Gson gson = new GsonBuilder().registerTypeAdapterFactory(new ListPageAdapterFactory()).create();
+
+   public void readsItemsAsTheyAreIterated() throws Exception {
+      StringBuilder json = new StringBuilder("{\"kind\":\"list\",\"items\":{\"zones/a\":{\"instances\":[");
+      for (int i = 0; i < 10000; i++) {
+         json.append(i == 0 ? "" : ",").append("\"instance-").append(i).append('"');
+      }
+      json.append("]}},\"nextPageToken\":\"t\"}");
+      byte[] bytes = json.toString().getBytes(UTF_8);
+      CountingInputStream in = new CountingInputStream(new ByteArrayInputStream(bytes));
+      HttpResponse response = HttpResponse.builder().statusCode(200).payload(Payloads.newInputStreamPayload(in))
+            .build();
+
+      ListPageReader<String> reader = new ParseStrings(gson).apply(response);
+      try {
+         assertEquals(reader.next(), "instance-0");
+         assertEquals(reader.next(), "instance-1");
+         // only the reader's buffer was consumed, not the rest of the page
+         assertTrue(in.getCount() < bytes.length / 10, in.getCount() + " of " + bytes.length + " bytes read");
+
+         int count = 2;
+         while (reader.hasNext()) {
+            reader.next();
+            count++;
+         }
+         assertEquals(count, 10000);
+         assertEquals(reader.nextPageToken(), "t");
+         assertEquals(in.getCount(), bytes.length);
+      } finally {
+         reader.close();
+      }
+   }
+}
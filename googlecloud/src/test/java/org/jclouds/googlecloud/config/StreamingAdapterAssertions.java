@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.config;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.fail;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.util.Date;
+import java.util.Map;
+
+import org.jclouds.json.SerializedNames;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Checks hand-written streaming adapters against the {@code @SerializedNames} factory method of their type, so that a
+ * field added to or reordered in the factory fails the build until the adapter follows.
+ */
+public final class StreamingAdapterAssertions {
+
+   /**
+    * Parses a document holding every field named by the factory of {@code type} with both gson instances, and fails
+    * unless the results are equal. Simple fields get a value distinct from every other field, so that arguments passed
+    * in the wrong position are noticed. Other fields are taken from {@code samples}.
+    *
+    * @param streaming gson with the streaming adapter for {@code type}
+    * @param reflective gson that deserializes {@code type} through its {@code @SerializedNames} factory
+    */
+   public static <T> void assertMatchesSerializedNames(Gson streaming, Gson reflective, Class<T> type,
+         JsonObject samples) {
+      assertNotEquals(streaming.getAdapter(type).getClass(), reflective.getAdapter(type).getClass(),
+            "no streaming adapter for " + type.getSimpleName());
+      Method factory = factory(type);
+      String[] names = factory.getAnnotation(SerializedNames.class).value();
+      Type[] parameters = factory.getGenericParameterTypes();
+      assertEquals(names.length, parameters.length, factory.toString());
+
+      JsonObject json = new JsonObject();
+      for (int i = 0; i < names.length; i++) {
+         JsonElement value = distinctValue(parameters[i], i);
+         if (value == null) {
+            value = samples.get(names[i]);
+         }
+         if (value == null) {
+            fail("no sample for " + type.getSimpleName() + "." + names[i] + "; add one so the adapter is checked");
+         }
+         json.add(names[i], value);
+      }
+
+      T expected = reflective.fromJson(json, type);
+      assertNotNull(expected);
+      assertEquals(streaming.fromJson(json, type), expected, json.toString());
+   }
+
+   private static Method factory(Class<?> type) {
+      for (Method method : type.getDeclaredMethods()) {
+         if (Modifier.isStatic(method.getModifiers()) && method.isAnnotationPresent(SerializedNames.class)) {
+            return method;
+         }
+      }
+      throw new AssertionError("no @SerializedNames factory on " + type);
+   }
+
+   /** A value unlike that of any other field, or null when the type is not simple. */
+   private static JsonElement distinctValue(Type type, int index) {
+      if (type == String.class) {
+         return new JsonPrimitive("value-" + index);
+      } else if (type == URI.class) {
+         return new JsonPrimitive("https://www.googleapis.com/field/" + index);
+      } else if (type == Date.class) {
+         return new JsonPrimitive(String.format("2014-%02d-%02dT00:00:00.000Z", index / 28 + 1, index % 28 + 1));
+      } else if (type == int.class || type == Integer.class || type == long.class || type == Long.class) {
+         return new JsonPrimitive(1000 + index);
+      } else if (type == boolean.class || type == Boolean.class) {
+         return new JsonPrimitive(true);
+      } else if (type instanceof Class && ((Class<?>) type).isEnum()) {
+         Object[] constants = ((Class<?>) type).getEnumConstants();
+         return new JsonPrimitive(((Enum<?>) constants[index % constants.length]).name());
+      } else if (type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() == Map.class
+            && ((ParameterizedType) type).getActualTypeArguments()[1] == String.class) {
+         JsonObject map = new JsonObject();
+         map.addProperty("key-" + index, "value-" + index);
+         return map;
+      }
+      return null;
+   }
+
+   private StreamingAdapterAssertions() {
+   }
+}
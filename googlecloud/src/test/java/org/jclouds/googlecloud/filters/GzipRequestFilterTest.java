@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.filters;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.internal.JavaUrlHttpCommandExecutorService;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "GzipRequestFilterTest")
+public class GzipRequestFilterTest {
+
+   private final GzipRequestFilter filter = new GzipRequestFilter();
+   private final HttpRequest request = HttpRequest.builder().method("GET")
+         .endpoint("https://www.googleapis.com/compute/v1/projects/party/zones").build();
+
+   public void defaultUserAgentIsTagged() {
+      HttpRequest filtered = filter.filter(request);
+
+      assertEquals(filtered.getFirstHeaderOrNull("Accept-Encoding"), "gzip");
+      assertEquals(filtered.getFirstHeaderOrNull("User-Agent"),
+            JavaUrlHttpCommandExecutorService.DEFAULT_USER_AGENT + " (gzip)");
+   }
+
+   public void existingUserAgentIsTaggedOnce() {
+      HttpRequest filtered = filter.filter(filter.filter(request.toBuilder().addHeader("User-Agent", "foo").build()));
+
+      assertEquals(filtered.getHeaders().get("User-Agent").size(), 1);
+      assertEquals(filtered.getFirstHeaderOrNull("User-Agent"), "foo (gzip)");
+   }
+
+   public void mediaDownloadsAreNotCompressed() {
+      HttpRequest media = HttpRequest.builder().method("GET")
+            .endpoint("https://www.googleapis.com/storage/v1/b/bucket/o/object?alt=media").build();
+      HttpRequest download = HttpRequest.builder().method("GET")
+            .endpoint("https://www.googleapis.com/download/storage/v1/b/bucket/o/object?generation=1").build();
+
+      assertSame(filter.filter(media), media);
+      assertSame(filter.filter(download), download);
+   }
+
+   public void userAcceptEncodingIsKept() {
+      HttpRequest identity = request.toBuilder().addHeader("Accept-Encoding", "identity").build();
+
+      assertSame(filter.filter(identity), identity);
+   }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.googlecloud.handlers.RateLimitedResponses;
+import org.jclouds.http.HttpRequest;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Ticker;
+
+@Test(groups = "unit", testName = "AdaptiveRateLimiterTest")
+public class AdaptiveRateLimiterTest {
+
+   private static final class FakeTicker extends Ticker {
+      long nanos;
+
+      @Override public long read() {
+         return nanos;
+      }
+
+      void advance(long seconds) {
+         nanos += TimeUnit.SECONDS.toNanos(seconds);
+      }
+   }
+
+   public void unlimitedUntilRateLimited() {
+      AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(new FakeTicker());
+      limiter.acquire("p/Instances:list");
+      assertNull(limiter.permitsPerSecond("p/Instances:list"));
+      assertEquals(limiter.rateLimitedResponses(), 0);
+   }
+
+   public void halvesAndRecovers() {
+      FakeTicker ticker = new FakeTicker();
+      AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(ticker);
+      limiter.maxRate = 12;
+
+      limiter.onRateLimited("p/Instances:list");
+      assertEquals(limiter.permitsPerSecond("p/Instances:list"), 10.0);
+      limiter.onRateLimited("p/Instances:list");
+      assertEquals(limiter.permitsPerSecond("p/Instances:list"), 5.0);
+      assertEquals(limiter.rateLimitedResponses(), 2);
+
+      ticker.advance(3);
+      assertEquals(limiter.permitsPerSecond("p/Instances:list"), 8.0);
+
+      ticker.advance(10);
+      limiter.acquire("p/Instances:list");
+      assertNull(limiter.permitsPerSecond("p/Instances:list"));
+   }
+
+   public void rateHasAFloor() {
+      AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(new FakeTicker());
+      for (int i = 0; i < 20; i++) {
+         limiter.onRateLimited("p/Instances:insert");
+      }
+      assertEquals(limiter.permitsPerSecond("p/Instances:insert"), AdaptiveRateLimiter.MIN_RATE);
+      assertEquals(limiter.permitsPerSecond().keySet().iterator().next(), "p/Instances:insert");
+   }
+
+   public void keyUsesProjectFromPath() {
+      HttpRequest request = HttpRequest.builder().method("GET")
+            .endpoint(URI.create("https://www.googleapis.com/compute/v1/projects/party/zones/us-central1-a/instances"))
+            .build();
+      assertEquals(AdaptiveRateLimiter.key(request), "party/GET");
+   }
+
+   public void recognizesRateLimitedResponses() {
+      assertEquals(RateLimitedResponses.isRateLimited(429, null), true);
+      assertEquals(RateLimitedResponses.isRateLimited(403, "{\"error\":{\"errors\":[{\"domain\":\"usageLimits\","
+            + "\"reason\":\"userRateLimitExceeded\"}],\"code\":403}}"), true);
+      assertEquals(RateLimitedResponses.isRateLimited(403, "{\"error\":{\"errors\":[{\"reason\":\"forbidden\"}]}}"),
+            false);
+   }
+}
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.internal;
+
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.jclouds.reflect.Reflection2.method;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.inject.Named;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.Fallbacks.NullOnNotFoundOr404;
+import org.jclouds.concurrent.config.ExecutorServiceModule;
+import org.jclouds.googlecloud.internal.BatchExecutor.Result;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpRequestFilter;
+import org.jclouds.http.functions.ReturnStringIf2xx;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.reflect.Invocation;
+import org.jclouds.rest.AnonymousHttpApiMetadata;
+import org.jclouds.rest.annotations.Fallback;
+import org.jclouds.rest.annotations.ResponseParser;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteStreams;
+import com.google.common.reflect.Invokable;
+import com.google.inject.Module;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+@Test(groups = "unit", testName = "BatchExecutorMockTest", singleThreaded = true)
+public class BatchExecutorMockTest {
+
+   public interface ThingApi extends Closeable {
+      @Named("Things:get")
+      @GET
+      @Path("/things/{thing}")
+      @Fallback(NullOnNotFoundOr404.class)
+      @ResponseParser(ReturnStringIf2xx.class)
+      @Nullable
+      String get(@PathParam("thing") String thing);
+   }
+
+   private MockWebServer server;
+   private BatchExecutor batch;
+   private Invokable<?, ?> get;
+
+   @BeforeMethod
+   public void start() throws Exception {
+      server = new MockWebServer();
+      server.play();
+      batch = ContextBuilder.newBuilder(AnonymousHttpApiMetadata.forApi(ThingApi.class))
+            .endpoint(server.getUrl("").toString())
+            .modules(ImmutableSet.<Module>of(new ExecutorServiceModule(sameThreadExecutor())))
+            .buildInjector().getInstance(BatchExecutor.class);
+      get = method(ThingApi.class, "get", String.class);
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void stop() throws Exception {
+      server.shutdown();
+   }
+
+   private Invocation get(String thing) {
+      return Invocation.create(get, ImmutableList.<Object>of(thing));
+   }
+
+   public void sendsCallsInOneRequestAndParsesEachPart() throws Exception {
+      // parts are deliberately out of order
+      server.enqueue(new MockResponse().addHeader("Content-Type", "multipart/mixed; boundary=batch_abc").setBody(
+            "--batch_abc\r\n"
+            + "Content-Type: application/http\r\n"
+            + "Content-ID: <response-item1>\r\n"
+            + "\r\n"
+            + "HTTP/1.1 404 Not Found\r\n"
+            + "Content-Type: application/json\r\n"
+            + "\r\n"
+            + "{\"error\":{\"code\":404,\"message\":\"Not Found\"}}\r\n"
+            + "--batch_abc\r\n"
+            + "Content-Type: application/http\r\n"
+            + "Content-ID: <response-item0>\r\n"
+            + "\r\n"
+            + "HTTP/1.1 200 OK\r\n"
+            + "Content-Type: text/plain\r\n"
+            + "\r\n"
+            + "foo\r\n"
+            + "--batch_abc--\r\n"));
+
+      List<Result> results = batch.execute(URI.create(server.getUrl("/batch").toString()),
+            ImmutableList.of(batch.request(null, get("foo")), batch.request(null, get("missing"))));
+
+      assertEquals(results.size(), 2);
+      assertEquals(results.get(0).get(), "foo");
+      assertNull(results.get(1).get()); // NullOnNotFoundOr404
+
+      assertEquals(server.getRequestCount(), 1);
+      RecordedRequest request = server.takeRequest();
+      assertEquals(request.getMethod(), "POST");
+      assertEquals(request.getPath(), "/batch");
+      assertTrue(request.getHeader("Content-Type").startsWith("multipart/mixed; boundary=batch_"));
+      String body = new String(request.getBody(), Charsets.UTF_8);
+      assertTrue(body.contains("Content-ID: <item0>\r\n\r\nGET /things/foo HTTP/1.1\r\n"), body);
+      assertTrue(body.contains("Content-ID: <item1>\r\n\r\nGET /things/missing HTTP/1.1\r\n"), body);
+   }
+
+   public void failedCallWithoutFallbackIsReportedInItsResult() throws Exception {
+      server.enqueue(new MockResponse().addHeader("Content-Type", "multipart/mixed; boundary=\"b\"").setBody(
+            "--b\r\n"
+            + "Content-Type: application/http\r\n"
+            + "\r\n"
+            + "HTTP/1.1 500 Internal Server Error\r\n"
+            + "\r\n"
+            + "--b\r\n"
+            + "Content-Type: application/http\r\n"
+            + "\r\n"
+            + "HTTP/1.1 200 OK\r\n"
+            + "\r\n"
+            + "bar\r\n"
+            + "--b--\r\n"));
+
+      List<Result> results = batch.execute(URI.create(server.getUrl("/batch").toString()),
+            ImmutableList.of(batch.request(null, get("broken")), batch.request(null, get("bar"))));
+
+      assertTrue(results.get(0).error() != null);
+      assertEquals(results.get(1).get(), "bar");
+   }
+
+   public void binaryBodiesAreCopiedAsIs() throws Exception {
+      byte[] binary = { 0, (byte) 0xff, (byte) 0xc3, 0x28, '\r', '\n', (byte) 0x80 };
+      Payload payload = Payloads.newByteArrayPayload(binary);
+      payload.getContentMetadata().setContentType("application/octet-stream");
+      HttpRequest call = HttpRequest.builder().method("PUT").endpoint("https://www.googleapis.com/things/foo")
+            .payload(payload).build();
+
+      HttpRequest batchRequest = BatchExecutor.toBatchRequest(URI.create("https://www.googleapis.com/batch"),
+            ImmutableList.of(call), "b");
+      byte[] body = ByteStreams.toByteArray(batchRequest.getPayload().openStream());
+
+      byte[] head = ("--b\r\nContent-Type: application/http\r\nContent-ID: <item0>\r\n\r\n"
+            + "PUT /things/foo HTTP/1.1\r\nContent-Type: application/octet-stream\r\n\r\n").getBytes(Charsets.UTF_8);
+      assertEquals(Arrays.copyOfRange(body, 0, head.length), head);
+      assertEquals(Arrays.copyOfRange(body, head.length, head.length + binary.length), binary);
+      assertEquals(new String(body, head.length + binary.length, body.length - head.length - binary.length,
+            Charsets.UTF_8), "\r\n--b--\r\n");
+   }
+
+   public void callsWithDifferentFiltersAreRejected() throws Exception {
+      HttpRequestFilter other = new HttpRequestFilter() {
+         @Override public HttpRequest filter(HttpRequest request) {
+            return request;
+         }
+      };
+      HttpRequest foo = batch.request(null, get("foo"));
+      HttpRequest bar = foo.toBuilder().endpoint(foo.getEndpoint().resolve("bar")).filters(ImmutableList.of(other))
+            .build();
+      try {
+         batch.execute(URI.create(server.getUrl("/batch").toString()), ImmutableList.of(foo, bar));
+         fail("expected calls with different filters to be rejected");
+      } catch (IllegalArgumentException expected) {
+         assertEquals(server.getRequestCount(), 0);
+      }
+   }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.googlecloud.domain.ForwardingListPage;
+import org.jclouds.googlecloud.domain.ListPage;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+@Test(groups = "unit", testName = "ListPagesTest")
+public class ListPagesTest {
+
+   private static Iterator<ListPage<Integer>> pages() {
+      return ImmutableList.<ListPage<Integer>>of(
+            ForwardingListPage.create(ImmutableList.of(1, 2), "a"),
+            ForwardingListPage.create(ImmutableList.of(3), "b"),
+            ForwardingListPage.create(ImmutableList.of(4, 5, 6), null)).iterator();
+   }
+
+   private static final Function<Integer, String> TO_STRING = new Function<Integer, String>() {
+      @Override public String apply(Integer input) {
+         return input.toString();
+      }
+   };
+
+   public void concatIsSinglePass() {
+      Iterable<Integer> items = ListPages.concat(pages());
+
+      assertEquals(ImmutableList.copyOf(items), ImmutableList.of(1, 2, 3, 4, 5, 6));
+      assertFalse(items.iterator().hasNext());
+   }
+
+   public void concatFetchesPagesAsIterated() {
+      Iterator<ListPage<Integer>> pages = pages();
+      Iterator<Integer> items = ListPages.concat(pages).iterator();
+
+      assertEquals(items.next(), Integer.valueOf(1));
+      assertEquals(items.next(), Integer.valueOf(2));
+      assertEquals(items.next(), Integer.valueOf(3));
+      assertTrue(pages.hasNext()); // last page not fetched yet
+   }
+
+   public void transformInParallelKeepsListingOrder() {
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(3));
+      try {
+         List<String> results = ListPages.transformInParallel(pages(), TO_STRING, executor);
+         assertEquals(results, ImmutableList.of("1", "2", "3", "4", "5", "6"));
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   public void transformInParallelRethrowsFailure() {
+      Function<Integer, String> failing = new Function<Integer, String>() {
+         @Override public String apply(Integer input) {
+            if (input == 3) {
+               throw new IllegalArgumentException("bad item");
+            }
+            return input.toString();
+         }
+      };
+      try {
+         ListPages.transformInParallel(pages(), failing, MoreExecutors.sameThreadExecutor());
+         fail("expected failure of item 3");
+      } catch (IllegalArgumentException expected) {
+         assertEquals(expected.getMessage(), "bad item");
+      }
+   }
+
+   public void closeFromAnotherThreadEndsBlockedIteration() throws Exception {
+      final CountDownLatch fetching = new CountDownLatch(1);
+      final CountDownLatch never = new CountDownLatch(1);
+      final Iterator<ListPage<Integer>> source = pages();
+      ListPage<Integer> first = source.next();
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(2));
+      try {
+         final Iterator<ListPage<Integer>> pages = ListPages.advancing(first,
+               new Function<String, ListPage<Integer>>() {
+                  @Override public ListPage<Integer> apply(String token) {
+                     fetching.countDown();
+                     Uninterruptibles.awaitUninterruptibly(never, 10, TimeUnit.SECONDS);
+                     return source.next();
+                  }
+               }, 2, executor);
+         assertEquals(pages.next(), first);
+         Future<Boolean> hasNext = executor.submit(new Callable<Boolean>() {
+            @Override public Boolean call() {
+               return pages.hasNext();
+            }
+         });
+         assertTrue(fetching.await(10, TimeUnit.SECONDS));
+         ListPages.close(pages);
+         assertFalse(hasNext.get(5, TimeUnit.SECONDS));
+      } finally {
+         never.countDown();
+         executor.shutdownNow();
+      }
+   }
+
+   public void closeEndsPrefetchingIteration() {
+      final Iterator<ListPage<Integer>> source = pages();
+      ListPage<Integer> first = source.next();
+      Iterator<ListPage<Integer>> pages = ListPages.advancing(first, new Function<String, ListPage<Integer>>() {
+         @Override public ListPage<Integer> apply(String token) {
+            return source.next();
+         }
+      }, 1, MoreExecutors.sameThreadExecutor());
+
+      assertEquals(pages.next(), first);
+      ListPages.close(pages);
+      assertFalse(pages.hasNext());
+   }
+}
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.googlecloud.domain.ForwardingListPage;
+import org.jclouds.googlecloud.domain.ListPage;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.AbstractListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(groups = "unit", testName = "PrefetchingIteratorTest")
+public class PrefetchingIteratorTest {
+
+   /** Runs submitted work only when asked, so tests can observe what has been requested ahead. */
+   private static final class ManualExecutor extends AbstractListeningExecutorService {
+      private final List<Runnable> queued = new ArrayList<Runnable>();
+
+      @Override public void execute(Runnable command) {
+         queued.add(command);
+      }
+
+      void runAll() {
+         while (!queued.isEmpty()) {
+            queued.remove(0).run();
+         }
+      }
+
+      @Override public void shutdown() {
+      }
+
+      @Override public List<Runnable> shutdownNow() {
+         return Collections.emptyList();
+      }
+
+      @Override public boolean isShutdown() {
+         return false;
+      }
+
+      @Override public boolean isTerminated() {
+         return false;
+      }
+
+      @Override public boolean awaitTermination(long timeout, TimeUnit unit) {
+         return true;
+      }
+   }
+
+   /** Serves pages "1" through "{@code count}", recording which tokens were requested. */
+   private static final class Pages implements Function<String, ListPage<String>> {
+      private final int count;
+      final List<String> requested = Collections.synchronizedList(new ArrayList<String>());
+
+      Pages(int count) {
+         this.count = count;
+      }
+
+      ListPage<String> page(int number) {
+         return ForwardingListPage.create(ImmutableList.of("item" + number),
+               number < count ? String.valueOf(number + 1) : null);
+      }
+
+      @Override public ListPage<String> apply(String token) {
+         requested.add(token);
+         return page(Integer.parseInt(token));
+      }
+   }
+
+   private static List<String> drain(Iterator<ListPage<String>> pages) {
+      ImmutableList.Builder<String> items = ImmutableList.builder();
+      while (pages.hasNext()) {
+         items.addAll(pages.next());
+      }
+      return items.build();
+   }
+
+   public void iteratesAllPagesInOrder() {
+      Pages pages = new Pages(5);
+      Iterator<ListPage<String>> iterator = new PrefetchingIterator<String>(pages.page(1), pages,
+            MoreExecutors.sameThreadExecutor(), 2);
+
+      assertEquals(drain(iterator), ImmutableList.of("item1", "item2", "item3", "item4", "item5"));
+      assertEquals(pages.requested, ImmutableList.of("2", "3", "4", "5"));
+   }
+
+   public void requestsNextPageBeforeConsumerAsksForIt() {
+      Pages pages = new Pages(5);
+      ManualExecutor executor = new ManualExecutor();
+      Iterator<ListPage<String>> iterator = new PrefetchingIterator<String>(pages.page(1), pages, executor, 2);
+
+      assertEquals(iterator.next(), pages.page(1));
+      executor.runAll();
+      // only depth pages are fetched ahead of the consumer
+      assertEquals(pages.requested, ImmutableList.of("2", "3"));
+
+      assertEquals(iterator.next(), pages.page(2));
+      executor.runAll();
+      assertEquals(pages.requested, ImmutableList.of("2", "3", "4"));
+   }
+
+   public void stopsAtLastPage() {
+      Pages pages = new Pages(1);
+      ManualExecutor executor = new ManualExecutor();
+      Iterator<ListPage<String>> iterator = new PrefetchingIterator<String>(pages.page(1), pages, executor, 3);
+
+      assertEquals(iterator.next(), pages.page(1));
+      assertFalse(iterator.hasNext());
+      executor.runAll();
+      assertEquals(pages.requested, ImmutableList.of());
+   }
+
+   public void propagatesFailureToConsumer() {
+      final Pages pages = new Pages(3);
+      Function<String, ListPage<String>> failing = new Function<String, ListPage<String>>() {
+         @Override public ListPage<String> apply(String token) {
+            if (token.equals("3")) {
+               throw new IllegalStateException("boom");
+            }
+            return pages.apply(token);
+         }
+      };
+      Iterator<ListPage<String>> iterator = new PrefetchingIterator<String>(pages.page(1), failing,
+            MoreExecutors.sameThreadExecutor(), 2);
+
+      assertEquals(iterator.next(), pages.page(1));
+      assertEquals(iterator.next(), pages.page(2));
+      try {
+         iterator.next();
+         fail("expected failure of page 3");
+      } catch (IllegalStateException expected) {
+         assertEquals(expected.getMessage(), "boom");
+      }
+   }
+
+   public void fallsBackToSerialIterationWithoutDepth() {
+      Pages pages = new Pages(3);
+      Iterator<ListPage<String>> iterator = ListPages.advancing(pages.page(1), pages, 0,
+            MoreExecutors.sameThreadExecutor());
+
+      assertEquals(iterator.next(), pages.page(1));
+      assertEquals(pages.requested, ImmutableList.of());
+      assertEquals(drain(iterator), ImmutableList.of("item2", "item3"));
+   }
+}
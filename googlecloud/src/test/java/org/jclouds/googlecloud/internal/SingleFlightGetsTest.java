@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloud.internal;
+
+import static org.jclouds.util.Strings2.toStringAndClose;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.googlecloud.config.InMemoryApiMetricsListener;
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.rest.ResourceNotFoundException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+@Test(groups = "unit", testName = "SingleFlightGetsTest", singleThreaded = true)
+public class SingleFlightGetsTest {
+
+   private static final HttpRequest GET = HttpRequest.builder().method("GET")
+         .endpoint("https://www.googleapis.com/compute/v1/projects/party/global/operations/op-1").build();
+
+   /** Blocks every call until released, so that callers pile up behind the first one. */
+   private static final class BlockingCall implements SingleFlightGets.Call {
+      final CountDownLatch release = new CountDownLatch(1);
+      final AtomicInteger calls = new AtomicInteger();
+      final String body;
+      final RuntimeException exception;
+
+      BlockingCall(String body, RuntimeException exception) {
+         this.body = body;
+         this.exception = exception;
+      }
+
+      @Override public HttpResponse invoke(HttpCommand command) {
+         calls.incrementAndGet();
+         Uninterruptibles.awaitUninterruptibly(release);
+         if (exception != null) {
+            throw exception;
+         }
+         return HttpResponse.builder().statusCode(200).message("OK").payload(body).build();
+      }
+   }
+
+   private final InMemoryApiMetricsListener metrics = new InMemoryApiMetricsListener();
+   private ExecutorService executor;
+
+   @BeforeMethod
+   public void start() {
+      metrics.reset();
+      executor = Executors.newFixedThreadPool(4);
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void stop() {
+      executor.shutdownNow();
+   }
+
+   public void concurrentGetsShareOneCall() throws Exception {
+      BlockingCall call = new BlockingCall("{\"status\":\"DONE\"}", null);
+      List<Future<HttpResponse>> responses = invokeConcurrently(new SingleFlightGets(metrics), call, GET, 4);
+      for (Future<HttpResponse> response : responses) {
+         assertEquals(toStringAndClose(response.get(5, TimeUnit.SECONDS).getPayload().openStream()),
+               "{\"status\":\"DONE\"}");
+      }
+      assertEquals(call.calls.get(), 1);
+      assertEquals(metrics.get("GET").coalesced(), 3);
+   }
+
+   public void waitingCallersGetTheSameException() throws Exception {
+      BlockingCall call = new BlockingCall(null, new ResourceNotFoundException("gone"));
+      List<Future<HttpResponse>> responses = invokeConcurrently(new SingleFlightGets(metrics), call, GET, 3);
+      for (Future<HttpResponse> response : responses) {
+         try {
+            response.get(5, TimeUnit.SECONDS);
+            fail("expected ResourceNotFoundException");
+         } catch (ExecutionException e) {
+            assertEquals(e.getCause().getClass(), ResourceNotFoundException.class);
+         }
+      }
+      assertEquals(call.calls.get(), 1);
+   }
+
+   public void waitingCallersOfLargeResponsesCallThemselves() throws Exception {
+      BlockingCall call = new BlockingCall(Strings.repeat("x", SingleFlightGets.MAX_SHARED_BYTES + 1), null);
+      List<Future<HttpResponse>> responses = invokeConcurrently(new SingleFlightGets(metrics), call, GET, 2);
+      for (Future<HttpResponse> response : responses) {
+         assertEquals(toStringAndClose(response.get(5, TimeUnit.SECONDS).getPayload().openStream()).length(),
+               SingleFlightGets.MAX_SHARED_BYTES + 1);
+      }
+      assertEquals(call.calls.get(), 2);
+   }
+
+   public void otherMethodsAreNotCoalesced() throws Exception {
+      BlockingCall call = new BlockingCall("{}", null);
+      HttpRequest delete = GET.toBuilder().method("DELETE").build();
+      List<Future<HttpResponse>> responses = invokeConcurrently(new SingleFlightGets(metrics), call, delete, 2);
+      for (Future<HttpResponse> response : responses) {
+         response.get(5, TimeUnit.SECONDS);
+      }
+      assertEquals(call.calls.get(), 2);
+   }
+
+   /** Starts {@code count} callers, and releases the call once all of them are in flight or waiting. */
+   private List<Future<HttpResponse>> invokeConcurrently(final SingleFlightGets singleFlight,
+         final BlockingCall call, final HttpRequest request, int count) {
+      final CountDownLatch started = new CountDownLatch(count);
+      List<Future<HttpResponse>> responses = Lists.newArrayList();
+      for (int i = 0; i < count; i++) {
+         responses.add(executor.submit(new Callable<HttpResponse>() {
+            @Override public HttpResponse call() {
+               started.countDown();
+               return singleFlight.invoke(new HttpCommand(request), call);
+            }
+         }));
+      }
+      Uninterruptibles.awaitUninterruptibly(started);
+      // give the callers time to reach the in-flight call
+      Uninterruptibles.sleepUninterruptibly(200, TimeUnit.MILLISECONDS);
+      call.release.countDown();
+      return responses;
+   }
+}
@@ -21,10 +21,12 @@ import static com.google.common.base.Throwables.propagate;
 import static org.jclouds.googlecloud.config.GoogleCloudProperties.CREDENTIAL_TYPE;
 import static org.jclouds.googlecloud.config.GoogleCloudProperties.PROJECT_NAME;
 import static org.jclouds.oauth.v2.config.CredentialType.P12_PRIVATE_KEY_CREDENTIALS;
+import static org.jclouds.oauth.v2.config.CredentialType.SELF_SIGNED_JWT_CREDENTIALS;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.EnumSet;
 import java.util.Properties;
 
 import org.jclouds.domain.Credentials;
@@ -40,8 +42,8 @@ public final class TestProperties {
    public static Properties apply(String provider, Properties props) {
       setIfTestSystemPropertyPresent(props, PROJECT_NAME);
       setIfTestSystemPropertyPresent(props, CREDENTIAL_TYPE);
-      if (props.containsKey(CREDENTIAL_TYPE)
-            && CredentialType.fromValue(props.getProperty(CREDENTIAL_TYPE)) == P12_PRIVATE_KEY_CREDENTIALS) {
+      if (props.containsKey(CREDENTIAL_TYPE) && EnumSet.of(P12_PRIVATE_KEY_CREDENTIALS, SELF_SIGNED_JWT_CREDENTIALS)
+            .contains(CredentialType.fromValue(props.getProperty(CREDENTIAL_TYPE)))) {
          setCredential(props, provider + ".credential");
       }
       return props;
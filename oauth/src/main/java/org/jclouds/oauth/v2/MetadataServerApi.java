@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.oauth.v2;
+
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+
+import java.io.Closeable;
+
+import javax.inject.Named;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+
+import org.jclouds.oauth.v2.config.MetadataServer;
+import org.jclouds.oauth.v2.domain.Token;
+import org.jclouds.rest.annotations.Endpoint;
+import org.jclouds.rest.annotations.Headers;
+
+/**
+ * Binds to the token endpoint of a <a href="https://cloud.google.com/compute/docs/metadata">metadata server</a>, which
+ * issues access tokens for the service account of the instance it runs on.
+ *
+ * @see org.jclouds.oauth.v2.config.OAuthProperties#METADATA_SERVER_ENDPOINT
+ */
+@Endpoint(MetadataServer.class)
+public interface MetadataServerApi extends Closeable {
+   @Named("metadata:token")
+   @GET
+   @Headers(keys = "Metadata-Flavor", values = "Google")
+   @Consumes(APPLICATION_JSON)
+   Token token();
+}
@@ -26,7 +26,20 @@ public enum CredentialType {
    BEARER_TOKEN_CREDENTIALS,
 
    /** Contents are a PEM-encoded P12 Private Key. */
-   P12_PRIVATE_KEY_CREDENTIALS;
+   P12_PRIVATE_KEY_CREDENTIALS,
+
+   /**
+    * Contents are a PEM-encoded P12 Private Key, used to sign JWTs which are sent as bearer tokens without going
+    * through the token endpoint. Only for apis that accept self-signed JWTs.
+    */
+   SELF_SIGNED_JWT_CREDENTIALS,
+
+   /**
+    * Contents are ignored: access tokens are obtained from the metadata server of the instance jclouds runs on.
+    *
+    * @see OAuthProperties#METADATA_SERVER_ENDPOINT
+    */
+   METADATA_SERVER_CREDENTIALS;
 
    @Override public String toString() {
       return UPPER_UNDERSCORE.to(LOWER_CAMEL, name());
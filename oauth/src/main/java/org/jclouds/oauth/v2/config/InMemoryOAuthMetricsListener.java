@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.oauth.v2.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.inject.Singleton;
+
+import org.jclouds.oauth.v2.filters.TokenCache;
+
+/** Keeps counts and latency histograms in memory, for tests and for exposing through an application's own metrics. */
+@Singleton
+public class InMemoryOAuthMetricsListener implements OAuthMetricsListener {
+
+   /**
+    * Counts values into power-of-two buckets, which is precise enough to tell microseconds from milliseconds from
+    * seconds without allocating per value.
+    */
+   public static final class Histogram {
+      private final AtomicLongArray buckets = new AtomicLongArray(64);
+      private final AtomicLong count = new AtomicLong();
+      private final AtomicLong sum = new AtomicLong();
+      private final AtomicLong max = new AtomicLong();
+
+      void record(long value) {
+         long positive = Math.max(value, 0);
+         buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(positive) - (positive == 0 ? 0 : 1));
+         count.incrementAndGet();
+         sum.addAndGet(positive);
+         long currentMax;
+         while (positive > (currentMax = max.get()) && !max.compareAndSet(currentMax, positive)) {
+            // retry until the max is this value or a greater one
+         }
+      }
+
+      public long count() {
+         return count.get();
+      }
+
+      public long sum() {
+         return sum.get();
+      }
+
+      public long max() {
+         return max.get();
+      }
+
+      public long mean() {
+         long n = count();
+         return n == 0 ? 0 : sum() / n;
+      }
+
+      /** Returns an upper bound of the given percentile, e.g. {@code 0.99}, of recorded values. */
+      public long percentile(double percentile) {
+         long rank = (long) Math.ceil(percentile * count());
+         long seen = 0;
+         for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= rank && seen > 0) {
+               return i >= 62 ? Long.MAX_VALUE : (2L << i) - 1;
+            }
+         }
+         return 0;
+      }
+   }
+
+   private final AtomicLong tokenCacheHits = new AtomicLong();
+   private final AtomicLong tokenCacheMisses = new AtomicLong();
+   private final AtomicLong tokenRefreshFailures = new AtomicLong();
+   private final Histogram authorizeLatency = new Histogram();
+   private final Histogram signatureLatency = new Histogram();
+   private final Histogram privateKeyLatency = new Histogram();
+   private final Histogram timeToExpiryAtRefresh = new Histogram();
+
+   @Override public void tokenCacheHit(TokenCache.Key key) {
+      tokenCacheHits.incrementAndGet();
+   }
+
+   @Override public void tokenCacheMiss(TokenCache.Key key) {
+      tokenCacheMisses.incrementAndGet();
+   }
+
+   @Override public void tokenAuthorized(long latencyNanos) {
+      authorizeLatency.record(latencyNanos);
+   }
+
+   @Override public void assertionSigned(long latencyNanos) {
+      signatureLatency.record(latencyNanos);
+   }
+
+   @Override public void privateKeyLoaded(long latencyNanos) {
+      privateKeyLatency.record(latencyNanos);
+   }
+
+   @Override public void tokenRefreshStarted(TokenCache.Key key, long timeToExpiryNanos) {
+      timeToExpiryAtRefresh.record(timeToExpiryNanos);
+   }
+
+   @Override public void tokenRefreshFailed(TokenCache.Key key, Throwable cause) {
+      tokenRefreshFailures.incrementAndGet();
+   }
+
+   public long tokenCacheHits() {
+      return tokenCacheHits.get();
+   }
+
+   public long tokenCacheMisses() {
+      return tokenCacheMisses.get();
+   }
+
+   public long tokenRefreshFailures() {
+      return tokenRefreshFailures.get();
+   }
+
+   /** Nanoseconds spent obtaining tokens from token endpoints. */
+   public Histogram authorizeLatency() {
+      return authorizeLatency;
+   }
+
+   /** Nanoseconds spent signing assertions. */
+   public Histogram signatureLatency() {
+      return signatureLatency;
+   }
+
+   /** Nanoseconds spent parsing private keys. */
+   public Histogram privateKeyLatency() {
+      return privateKeyLatency;
+   }
+
+   /** Nanoseconds left before expiry when tokens started being renewed. */
+   public Histogram timeToExpiryAtRefresh() {
+      return timeToExpiryAtRefresh;
+   }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.oauth.v2.config;
+
+import org.jclouds.oauth.v2.filters.TokenCache;
+
+import com.google.inject.ImplementedBy;
+
+/**
+ * Told about how tokens are obtained, so that the share of request latency spent on authorization can be measured.
+ * Calls happen on request and refresh threads, so implementations must be thread-safe and fast.
+ *
+ * <p/>Does nothing by default. To plug in another implementation, bind it in a module passed to
+ * {@link org.jclouds.ContextBuilder#modules(Iterable)}, for instance {@link InMemoryOAuthMetricsListener}.
+ */
+@ImplementedBy(OAuthMetricsListener.NoOp.class)
+public interface OAuthMetricsListener {
+
+   /** A request was authorized with a cached token. */
+   void tokenCacheHit(TokenCache.Key key);
+
+   /** A request had to wait for a token to be obtained. */
+   void tokenCacheMiss(TokenCache.Key key);
+
+   /** A token was obtained from a token endpoint, e.g. through {@link org.jclouds.oauth.v2.AuthorizationApi}. */
+   void tokenAuthorized(long latencyNanos);
+
+   /** A JWT assertion was signed. */
+   void assertionSigned(long latencyNanos);
+
+   /** A private key was parsed from credentials. */
+   void privateKeyLoaded(long latencyNanos);
+
+   /** A cached token started being renewed in the background, {@code timeToExpiryNanos} before it expires. */
+   void tokenRefreshStarted(TokenCache.Key key, long timeToExpiryNanos);
+
+   /** Renewing a cached token in the background failed. The current token is still used until it expires. */
+   void tokenRefreshFailed(TokenCache.Key key, Throwable cause);
+
+   final class NoOp implements OAuthMetricsListener {
+      @Override public void tokenCacheHit(TokenCache.Key key) {
+      }
+
+      @Override public void tokenCacheMiss(TokenCache.Key key) {
+      }
+
+      @Override public void tokenAuthorized(long latencyNanos) {
+      }
+
+      @Override public void assertionSigned(long latencyNanos) {
+      }
+
+      @Override public void privateKeyLoaded(long latencyNanos) {
+      }
+
+      @Override public void tokenRefreshStarted(TokenCache.Key key, long timeToExpiryNanos) {
+      }
+
+      @Override public void tokenRefreshFailed(TokenCache.Key key, Throwable cause) {
+      }
+   }
+}
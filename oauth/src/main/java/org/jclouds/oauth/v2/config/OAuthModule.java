@@ -18,6 +18,7 @@ package org.jclouds.oauth.v2.config;
 
 import static org.jclouds.oauth.v2.config.CredentialType.P12_PRIVATE_KEY_CREDENTIALS;
 import static org.jclouds.oauth.v2.config.OAuthProperties.CREDENTIAL_TYPE;
+import static org.jclouds.oauth.v2.config.OAuthProperties.METADATA_SERVER_ENDPOINT;
 import static org.jclouds.rest.config.BinderUtils.bindHttpApi;
 
 import java.net.URI;
@@ -26,10 +27,14 @@ import java.security.PrivateKey;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.jclouds.domain.Credentials;
 import org.jclouds.oauth.v2.AuthorizationApi;
+import org.jclouds.oauth.v2.MetadataServerApi;
 import org.jclouds.oauth.v2.filters.BearerTokenFromCredentials;
+import org.jclouds.oauth.v2.filters.BearerTokenFromMetadataServer;
 import org.jclouds.oauth.v2.filters.JWTBearerTokenFlow;
 import org.jclouds.oauth.v2.filters.OAuthFilter;
+import org.jclouds.oauth.v2.filters.SelfSignedJWTFlow;
 
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
@@ -43,8 +48,13 @@ public final class OAuthModule extends AbstractModule {
 
    @Override protected void configure() {
       bindHttpApi(binder(), AuthorizationApi.class);
+      bindHttpApi(binder(), MetadataServerApi.class);
       bind(CredentialType.class).toProvider(CredentialTypeFromPropertyOrDefault.class);
+      bind(new TypeLiteral<Supplier<URI>>() {}).annotatedWith(MetadataServer.class)
+            .to(MetadataServerEndpointFromPropertyOrDefault.class);
       bind(new TypeLiteral<Supplier<PrivateKey>>() {}).annotatedWith(Authorization.class).to(PrivateKeySupplier.class);
+      bind(new TypeLiteral<Supplier<Credentials>>() {}).annotatedWith(Authorization.class)
+            .to(RotationAwareCredentialsSupplier.class);
    }
 
    @Provides
@@ -65,16 +75,34 @@ public final class OAuthModule extends AbstractModule {
       }
    }
 
+   @Singleton
+   public static class MetadataServerEndpointFromPropertyOrDefault implements Supplier<URI> {
+      @Inject(optional = true)
+      @Named(METADATA_SERVER_ENDPOINT)
+      String endpoint = "http://metadata.google.internal/computeMetadata/v1/instance/service-accounts/default/token";
+
+      @Override
+      public URI get() {
+         return URI.create(endpoint);
+      }
+   }
+
    @Provides
    @Singleton
    protected OAuthFilter authenticationFilterForCredentialType(CredentialType credentialType,
                                                                JWTBearerTokenFlow serviceAccountAuth,
-                                                               BearerTokenFromCredentials bearerTokenAuth) {
+                                                               BearerTokenFromCredentials bearerTokenAuth,
+                                                               Provider<SelfSignedJWTFlow> selfSignedJWTAuth,
+                                                               Provider<BearerTokenFromMetadataServer> metadataAuth) {
       switch (credentialType) {
          case P12_PRIVATE_KEY_CREDENTIALS:
             return serviceAccountAuth;
          case BEARER_TOKEN_CREDENTIALS:
             return bearerTokenAuth;
+         case SELF_SIGNED_JWT_CREDENTIALS:
+            return selfSignedJWTAuth.get();
+         case METADATA_SERVER_CREDENTIALS:
+            return metadataAuth.get();
          default:
             throw new IllegalArgumentException("Unsupported credential type: " + credentialType);
       }
@@ -36,6 +36,48 @@ public final class OAuthProperties {
     */
    public static final String CREDENTIAL_TYPE = "jclouds.oauth.credential-type";
 
+   /**
+    * How many seconds before the server-reported {@code expires_in} a cached token is considered expired. Defaults to
+    * {@code 30}.
+    *
+    * @see org.jclouds.oauth.v2.filters.TokenCache
+    */
+   public static final String TOKEN_EXPIRY_MARGIN = "jclouds.oauth.token-expiry-margin";
+
+   /**
+    * Fraction of a cached token's lifetime after which it is renewed in the background, while it keeps being served.
+    * Defaults to {@code 0.75}. A value of {@code 1} or more disables background renewal.
+    *
+    * @see org.jclouds.oauth.v2.filters.TokenRefreshScheduler
+    */
+   public static final String TOKEN_REFRESH_FRACTION = "jclouds.oauth.token-refresh-fraction";
+
+   /**
+    * The url tokens are requested from when using
+    * {@link org.jclouds.oauth.v2.config.CredentialType#METADATA_SERVER_CREDENTIALS}. Defaults to the token url of the
+    * default service account in the GCE metadata server.
+    */
+   public static final String METADATA_SERVER_ENDPOINT = "jclouds.oauth.metadata-server-endpoint";
+
+   /**
+    * A directory where tokens are kept, so that processes on the same host and later runs can reuse a token which is
+    * still valid. Unset by default, which disables the store.
+    *
+    * @see org.jclouds.oauth.v2.filters.PersistentTokenStore
+    */
+   public static final String TOKEN_STORE_DIRECTORY = "jclouds.oauth.token-store-directory";
+
+   /**
+    * The {@code aud} claim of the JWTs signed with
+    * {@link org.jclouds.oauth.v2.config.CredentialType#SELF_SIGNED_JWT_CREDENTIALS}, which Google requires to be the
+    * service being called, such as {@code https://compute.googleapis.com/}. When unset, the audience is derived from
+    * each request: {@code https://<service>.googleapis.com/} for {@code https://www.googleapis.com/<service>/...}, or
+    * else the scheme and host of the request.
+    *
+    * @see org.jclouds.oauth.v2.filters.SelfSignedJWTFlow
+    */
+   public static final String SELF_SIGNED_JWT_AUDIENCE = "jclouds.oauth.self-signed-jwt-audience";
+
    private OAuthProperties() {
    }
 }
@@ -21,6 +21,10 @@ import java.util.List;
 import org.jclouds.http.HttpRequest;
 
 import com.google.auto.value.AutoValue;
+import com.google.common.base.Joiner;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 
 /**
@@ -32,6 +36,26 @@ public interface OAuthScopes {
    /** Returns a list of scopes needed to perform the request. */
    List<String> forRequest(HttpRequest input);
 
+   /**
+    * Renders the comma-separated scope string sent in claims. Implementations return the same few lists over and over,
+    * so each list is joined once and remembered by identity.
+    */
+   final class ScopeStrings {
+      private static final LoadingCache<List<String>, String> JOINED = CacheBuilder.newBuilder().weakKeys()
+            .build(new CacheLoader<List<String>, String>() {
+               @Override public String load(List<String> scopes) {
+                  return Joiner.on(",").join(scopes);
+               }
+            });
+
+      public static String join(List<String> scopes) {
+         return JOINED.getUnchecked(scopes);
+      }
+
+      private ScopeStrings() {
+      }
+   }
+
    @AutoValue public abstract static class SingleScope implements OAuthScopes {
       abstract List<String> scopes();
 
@@ -66,12 +66,25 @@ final class PrivateKeySupplier implements Supplier<PrivateKey> {
     */
    @VisibleForTesting
    static final class PrivateKeyForCredentials extends CacheLoader<Credentials, PrivateKey> {
+      private final OAuthMetricsListener metrics;
+
+      @Inject PrivateKeyForCredentials(OAuthMetricsListener metrics) {
+         this.metrics = metrics;
+      }
+
+      PrivateKeyForCredentials() {
+         this(new OAuthMetricsListener.NoOp());
+      }
 
       @Override public PrivateKey load(Credentials in) {
+         long start = System.nanoTime();
          try {
             String privateKeyInPemFormat = checkNotNull(in.credential, "credential in PEM format");
             KeyFactory keyFactory = KeyFactory.getInstance("RSA");
-            return keyFactory.generatePrivate(privateKeySpec(ByteSource.wrap(privateKeyInPemFormat.getBytes(UTF_8))));
+            PrivateKey key = keyFactory.generatePrivate(
+                  privateKeySpec(ByteSource.wrap(privateKeyInPemFormat.getBytes(UTF_8))));
+            metrics.privateKeyLoaded(System.nanoTime() - start);
+            return key;
          } catch (NoSuchAlgorithmException e) {
             throw new AssertionError(e);
          } catch (IOException e) {
@@ -85,6 +98,11 @@ final class PrivateKeySupplier implements Supplier<PrivateKey> {
       }
    }
 
+   /** Discards every loaded key, for example after the credentials were rotated. */
+   void invalidateAll() {
+      keyCache.invalidateAll();
+   }
+
    @Override public PrivateKey get() {
       try {
          // loader always throws UncheckedExecutionException so no point in using get()
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.oauth.v2.config;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.domain.Credentials;
+import org.jclouds.location.Provider;
+import org.jclouds.oauth.v2.filters.TokenCache;
+
+import com.google.common.base.Supplier;
+
+/**
+ * Returns the {@link Provider provider credentials}, noticing when they change (for example because the key file
+ * behind them was rotated). At that moment the private keys and tokens derived from the previous credentials are
+ * discarded, so the next request authorizes with the new ones.
+ */
+@Singleton
+final class RotationAwareCredentialsSupplier implements Supplier<Credentials> {
+
+   private final Supplier<Credentials> creds;
+   private final PrivateKeySupplier privateKeySupplier;
+   private final TokenCache tokenCache;
+   private final AtomicReference<Credentials> lastSeen = new AtomicReference<Credentials>();
+
+   @Inject RotationAwareCredentialsSupplier(@Provider Supplier<Credentials> creds,
+         PrivateKeySupplier privateKeySupplier, TokenCache tokenCache) {
+      this.creds = creds;
+      this.privateKeySupplier = privateKeySupplier;
+      this.tokenCache = tokenCache;
+   }
+
+   @Override public Credentials get() {
+      Credentials current = checkNotNull(creds.get(), "credential supplier returned null");
+      Credentials previous = lastSeen.get();
+      // suppliers usually return the same instance until credentials change, so this is rarely a string comparison
+      if (current != previous && !current.equals(previous) && lastSeen.compareAndSet(previous, current)
+            && previous != null) {
+         privateKeySupplier.invalidateAll();
+         tokenCache.invalidateAll();
+      }
+      return current;
+   }
+}
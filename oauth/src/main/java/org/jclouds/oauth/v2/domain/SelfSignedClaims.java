@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.oauth.v2.domain;
+
+import org.jclouds.json.SerializedNames;
+
+import com.google.auto.value.AutoValue;
+
+/**
+ * Claims of a JWT that is signed by the service account itself and sent as the bearer token, instead of being
+ * exchanged for one at the token endpoint.
+ *
+ * @see <a href="https://developers.google.com/identity/protocols/OAuth2ServiceAccount#jwt-auth">doc</a>
+ */
+@AutoValue
+public abstract class SelfSignedClaims {
+   /** The issuer of this token. In google, the service account email. */
+   public abstract String iss();
+
+   /** The subject of this token. In google, also the service account email. */
+   public abstract String sub();
+
+   /** The api this token is intended for. For instance {@code https://compute.googleapis.com/}. */
+   public abstract String aud();
+
+   /** The expiration time, in seconds since the epoch. */
+   public abstract long exp();
+
+   /** The time at which the JWT was issued, in seconds since the epoch. */
+   public abstract long iat();
+
+   @SerializedNames({ "iss", "sub", "aud", "exp", "iat" })
+   public static SelfSignedClaims create(String iss, String sub, String aud, long exp, long iat) {
+      return new AutoValue_SelfSignedClaims(iss, sub, aud, exp, iat);
+   }
+
+   SelfSignedClaims() {
+   }
+}
@@ -16,8 +16,6 @@
  */
 package org.jclouds.oauth.v2.filters;
 
-import static java.lang.String.format;
-
 import javax.inject.Inject;
 
 import org.jclouds.domain.Credentials;
@@ -33,12 +31,24 @@ import com.google.common.base.Supplier;
  */
 public final class BearerTokenFromCredentials implements OAuthFilter {
    private final Supplier<Credentials> creds;
+   /** The last credential and its header value, replaced together so they are never seen out of sync. */
+   private volatile String[] lastRendered;
 
    @Inject BearerTokenFromCredentials(@Provider Supplier<Credentials> creds) {
       this.creds = creds;
    }
 
    @Override public HttpRequest filter(HttpRequest request) throws HttpException {
-      return request.toBuilder().addHeader("Authorization", format("%s %s", "Bearer", creds.get().credential)).build();
+      return request.toBuilder().addHeader("Authorization", authorization(creds.get().credential)).build();
+   }
+
+   /** Renders the header once per credential, instead of once per request. */
+   private String authorization(String credential) {
+      String[] rendered = lastRendered;
+      if (rendered == null || !rendered[0].equals(credential)) {
+         rendered = new String[] { credential, "Bearer " + credential };
+         lastRendered = rendered;
+      }
+      return rendered[1];
    }
 }
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.oauth.v2.filters;
+
+import java.net.URI;
+
+import javax.inject.Inject;
+
+import org.jclouds.http.HttpException;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.oauth.v2.MetadataServerApi;
+import org.jclouds.oauth.v2.config.MetadataServer;
+import org.jclouds.oauth.v2.config.OAuthMetricsListener;
+import org.jclouds.oauth.v2.domain.Token;
+
+import com.google.common.base.Function;
+import com.google.common.base.Supplier;
+
+/**
+ * When the user supplies {@link org.jclouds.oauth.v2.config.CredentialType#METADATA_SERVER_CREDENTIALS}, access tokens
+ * are obtained from the metadata server of the instance jclouds runs on. No private key is needed.
+ *
+ * <p/>Tokens are kept in the {@link TokenCache} and refreshed according to their "expires_in".
+ */
+public final class BearerTokenFromMetadataServer implements OAuthFilter {
+   private final MetadataServerApi api;
+   private final OAuthMetricsListener metrics;
+   private final TokenCache.Key key;
+   private final TokenCache tokenCache;
+   private final Function<TokenCache.Key, Token> fetchToken = new Function<TokenCache.Key, Token>() {
+      @Override public Token apply(TokenCache.Key key) {
+         long start = System.nanoTime();
+         Token token = api.token();
+         metrics.tokenAuthorized(System.nanoTime() - start);
+         return token;
+      }
+   };
+
+   @Inject BearerTokenFromMetadataServer(MetadataServerApi api, @MetadataServer Supplier<URI> endpoint,
+         TokenCache tokenCache, OAuthMetricsListener metrics) {
+      this.api = api;
+      this.metrics = metrics;
+      // the metadata server decides on identity and scopes, so the endpoint is all that tells tokens apart
+      this.key = TokenCache.Key.create("", "", endpoint.get().toString());
+      this.tokenCache = tokenCache;
+   }
+
+   @Override public HttpRequest filter(HttpRequest request) throws HttpException {
+      return request.toBuilder().addHeader("Authorization", tokenCache.authorization(key, fetchToken)).build();
+   }
+}
@@ -16,51 +16,70 @@
  */
 package org.jclouds.oauth.v2.filters;
 
-import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
 import static org.jclouds.oauth.v2.config.OAuthProperties.AUDIENCE;
 
+import java.util.List;
+
 import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.jclouds.domain.Credentials;
 import org.jclouds.http.HttpException;
 import org.jclouds.http.HttpRequest;
-import org.jclouds.location.Provider;
 import org.jclouds.oauth.v2.AuthorizationApi;
+import org.jclouds.oauth.v2.config.Authorization;
+import org.jclouds.oauth.v2.config.OAuthMetricsListener;
 import org.jclouds.oauth.v2.config.OAuthScopes;
+import org.jclouds.oauth.v2.config.OAuthScopes.ScopeStrings;
 import org.jclouds.oauth.v2.domain.Claims;
 import org.jclouds.oauth.v2.domain.Token;
 
-import com.google.common.base.Joiner;
+import com.google.common.base.Function;
 import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 
 /**
  * Authorizes new Bearer Tokens at runtime by authorizing claims needed for the http request.
  *
  * <h3>Cache</h3>
- * This maintains a time-based Bearer Token cache. By default expires after 59 minutes
- * (the maximum time a token is valid is 60 minutes).
- * This cache and expiry period is system-wide and does not attend to per-instance expiry time
- * (e.g. "expires_in" from Google Compute -- which is set to the standard 3600 seconds).
+ * Tokens are kept in a {@link TokenCache} keyed by identity, scopes and audience. Each token is reused until shortly
+ * before the "expires_in" returned by the server (e.g. 3600 seconds in Google Compute), so claims are only signed and
+ * authorized once per token lifetime, not once per request.
+ *
+ * <p/>On a cache hit nothing but the filtered request is allocated: keys are remembered per scope list, and the
+ * {@code Authorization} header value is rendered once per token.
  */
 public class JWTBearerTokenFlow implements OAuthFilter {
-   private static final Joiner ON_COMMA = Joiner.on(",");
-
+   private final AuthorizeToken loader;
    private final String audience;
    private final Supplier<Credentials> credentialsSupplier;
    private final OAuthScopes scopes;
    private final long tokenDuration;
-   private final LoadingCache<Claims, Token> tokenCache;
+   private final TokenCache tokenCache;
+   private final Cache<List<String>, TokenCache.Key> keys = CacheBuilder.newBuilder().weakKeys().build();
+   private final Function<TokenCache.Key, Token> authorizeKey = new Function<TokenCache.Key, Token>() {
+      @Override public Token apply(TokenCache.Key key) {
+         // claims are only built on a miss, as their timestamps make every one of them unique
+         long now = currentTimeSeconds();
+         Claims claims = Claims.create( //
+               key.identity(), // iss
+               key.scope(), // scope
+               key.audience(), // aud
+               now + tokenDuration, // exp
+               now // iat
+         );
+         return loader.apply(claims);
+      }
+   };
 
    public static class TestJWTBearerTokenFlow extends JWTBearerTokenFlow {
 
       @Inject TestJWTBearerTokenFlow(AuthorizeToken loader, @Named(PROPERTY_SESSION_INTERVAL) long tokenDuration,
-            @Named(AUDIENCE) String audience, @Provider Supplier<Credentials> credentialsSupplier, OAuthScopes scopes) {
-         super(loader, tokenDuration, audience, credentialsSupplier, scopes);
+            @Named(AUDIENCE) String audience, @Authorization Supplier<Credentials> credentialsSupplier,
+            OAuthScopes scopes, TokenCache tokenCache) {
+         super(loader, tokenDuration, audience, credentialsSupplier, scopes, tokenCache);
       }
 
       /** Constant time for testing. */
@@ -70,43 +89,49 @@ public class JWTBearerTokenFlow implements OAuthFilter {
    }
 
    @Inject JWTBearerTokenFlow(AuthorizeToken loader, @Named(PROPERTY_SESSION_INTERVAL) long tokenDuration,
-         @Named(AUDIENCE) String audience, @Provider Supplier<Credentials> credentialsSupplier, OAuthScopes scopes) {
+         @Named(AUDIENCE) String audience, @Authorization Supplier<Credentials> credentialsSupplier,
+         OAuthScopes scopes, TokenCache tokenCache) {
+      this.loader = loader;
       this.audience = audience;
       this.credentialsSupplier = credentialsSupplier;
       this.scopes = scopes;
       this.tokenDuration = tokenDuration;
-      // since the session interval is also the token expiration time requested to the server make the token expire a
-      // bit before the deadline to make sure there aren't session expiration exceptions
-      long cacheExpirationSeconds = tokenDuration > 30 ? tokenDuration - 30 : tokenDuration;
-      this.tokenCache = CacheBuilder.newBuilder().expireAfterWrite(tokenDuration, SECONDS).build(loader);
+      this.tokenCache = tokenCache;
    }
 
-   static final class AuthorizeToken extends CacheLoader<Claims, Token> {
+   static final class AuthorizeToken implements Function<Claims, Token> {
       private final AuthorizationApi api;
+      private final OAuthMetricsListener metrics;
 
-      @Inject AuthorizeToken(AuthorizationApi api) {
+      @Inject AuthorizeToken(AuthorizationApi api, OAuthMetricsListener metrics) {
          this.api = api;
+         this.metrics = metrics;
       }
 
-      @Override public Token load(Claims key) throws Exception {
-         return api.authorize(key);
+      @Override public Token apply(Claims input) {
+         long start = System.nanoTime();
+         Token token = api.authorize(input);
+         metrics.tokenAuthorized(System.nanoTime() - start);
+         return token;
       }
    }
 
    @Override public HttpRequest filter(HttpRequest request) throws HttpException {
-      long now = currentTimeSeconds();
-      Claims claims = Claims.create( //
-            credentialsSupplier.get().identity, // iss
-            ON_COMMA.join(scopes.forRequest(request)), // scope
-            audience, // aud
-            now + tokenDuration, // exp
-            now // iat
-      );
-      Token token = tokenCache.getUnchecked(claims);
-      String authorization = String.format("%s %s", token.tokenType(), token.accessToken());
+      String authorization = tokenCache.authorization(key(request), authorizeKey);
       return request.toBuilder().addHeader("Authorization", authorization).build();
    }
 
+   private TokenCache.Key key(HttpRequest request) {
+      String identity = credentialsSupplier.get().identity;
+      List<String> scopesForRequest = scopes.forRequest(request);
+      TokenCache.Key key = keys.getIfPresent(scopesForRequest);
+      if (key == null || !key.identity().equals(identity)) {
+         key = TokenCache.Key.create(identity, ScopeStrings.join(scopesForRequest), audience);
+         keys.put(scopesForRequest, key);
+      }
+      return key;
+   }
+
    long currentTimeSeconds() {
       return System.currentTimeMillis() / 1000;
    }
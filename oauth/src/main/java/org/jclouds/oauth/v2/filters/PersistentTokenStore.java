@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.oauth.v2.filters;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.jclouds.oauth.v2.config.OAuthProperties.TOKEN_STORE_DIRECTORY;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.EnumSet;
+import java.util.Properties;
+
+import javax.annotation.Resource;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.logging.Logger;
+import org.jclouds.oauth.v2.domain.Token;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Joiner;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.inject.Inject;
+
+/**
+ * Keeps tokens in files, so that processes on the same host (and later runs of the same program) can share a still
+ * valid token instead of each authorizing their own. Disabled unless
+ * {@link org.jclouds.oauth.v2.config.OAuthProperties#TOKEN_STORE_DIRECTORY} is set.
+ *
+ * <p/>There is one file per {@link TokenCache.Key}, readable and writable only by its owner where the file system
+ * supports it. A directory or file that already exists is only used when the current user owns it and no one else can
+ * access it, since whoever can write a token can make requests use it. Readers take a shared lock and writers an exclusive one, so a token is never read half-written. Failing
+ * to read or write the store is logged and otherwise ignored: tokens are then just authorized as usual.
+ *
+ * <p/>File locks are held by the whole JVM, so access from threads of this process is serialized as well.
+ */
+@Singleton
+public class PersistentTokenStore {
+
+   private static final EnumSet<PosixFilePermission> GROUP_OR_OTHERS = EnumSet.complementOf(
+         EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE,
+               PosixFilePermission.OWNER_EXECUTE));
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   @Inject(optional = true)
+   @Named(TOKEN_STORE_DIRECTORY)
+   @VisibleForTesting
+   String directory;
+
+   /** Whether a directory to keep tokens in was configured. */
+   public boolean isEnabled() {
+      return directory != null;
+   }
+
+   /**
+    * Returns the stored token for {@code key}, with its {@link Token#expiresIn()} counted from now, or null if there is
+    * none or it already expired.
+    */
+   public synchronized Token get(TokenCache.Key key) {
+      if (!isEnabled()) {
+         return null;
+      }
+      Path file = file(key);
+      try {
+         checkOwnerOnly(file.getParent(), true);
+         checkOwnerOnly(file, false);
+      } catch (NoSuchFileException e) {
+         return null;
+      } catch (IOException e) {
+         logger.warn(e, "not reading token from %s", file);
+         return null;
+      }
+      try (FileChannel channel = FileChannel.open(file, READ); FileLock lock = channel.lock(0, Long.MAX_VALUE, true)) {
+         Properties stored = new Properties();
+         stored.load(new StringReader(new String(ByteStreams.toByteArray(Channels.newInputStream(channel)), UTF_8)));
+         long expiresIn = Long.parseLong(stored.getProperty("expires_at")) - currentTimeSeconds();
+         if (expiresIn <= 0) {
+            return null;
+         }
+         return Token.create(stored.getProperty("access_token"), stored.getProperty("token_type"), expiresIn);
+      } catch (NoSuchFileException e) {
+         return null;
+      } catch (IOException e) {
+         logger.warn(e, "could not read token from %s", file);
+         return null;
+      } catch (RuntimeException e) {
+         logger.warn(e, "ignoring malformed token in %s", file);
+         return null;
+      }
+   }
+
+   /** Stores {@code token}, which was just obtained, replacing any token stored for {@code key}. */
+   public synchronized void put(TokenCache.Key key, Token token) {
+      if (!isEnabled()) {
+         return;
+      }
+      Path file = file(key);
+      try {
+         createOwnerOnly(file);
+         Properties stored = new Properties();
+         stored.setProperty("access_token", token.accessToken());
+         stored.setProperty("token_type", token.tokenType());
+         stored.setProperty("expires_at", Long.toString(currentTimeSeconds() + token.expiresIn()));
+         ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+         stored.store(bytes, null);
+         try (FileChannel channel = FileChannel.open(file, WRITE); FileLock lock = channel.lock()) {
+            channel.truncate(0);
+            channel.write(ByteBuffer.wrap(bytes.toByteArray()));
+            channel.force(false);
+         }
+      } catch (IOException e) {
+         logger.warn(e, "could not store token in %s", file);
+      }
+   }
+
+   /** Removes the token stored for {@code key}, if any. */
+   public synchronized void remove(TokenCache.Key key) {
+      if (!isEnabled()) {
+         return;
+      }
+      Path file = file(key);
+      try {
+         Files.deleteIfExists(file);
+      } catch (IOException e) {
+         logger.warn(e, "could not remove token in %s", file);
+      }
+   }
+
+   private Path file(TokenCache.Key key) {
+      String name = Hashing.sha256()
+            .hashString(Joiner.on('\n').join(key.identity(), key.scope(), key.audience()), UTF_8).toString();
+      return Paths.get(directory, name + ".token");
+   }
+
+   private void createOwnerOnly(Path file) throws IOException {
+      Path parent = file.getParent();
+      try {
+         if (!Files.isDirectory(parent)) {
+            Files.createDirectories(parent, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString(
+                  "rwx------")));
+         }
+         Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+      } catch (FileAlreadyExistsException e) {
+         // another process created it first
+      } catch (UnsupportedOperationException e) {
+         // not a posix file system
+         Files.createDirectories(parent);
+         if (!Files.exists(file)) {
+            Files.newOutputStream(file, CREATE).close();
+         }
+      }
+      checkOwnerOnly(parent, true);
+      checkOwnerOnly(file, false);
+   }
+
+   /**
+    * Fails unless {@code path} is owned by the current user and not accessible to anyone else. Files are not followed
+    * when they are links, so a link planted in the directory is refused. Only posix file systems are checked.
+    */
+   private static void checkOwnerOnly(Path path, boolean followLinks) throws IOException {
+      PosixFileAttributes attributes;
+      try {
+         attributes = followLinks ? Files.readAttributes(path, PosixFileAttributes.class)
+               : Files.readAttributes(path, PosixFileAttributes.class, NOFOLLOW_LINKS);
+      } catch (UnsupportedOperationException e) {
+         return;
+      }
+      String owner = attributes.owner().getName();
+      if (!owner.equals(System.getProperty("user.name"))) {
+         throw new IOException(path + " is owned by " + owner + ", not the current user");
+      }
+      if (!followLinks && !attributes.isRegularFile()) {
+         throw new IOException(path + " is not a regular file");
+      }
+      if (!Sets.intersection(attributes.permissions(), GROUP_OR_OTHERS).isEmpty()) {
+         throw new IOException(path + " is accessible by others: "
+               + PosixFilePermissions.toString(attributes.permissions()));
+      }
+   }
+
+   long currentTimeSeconds() {
+      return System.currentTimeMillis() / 1000;
+   }
+}
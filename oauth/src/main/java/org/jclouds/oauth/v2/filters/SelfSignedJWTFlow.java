@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.oauth.v2.filters;
+
+import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
+import static org.jclouds.oauth.v2.config.OAuthProperties.SELF_SIGNED_JWT_AUDIENCE;
+
+import java.net.URI;
+
+import javax.inject.Named;
+
+import org.jclouds.domain.Credentials;
+import org.jclouds.http.HttpException;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.oauth.v2.config.Authorization;
+import org.jclouds.oauth.v2.domain.SelfSignedClaims;
+import org.jclouds.oauth.v2.domain.Token;
+import org.jclouds.oauth.v2.functions.ClaimsToAssertion;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.base.Splitter;
+import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Inject;
+
+/**
+ * When the user supplies {@link org.jclouds.oauth.v2.config.CredentialType#SELF_SIGNED_JWT_CREDENTIALS}, requests
+ * carry a JWT signed with the service account key as their bearer token. No request is made to the token endpoint.
+ *
+ * <p/>Google requires the audience of each JWT to be the service called. It is
+ * {@link org.jclouds.oauth.v2.config.OAuthProperties#SELF_SIGNED_JWT_AUDIENCE} when set. Otherwise it is derived from
+ * the request: {@code https://www.googleapis.com/compute/v1/...} is signed for {@code https://compute.googleapis.com/}
+ * and {@code https://www.googleapis.com/upload/storage/v1/...} for {@code https://storage.googleapis.com/}. Other
+ * endpoints use their scheme and host. Signed JWTs are kept in the {@link TokenCache} for their lifetime, so a key is
+ * only used once per audience and session interval.
+ */
+public final class SelfSignedJWTFlow implements OAuthFilter {
+   private final ClaimsToAssertion claimsToAssertion;
+   private final Supplier<Credentials> credentialsSupplier;
+   private final long tokenDuration;
+   private final TokenCache tokenCache;
+   /** Keys by audience, so that requests to the same api share one without allocating. */
+   private final Cache<String, TokenCache.Key> keys = CacheBuilder.newBuilder().maximumSize(100).build();
+
+   @Inject(optional = true)
+   @Named(SELF_SIGNED_JWT_AUDIENCE)
+   String configuredAudience;
+
+   private final Function<TokenCache.Key, Token> signClaims = new Function<TokenCache.Key, Token>() {
+      @Override public Token apply(TokenCache.Key key) {
+         long now = currentTimeSeconds();
+         SelfSignedClaims claims = SelfSignedClaims.create( //
+               key.identity(), // iss
+               key.identity(), // sub
+               key.audience(), // aud
+               now + tokenDuration, // exp
+               now // iat
+         );
+         return Token.create(claimsToAssertion.apply(claims), "Bearer", tokenDuration);
+      }
+   };
+
+   @Inject SelfSignedJWTFlow(ClaimsToAssertion claimsToAssertion,
+         @Authorization Supplier<Credentials> credentialsSupplier, @Named(PROPERTY_SESSION_INTERVAL) long tokenDuration,
+         TokenCache tokenCache) {
+      this.claimsToAssertion = claimsToAssertion;
+      this.credentialsSupplier = credentialsSupplier;
+      this.tokenDuration = tokenDuration;
+      this.tokenCache = tokenCache;
+   }
+
+   @Override public HttpRequest filter(HttpRequest request) throws HttpException {
+      String authorization = tokenCache.authorization(key(request.getEndpoint()), signClaims);
+      return request.toBuilder().addHeader("Authorization", authorization).build();
+   }
+
+   private TokenCache.Key key(URI endpoint) {
+      String identity = credentialsSupplier.get().identity;
+      String audience = configuredAudience != null ? configuredAudience : audience(endpoint);
+      TokenCache.Key key = keys.getIfPresent(audience);
+      if (key == null || !key.identity().equals(identity)) {
+         key = TokenCache.Key.create(identity, "", audience);
+         keys.put(audience, key);
+      }
+      return key;
+   }
+
+   /* Path segments that precede the service name in googleapis urls */
+   private static final ImmutableSet<String> PATH_PREFIXES = ImmutableSet.of("upload", "batch", "download");
+
+   @VisibleForTesting
+   static String audience(URI endpoint) {
+      if ("www.googleapis.com".equals(endpoint.getHost()) && endpoint.getRawPath() != null) {
+         for (String segment : Splitter.on('/').omitEmptyStrings().split(endpoint.getRawPath())) {
+            if (!PATH_PREFIXES.contains(segment)) {
+               return "https://" + segment + ".googleapis.com/";
+            }
+         }
+      }
+      return endpoint.getScheme() + "://" + endpoint.getHost() + "/";
+   }
+
+   long currentTimeSeconds() {
+      return System.currentTimeMillis() / 1000;
+   }
+}
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.oauth.v2.filters;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.propagate;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.jclouds.oauth.v2.config.OAuthProperties.TOKEN_EXPIRY_MARGIN;
+import static org.jclouds.oauth.v2.config.OAuthProperties.TOKEN_REFRESH_FRACTION;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.oauth.v2.config.OAuthMetricsListener;
+import org.jclouds.oauth.v2.domain.Token;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.inject.Inject;
+
+/**
+ * Caches {@link Token tokens} by the identity, scopes and audience they were authorized for.
+ *
+ * <p/>Unlike a time-based cache with a fixed expiry, each entry lives as long as the {@link Token#expiresIn()} returned
+ * by the server, less {@link org.jclouds.oauth.v2.config.OAuthProperties#TOKEN_EXPIRY_MARGIN a safety margin}. A
+ * single token therefore serves every request for the same scopes until it is about to expire. Concurrent misses on
+ * the same key share one load.
+ *
+ * <p/>Once a token has lived for {@link org.jclouds.oauth.v2.config.OAuthProperties#TOKEN_REFRESH_FRACTION a fraction}
+ * of its lifetime, the next lookup asks the {@link TokenRefreshScheduler} to renew it in the background and keeps
+ * returning the still-valid token until the new one is cached. Request threads only block when no valid token exists.
+ *
+ * <p/>When a {@link PersistentTokenStore} is configured, a missing token is looked up there before calling the loader,
+ * and every newly loaded token is written to it.
+ */
+@Singleton
+public final class TokenCache {
+
+   /** What a token was authorized for. Requests that need the same key can share the same token. */
+   @AutoValue public abstract static class Key {
+      /** The principal the token was issued to. In google, the service account email. */
+      public abstract String identity();
+
+      /** A comma-separated list of scopes the token grants. */
+      public abstract String scope();
+
+      /** Who the token is intended for. */
+      public abstract String audience();
+
+      public static Key create(String identity, String scope, String audience) {
+         return new AutoValue_TokenCache_Key(identity, scope, audience);
+      }
+
+      Key() {
+      }
+   }
+
+   /**
+    * A token, its rendered {@code Authorization} header value, the tick at which it should be renewed and the tick at
+    * which it should no longer be served.
+    */
+   static final class ExpiringToken {
+      final Token token;
+      final String authorization;
+      final long refreshAtNanos;
+      final long expiresAtNanos;
+
+      ExpiringToken(Token token, long refreshAtNanos, long expiresAtNanos) {
+         this.token = token;
+         this.authorization = token.tokenType() + " " + token.accessToken();
+         this.refreshAtNanos = refreshAtNanos;
+         this.expiresAtNanos = expiresAtNanos;
+      }
+
+      boolean needsRefresh(long nowNanos) {
+         return nowNanos - refreshAtNanos >= 0;
+      }
+
+      boolean isExpired(long nowNanos) {
+         return nowNanos - expiresAtNanos >= 0;
+      }
+   }
+
+   @Inject(optional = true)
+   @Named(TOKEN_EXPIRY_MARGIN)
+   long expiryMarginSeconds = 30;
+
+   @Inject(optional = true)
+   @Named(TOKEN_REFRESH_FRACTION)
+   double refreshFraction = 0.75;
+
+   private final Ticker ticker;
+   private final TokenRefreshScheduler refreshScheduler;
+   private final PersistentTokenStore tokenStore;
+   private final OAuthMetricsListener metrics;
+   private final Cache<Key, ExpiringToken> tokens = CacheBuilder.newBuilder().build();
+   private final AtomicLong hitCount = new AtomicLong();
+   private final AtomicLong missCount = new AtomicLong();
+
+   @Inject TokenCache(TokenRefreshScheduler refreshScheduler, PersistentTokenStore tokenStore,
+         OAuthMetricsListener metrics) {
+      this(Ticker.systemTicker(), refreshScheduler, tokenStore, metrics);
+   }
+
+   @VisibleForTesting TokenCache(Ticker ticker, TokenRefreshScheduler refreshScheduler,
+         PersistentTokenStore tokenStore, OAuthMetricsListener metrics) {
+      this.ticker = checkNotNull(ticker, "ticker");
+      this.refreshScheduler = checkNotNull(refreshScheduler, "refreshScheduler");
+      this.tokenStore = checkNotNull(tokenStore, "tokenStore");
+      this.metrics = checkNotNull(metrics, "metrics");
+   }
+
+   /**
+    * Returns the cached token for {@code key}, or calls {@code loader} when it is absent or expired.
+    *
+    * @throws RuntimeException thrown by the loader, propagated as-is.
+    */
+   public Token get(Key key, Function<Key, Token> loader) {
+      return lookup(key, loader).token;
+   }
+
+   /**
+    * Like {@link #get}, but returns the {@code Authorization} header value for the token, e.g. {@code Bearer ya29.xx}.
+    * The value is rendered once per token, so filters don't allocate it per request.
+    */
+   public String authorization(Key key, Function<Key, Token> loader) {
+      return lookup(key, loader).authorization;
+   }
+
+   private ExpiringToken lookup(final Key key, final Function<Key, Token> loader) {
+      ExpiringToken cached = tokens.getIfPresent(key);
+      long now = ticker.read();
+      if (cached != null && !cached.isExpired(now)) {
+         hitCount.incrementAndGet();
+         metrics.tokenCacheHit(key);
+         if (cached.needsRefresh(now) && !refreshScheduler.isRefreshing(key)) {
+            metrics.tokenRefreshStarted(key, cached.expiresAtNanos - now);
+            refreshScheduler.refresh(key, new Callable<Token>() {
+               @Override public Token call() throws Exception {
+                  // cache before the refresh is marked done, so no one sees it finished with the old token in place
+                  ExpiringToken refreshed = expiring(loader.apply(key));
+                  tokenStore.put(key, refreshed.token);
+                  tokens.put(key, refreshed);
+                  return refreshed.token;
+               }
+            });
+         }
+         return cached;
+      }
+      missCount.incrementAndGet();
+      metrics.tokenCacheMiss(key);
+      if (cached != null) {
+         // only remove the entry we saw, not one another thread may have just loaded
+         tokens.asMap().remove(key, cached);
+      }
+      try {
+         return tokens.get(key, new Callable<ExpiringToken>() {
+            @Override public ExpiringToken call() throws Exception {
+               Token stored = tokenStore.get(key);
+               if (stored != null && stored.expiresIn() > expiryMarginSeconds) {
+                  return expiring(stored);
+               }
+               Token loaded = loader.apply(key);
+               tokenStore.put(key, loaded);
+               return expiring(loaded);
+            }
+         });
+      } catch (ExecutionException e) {
+         throw propagate(e.getCause());
+      } catch (UncheckedExecutionException e) {
+         throw propagate(e.getCause());
+      }
+   }
+
+   /** Discards every cached token, including stored copies, for example after the credentials changed. */
+   public void invalidateAll() {
+      for (Key key : tokens.asMap().keySet()) {
+         tokenStore.remove(key);
+      }
+      tokens.invalidateAll();
+   }
+
+   /** How many lookups were served by a cached, unexpired token. */
+   public long hitCount() {
+      return hitCount.get();
+   }
+
+   /** How many lookups had to obtain a new token. */
+   public long missCount() {
+      return missCount.get();
+   }
+
+   ExpiringToken expiring(Token token) {
+      long expiresIn = token.expiresIn();
+      // make the token expire a bit before the deadline to make sure there aren't session expiration exceptions
+      long cacheNanos = SECONDS.toNanos(expiresIn > expiryMarginSeconds ? expiresIn - expiryMarginSeconds : expiresIn);
+      long now = ticker.read();
+      long refreshNanos = refreshFraction < 1 ? (long) (cacheNanos * refreshFraction) : cacheNanos;
+      return new ExpiringToken(token, now + refreshNanos, now + cacheNanos);
+   }
+}
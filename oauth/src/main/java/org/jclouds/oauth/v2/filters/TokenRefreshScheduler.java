@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.oauth.v2.filters;
+
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.logging.Logger;
+import org.jclouds.oauth.v2.config.OAuthMetricsListener;
+import org.jclouds.oauth.v2.domain.Token;
+
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Renews tokens on a background thread, so that request threads keep using the current token while a new one is
+ * being authorized.
+ *
+ * <p/>At most one refresh per {@link TokenCache.Key} is in flight at any time: concurrent callers share it.
+ */
+@Singleton
+public class TokenRefreshScheduler {
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final ListeningExecutorService executor;
+   private final OAuthMetricsListener metrics;
+   private final ConcurrentMap<TokenCache.Key, ListenableFuture<Token>> inFlight = Maps.newConcurrentMap();
+
+   @Inject TokenRefreshScheduler(@Named(PROPERTY_USER_THREADS) ListeningExecutorService executor,
+         OAuthMetricsListener metrics) {
+      this.executor = executor;
+      this.metrics = metrics;
+   }
+
+   /**
+    * Starts loading a new token for {@code key}, unless a refresh for it is already running.
+    *
+    * @return the refresh in flight for {@code key}.
+    */
+   public ListenableFuture<Token> refresh(final TokenCache.Key key, Callable<Token> loader) {
+      final ListenableFutureTask<Token> task = ListenableFutureTask.create(loader);
+      ListenableFuture<Token> existing = inFlight.putIfAbsent(key, task);
+      if (existing != null) {
+         return existing;
+      }
+      Futures.addCallback(task, new FutureCallback<Token>() {
+         @Override public void onSuccess(Token result) {
+            inFlight.remove(key, task);
+         }
+
+         @Override public void onFailure(Throwable t) {
+            // the current token is still served; the next lookup will try again
+            logger.warn(t, "<< could not refresh token for %s", key);
+            metrics.tokenRefreshFailed(key, t);
+            inFlight.remove(key, task);
+         }
+      });
+      logger.debug(">> refreshing token for %s", key);
+      executor.execute(task);
+      return task;
+   }
+
+   /** Whether a refresh for {@code key} is currently running. */
+   public boolean isRefreshing(TokenCache.Key key) {
+      return inFlight.containsKey(key);
+   }
+}
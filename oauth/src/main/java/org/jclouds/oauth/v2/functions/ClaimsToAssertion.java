@@ -16,8 +16,8 @@
  */
 package org.jclouds.oauth.v2.functions;
 
+import static com.google.common.base.Charsets.US_ASCII;
 import static com.google.common.base.Charsets.UTF_8;
-import static com.google.common.base.Joiner.on;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.io.BaseEncoding.base64Url;
 import static org.jclouds.oauth.v2.config.OAuthProperties.JWS_ALG;
@@ -27,61 +27,114 @@ import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.Signature;
 import java.security.SignatureException;
-import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.jclouds.json.Json;
 import org.jclouds.oauth.v2.config.Authorization;
+import org.jclouds.oauth.v2.config.OAuthMetricsListener;
 import org.jclouds.rest.AuthorizationException;
 
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
-import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.BaseEncoding;
 
 public final class ClaimsToAssertion implements Function<Object, String> {
-   private static final List<String> SUPPORTED_ALGS = ImmutableList.of("RS256", "none");
+   private static final BaseEncoding BASE64_URL = base64Url().omitPadding();
+
+   /** The header only depends on the alg, so it is encoded once, with its trailing separator. */
+   private static final Map<String, String> ENCODED_HEADERS = ImmutableMap.of( //
+         "RS256", encodedHeader("RS256"), //
+         "none", encodedHeader("none"));
 
    private final Supplier<PrivateKey> privateKey;
    private final Json json;
    private final String alg;
+   private final String encodedHeader;
+   private final byte[] encodedHeaderBytes;
+   private final OAuthMetricsListener metrics;
+
+   /**
+    * Signatures are expensive to look up and initialize, so each thread keeps one bound to the current key. The cache
+    * belongs to this instance, so keys do not outlive the context that supplied them.
+    */
+   private final ThreadLocal<Signer> signers = new ThreadLocal<Signer>() {
+      @Override protected Signer initialValue() {
+         return new Signer();
+      }
+   };
 
-   @Inject ClaimsToAssertion(@Named(JWS_ALG) String alg, @Authorization Supplier<PrivateKey> privateKey, Json json) {
+   @Inject ClaimsToAssertion(@Named(JWS_ALG) String alg, @Authorization Supplier<PrivateKey> privateKey, Json json,
+         OAuthMetricsListener metrics) {
       this.alg = alg;
-      checkArgument(SUPPORTED_ALGS.contains(alg), "%s %s not in supported list", JWS_ALG, alg, SUPPORTED_ALGS);
+      checkArgument(ENCODED_HEADERS.containsKey(alg), "%s %s not in supported list", JWS_ALG, alg,
+            ENCODED_HEADERS.keySet());
       this.privateKey = privateKey;
       this.json = json;
+      this.encodedHeader = ENCODED_HEADERS.get(alg);
+      this.encodedHeaderBytes = encodedHeader.getBytes(US_ASCII);
+      this.metrics = metrics;
    }
 
    @Override public String apply(Object input) {
-      String encodedHeader = String.format("{\"alg\":\"%s\",\"typ\":\"JWT\"}", alg);
-      String encodedClaimSet = json.toJson(input);
+      String encodedClaimSet = BASE64_URL.encode(json.toJson(input).getBytes(UTF_8));
 
-      encodedHeader = base64Url().omitPadding().encode(encodedHeader.getBytes(UTF_8));
-      encodedClaimSet = base64Url().omitPadding().encode(encodedClaimSet.getBytes(UTF_8));
-
-      byte[] signature = alg.equals("none")
-            ? null
-            : sha256(privateKey.get(), on(".").join(encodedHeader, encodedClaimSet).getBytes(UTF_8));
-      String encodedSignature = signature != null ?  base64Url().omitPadding().encode(signature) : "";
+      if (alg.equals("none")) {
+         return encodedHeader + encodedClaimSet + ".";
+      }
+      PrivateKey key = privateKey.get();
+      long start = System.nanoTime();
+      byte[] signature = signers.get().sign(key, encodedHeaderBytes, encodedClaimSet.getBytes(US_ASCII));
+      metrics.assertionSigned(System.nanoTime() - start);
+      String encodedSignature = BASE64_URL.encode(signature);
 
       // the final assertion in base 64 encoded {header}.{claimSet}.{signature} format
-      return on(".").join(encodedHeader, encodedClaimSet, encodedSignature);
+      return new StringBuilder(encodedHeader.length() + encodedClaimSet.length() + 1 + encodedSignature.length())
+            .append(encodedHeader).append(encodedClaimSet).append('.').append(encodedSignature).toString();
    }
 
    static byte[] sha256(PrivateKey privateKey, byte[] input) {
-      try {
-         Signature signature = Signature.getInstance("SHA256withRSA");
-         signature.initSign(privateKey);
-         signature.update(input);
-         return signature.sign();
-      } catch (NoSuchAlgorithmException e) {
-         throw new AssertionError(e);
-      } catch (SignatureException e) {
-         throw new AuthorizationException(e);
-      } catch (InvalidKeyException e) {
-         throw new AuthorizationException(e);
+      return new Signer().sign(privateKey, input);
+   }
+
+   private static String encodedHeader(String alg) {
+      return BASE64_URL.encode(String.format("{\"alg\":\"%s\",\"typ\":\"JWT\"}", alg).getBytes(UTF_8)) + ".";
+   }
+
+   /** A {@code SHA256withRSA} signature, re-initialized only when the private key changes. Not thread-safe. */
+   private static final class Signer {
+      private final Signature signature;
+      private PrivateKey key;
+
+      Signer() {
+         try {
+            signature = Signature.getInstance("SHA256withRSA");
+         } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+         }
+      }
+
+      byte[] sign(PrivateKey privateKey, byte[]... input) {
+         try {
+            if (privateKey != key) {
+               key = null;
+               signature.initSign(privateKey);
+               key = privateKey;
+            }
+            for (byte[] part : input) {
+               signature.update(part);
+            }
+            // sign() resets the signature, so it is ready for the next input with the same key
+            return signature.sign();
+         } catch (SignatureException e) {
+            key = null;
+            throw new AuthorizationException(e);
+         } catch (InvalidKeyException e) {
+            throw new AuthorizationException(e);
+         }
       }
    }
 }
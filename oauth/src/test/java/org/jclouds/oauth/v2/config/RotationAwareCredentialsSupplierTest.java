@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.oauth.v2.config;
+
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.jclouds.oauth.v2.config.OAuthProperties.AUDIENCE;
+import static org.jclouds.util.Strings2.toStringAndClose;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.concurrent.config.ExecutorServiceModule;
+import org.jclouds.domain.Credentials;
+import org.jclouds.oauth.v2.AuthorizationApi;
+import org.jclouds.oauth.v2.OAuthTestUtils;
+import org.jclouds.oauth.v2.config.OAuthScopes.SingleScope;
+import org.jclouds.oauth.v2.domain.Token;
+import org.jclouds.oauth.v2.filters.TokenCache;
+import org.jclouds.rest.AnonymousHttpApiMetadata;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Binder;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Module;
+import com.google.inject.TypeLiteral;
+
+@Test(groups = "unit", testName = "RotationAwareCredentialsSupplierTest")
+public class RotationAwareCredentialsSupplierTest {
+
+   public void rotationInvalidatesPrivateKeysAndTokens() throws Exception {
+      String pem = toStringAndClose(OAuthTestUtils.class.getResourceAsStream("/testpk.pem"));
+      Credentials first = new Credentials("foo@developer.gserviceaccount.com", pem);
+      Credentials rotated = new Credentials("bar@developer.gserviceaccount.com", pem);
+      final AtomicReference<Credentials> current = new AtomicReference<Credentials>(first);
+      final InMemoryOAuthMetricsListener metrics = new InMemoryOAuthMetricsListener();
+
+      Injector injector = ContextBuilder.newBuilder(AnonymousHttpApiMetadata.forApi(AuthorizationApi.class))
+            .credentialsSupplier(new Supplier<Credentials>() {
+               @Override public Credentials get() {
+                  return current.get();
+               }
+            })
+            .endpoint("http://localhost/o/oauth2/token")
+            .overrides(properties())
+            .modules(ImmutableSet.of(new ExecutorServiceModule(sameThreadExecutor()), new OAuthModule(), new Module() {
+               @Override public void configure(Binder binder) {
+                  binder.bind(OAuthScopes.class).toInstance(SingleScope.create("https://www.googleapis.com/auth/foo"));
+                  binder.bind(OAuthMetricsListener.class).toInstance(metrics);
+               }
+            }))
+            .buildInjector();
+
+      Supplier<Credentials> credentials = injector.getInstance(
+            Key.get(new TypeLiteral<Supplier<Credentials>>() {}, Authorization.class));
+      PrivateKeySupplier privateKeys = injector.getInstance(PrivateKeySupplier.class);
+      TokenCache tokenCache = injector.getInstance(TokenCache.class);
+      TokenCache.Key key = TokenCache.Key.create("foo@developer.gserviceaccount.com", "scope", "audience");
+      Function<TokenCache.Key, Token> loader = new Function<TokenCache.Key, Token>() {
+         @Override public Token apply(TokenCache.Key input) {
+            return Token.create("token", "Bearer", 3600);
+         }
+      };
+
+      assertSame(credentials.get(), first);
+      privateKeys.get();
+      tokenCache.authorization(key, loader);
+      assertEquals(metrics.privateKeyLatency().count(), 1);
+      assertEquals(tokenCache.missCount(), 1);
+
+      // unchanged credentials keep what was derived from them
+      assertSame(credentials.get(), first);
+      privateKeys.get();
+      tokenCache.authorization(key, loader);
+      assertEquals(metrics.privateKeyLatency().count(), 1);
+      assertEquals(tokenCache.missCount(), 1);
+
+      current.set(rotated);
+      assertSame(credentials.get(), rotated);
+      tokenCache.authorization(key, loader);
+      assertEquals(tokenCache.missCount(), 2);
+      privateKeys.get();
+      assertEquals(metrics.privateKeyLatency().count(), 2);
+
+      // rotating back must parse the first key again rather than reuse it from before the rotation
+      current.set(first);
+      assertSame(credentials.get(), first);
+      privateKeys.get();
+      assertEquals(metrics.privateKeyLatency().count(), 3);
+   }
+
+   private static Properties properties() {
+      Properties overrides = new Properties();
+      overrides.setProperty("oauth.endpoint", "http://localhost/o/oauth2/token");
+      overrides.setProperty(AUDIENCE, "https://accounts.google.com/o/oauth2/token");
+      return overrides;
+   }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.oauth.v2.filters;
+
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.jclouds.oauth.v2.config.CredentialType.METADATA_SERVER_CREDENTIALS;
+import static org.jclouds.oauth.v2.config.OAuthProperties.AUDIENCE;
+import static org.jclouds.oauth.v2.config.OAuthProperties.CREDENTIAL_TYPE;
+import static org.jclouds.oauth.v2.config.OAuthProperties.METADATA_SERVER_ENDPOINT;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Properties;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.concurrent.config.ExecutorServiceModule;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.oauth.v2.AuthorizationApi;
+import org.jclouds.oauth.v2.config.OAuthModule;
+import org.jclouds.oauth.v2.config.OAuthScopes;
+import org.jclouds.oauth.v2.config.OAuthScopes.SingleScope;
+import org.jclouds.rest.AnonymousHttpApiMetadata;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Binder;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+@Test(groups = "unit", testName = "BearerTokenFromMetadataServerMockTest")
+public class BearerTokenFromMetadataServerMockTest {
+
+   public void tokenIsFetchedOnceFromMetadataServer() throws Exception {
+      MockWebServer server = new MockWebServer();
+      server.enqueue(new MockResponse().setBody("{\n" +
+            "  \"access_token\" : \"ya29.metadata\",\n" +
+            "  \"expires_in\" : 3599,\n" +
+            "  \"token_type\" : \"Bearer\"\n" +
+            "}"));
+      server.play();
+
+      try {
+         OAuthFilter filter = injector(server.getUrl("/token").toString()).getInstance(OAuthFilter.class);
+         assertTrue(filter instanceof BearerTokenFromMetadataServer, filter.getClass().getName());
+
+         HttpRequest request = HttpRequest.builder().method("GET").endpoint("https://www.googleapis.com/foo").build();
+         assertEquals(filter.filter(request).getFirstHeaderOrNull("Authorization"), "Bearer ya29.metadata");
+         assertEquals(filter.filter(request).getFirstHeaderOrNull("Authorization"), "Bearer ya29.metadata");
+
+         assertEquals(server.getRequestCount(), 1);
+         RecordedRequest tokenRequest = server.takeRequest();
+         assertEquals(tokenRequest.getMethod(), "GET");
+         assertEquals(tokenRequest.getPath(), "/token");
+         assertEquals(tokenRequest.getHeader("Metadata-Flavor"), "Google");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   private Injector injector(String metadataServerEndpoint) {
+      Properties overrides = new Properties();
+      overrides.setProperty("oauth.endpoint", "http://localhost/o/oauth2/token");
+      overrides.setProperty(AUDIENCE, "https://accounts.google.com/o/oauth2/token");
+      overrides.setProperty(CREDENTIAL_TYPE, METADATA_SERVER_CREDENTIALS.toString());
+      overrides.setProperty(METADATA_SERVER_ENDPOINT, metadataServerEndpoint);
+
+      return ContextBuilder.newBuilder(AnonymousHttpApiMetadata.forApi(AuthorizationApi.class))
+            .credentials("default", "")
+            .endpoint("http://localhost/o/oauth2/token")
+            .overrides(overrides)
+            .modules(ImmutableSet.of(new ExecutorServiceModule(sameThreadExecutor()), new OAuthModule(), new Module() {
+               @Override public void configure(Binder binder) {
+                  binder.bind(OAuthScopes.class).toInstance(SingleScope.create("https://www.googleapis.com/auth/foo"));
+               }
+            }))
+            .buildInjector();
+   }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.oauth.v2.filters;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import org.jclouds.oauth.v2.domain.Token;
+import org.jclouds.oauth.v2.filters.TokenCache.Key;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "PersistentTokenStoreTest", singleThreaded = true)
+public class PersistentTokenStoreTest {
+
+   private static final Key KEY = Key.create("foo@developer.gserviceaccount.com",
+         "https://www.googleapis.com/auth/compute", "https://accounts.google.com/o/oauth2/token");
+
+   private Path directory;
+   private long now;
+   private PersistentTokenStore store;
+
+   @BeforeMethod public void setup() throws Exception {
+      directory = Files.createTempDirectory("tokens").resolve("store");
+      now = 1000;
+      store = new PersistentTokenStore() {
+         @Override long currentTimeSeconds() {
+            return now;
+         }
+      };
+      store.directory = directory.toString();
+   }
+
+   public void disabledWithoutDirectory() {
+      PersistentTokenStore disabled = new PersistentTokenStore();
+      disabled.put(KEY, Token.create("token", "Bearer", 3600));
+      assertNull(disabled.get(KEY));
+   }
+
+   public void expiresInIsCountedFromNow() {
+      store.put(KEY, Token.create("token", "Bearer", 3600));
+      now += 600;
+      assertEquals(store.get(KEY), Token.create("token", "Bearer", 3000));
+   }
+
+   public void expiredTokensAreNotReturned() {
+      store.put(KEY, Token.create("token", "Bearer", 3600));
+      now += 3600;
+      assertNull(store.get(KEY));
+   }
+
+   public void newTokenReplacesStoredOne() {
+      store.put(KEY, Token.create("a-rather-long-token", "Bearer", 3600));
+      store.put(KEY, Token.create("token", "Bearer", 60));
+      assertEquals(store.get(KEY), Token.create("token", "Bearer", 60));
+   }
+
+   public void removeDeletesStoredToken() {
+      store.put(KEY, Token.create("token", "Bearer", 3600));
+      store.remove(KEY);
+      assertNull(store.get(KEY));
+   }
+
+   public void filesAreOnlyAccessibleByOwner() throws Exception {
+      store.put(KEY, Token.create("token", "Bearer", 3600));
+      if (!directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+         return;
+      }
+      assertEquals(PosixFilePermissions.toString(Files.getPosixFilePermissions(directory)), "rwx------");
+      File[] files = directory.toFile().listFiles();
+      assertEquals(files.length, 1);
+      assertEquals(PosixFilePermissions.toString(Files.getPosixFilePermissions(files[0].toPath())), "rw-------");
+   }
+
+   public void refusesDirectoryOthersCanAccess() throws Exception {
+      if (!directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+         return;
+      }
+      Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(
+            PosixFilePermissions.fromString("rwxrwxrwx")));
+      Files.setPosixFilePermissions(directory, PosixFilePermissions.fromString("rwxrwxrwx"));
+      store.put(KEY, Token.create("token", "Bearer", 3600));
+      assertNull(store.get(KEY));
+   }
+
+   public void refusesTokenFileOthersCanAccess() throws Exception {
+      store.put(KEY, Token.create("token", "Bearer", 3600));
+      if (!directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+         return;
+      }
+      Path file = directory.toFile().listFiles()[0].toPath();
+      Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-rw-rw-"));
+      assertNull(store.get(KEY));
+   }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.oauth.v2.filters;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.io.BaseEncoding.base64Url;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
+import static org.jclouds.oauth.v2.config.CredentialType.SELF_SIGNED_JWT_CREDENTIALS;
+import static org.jclouds.oauth.v2.config.OAuthProperties.AUDIENCE;
+import static org.jclouds.oauth.v2.config.OAuthProperties.CREDENTIAL_TYPE;
+import static org.jclouds.oauth.v2.config.OAuthProperties.JWS_ALG;
+import static org.jclouds.oauth.v2.config.OAuthProperties.SELF_SIGNED_JWT_AUDIENCE;
+import static org.jclouds.util.Strings2.toStringAndClose;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.concurrent.config.ExecutorServiceModule;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.json.Json;
+import org.jclouds.oauth.v2.AuthorizationApi;
+import org.jclouds.oauth.v2.OAuthTestUtils;
+import org.jclouds.oauth.v2.config.OAuthModule;
+import org.jclouds.oauth.v2.config.OAuthScopes;
+import org.jclouds.oauth.v2.config.OAuthScopes.SingleScope;
+import org.jclouds.rest.AnonymousHttpApiMetadata;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Binder;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.TypeLiteral;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+
+@Test(groups = "unit", testName = "SelfSignedJWTFlowMockTest")
+public class SelfSignedJWTFlowMockTest {
+
+   private static final String IDENTITY = "foo@developer.gserviceaccount.com";
+   private static final HttpRequest COMPUTE = HttpRequest.builder().method("GET")
+         .endpoint("https://www.googleapis.com/compute/v1/projects/party/zones").build();
+   private static final HttpRequest STORAGE = HttpRequest.builder().method("GET")
+         .endpoint("https://www.googleapis.com/upload/storage/v1/b/bucket/o").build();
+
+   public void signsClaimsLocallyAndReusesTokenPerAudience() throws Exception {
+      MockWebServer server = new MockWebServer();
+      server.play();
+
+      try {
+         Injector injector = injector(server.getUrl("/o/oauth2/token").toString(), new Properties());
+         OAuthFilter filter = injector.getInstance(OAuthFilter.class);
+         assertTrue(filter instanceof SelfSignedJWTFlow, filter.getClass().getName());
+         TokenCache tokenCache = injector.getInstance(TokenCache.class);
+
+         String compute = filter.filter(COMPUTE).getFirstHeaderOrNull("Authorization");
+         assertEquals(filter.filter(COMPUTE).getFirstHeaderOrNull("Authorization"), compute);
+         assertEquals(tokenCache.missCount(), 1);
+
+         Map<String, Object> claims = claims(injector, compute);
+         assertEquals(claims.get("iss"), IDENTITY);
+         assertEquals(claims.get("sub"), IDENTITY);
+         assertEquals(claims.get("aud"), "https://compute.googleapis.com/");
+         assertEquals(((Number) claims.get("exp")).longValue() - ((Number) claims.get("iat")).longValue(), 1800);
+
+         String storage = filter.filter(STORAGE).getFirstHeaderOrNull("Authorization");
+         assertNotEquals(storage, compute);
+         assertEquals(claims(injector, storage).get("aud"), "https://storage.googleapis.com/");
+         assertEquals(tokenCache.missCount(), 2);
+
+         assertEquals(server.getRequestCount(), 0);
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void configuredAudienceIsSharedByAllRequests() throws Exception {
+      MockWebServer server = new MockWebServer();
+      server.play();
+
+      try {
+         Properties overrides = new Properties();
+         overrides.setProperty(SELF_SIGNED_JWT_AUDIENCE, "https://example.googleapis.com/");
+         Injector injector = injector(server.getUrl("/o/oauth2/token").toString(), overrides);
+         OAuthFilter filter = injector.getInstance(OAuthFilter.class);
+
+         String compute = filter.filter(COMPUTE).getFirstHeaderOrNull("Authorization");
+         assertEquals(filter.filter(STORAGE).getFirstHeaderOrNull("Authorization"), compute);
+         assertEquals(claims(injector, compute).get("aud"), "https://example.googleapis.com/");
+         assertEquals(injector.getInstance(TokenCache.class).missCount(), 1);
+
+         assertEquals(server.getRequestCount(), 0);
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void derivesAudienceFromService() {
+      assertEquals(SelfSignedJWTFlow.audience(URI.create("https://www.googleapis.com/compute/v1/projects")),
+            "https://compute.googleapis.com/");
+      assertEquals(SelfSignedJWTFlow.audience(URI.create("https://www.googleapis.com/batch/storage/v1")),
+            "https://storage.googleapis.com/");
+      assertEquals(SelfSignedJWTFlow.audience(URI.create("https://www.googleapis.com/download/storage/v1/b/o")),
+            "https://storage.googleapis.com/");
+      assertEquals(SelfSignedJWTFlow.audience(URI.create("https://pubsub.googleapis.com/v1/projects")),
+            "https://pubsub.googleapis.com/");
+   }
+
+   private static Map<String, Object> claims(Injector injector, String authorization) {
+      assertTrue(authorization.startsWith("Bearer "), authorization);
+      List<String> parts = Splitter.on('.').splitToList(authorization.substring("Bearer ".length()));
+      assertEquals(parts.size(), 3);
+      String payload = new String(base64Url().omitPadding().decode(parts.get(1)), UTF_8);
+      return injector.getInstance(Json.class).fromJson(payload, new TypeLiteral<Map<String, Object>>() {
+      }.getType());
+   }
+
+   private Injector injector(String tokenEndpoint, Properties overrides) throws Exception {
+      overrides.setProperty(AUDIENCE, "https://accounts.google.com/o/oauth2/token");
+      overrides.setProperty(CREDENTIAL_TYPE, SELF_SIGNED_JWT_CREDENTIALS.toString());
+      overrides.setProperty(JWS_ALG, "RS256");
+      overrides.setProperty(PROPERTY_SESSION_INTERVAL, "1800");
+
+      return ContextBuilder.newBuilder(AnonymousHttpApiMetadata.forApi(AuthorizationApi.class))
+            .credentials(IDENTITY, toStringAndClose(OAuthTestUtils.class.getResourceAsStream("/testpk.pem")))
+            .endpoint(tokenEndpoint)
+            .overrides(overrides)
+            .modules(ImmutableSet.of(new ExecutorServiceModule(sameThreadExecutor()), new OAuthModule(), new Module() {
+               @Override public void configure(Binder binder) {
+                  binder.bind(OAuthScopes.class).toInstance(SingleScope.create("https://www.googleapis.com/auth/foo"));
+               }
+            }))
+            .buildInjector();
+   }
+}
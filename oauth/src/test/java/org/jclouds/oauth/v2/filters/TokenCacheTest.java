@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.oauth.v2.filters;
+
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jclouds.oauth.v2.config.InMemoryOAuthMetricsListener;
+import org.jclouds.oauth.v2.config.OAuthMetricsListener;
+import org.jclouds.oauth.v2.domain.Token;
+import org.jclouds.oauth.v2.filters.TokenCache.Key;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.AbstractListeningExecutorService;
+
+@Test(groups = "unit", testName = "TokenCacheTest")
+public class TokenCacheTest {
+
+   private static final Key KEY = Key.create("foo@developer.gserviceaccount.com",
+         "https://www.googleapis.com/auth/compute", "https://accounts.google.com/o/oauth2/token");
+
+   private static final OAuthMetricsListener NO_METRICS = new OAuthMetricsListener.NoOp();
+
+   private static final TokenRefreshScheduler SCHEDULER = new TokenRefreshScheduler(sameThreadExecutor(), NO_METRICS);
+
+   private static final PersistentTokenStore NO_STORE = new PersistentTokenStore();
+
+   static final class FakeTicker extends Ticker {
+      final AtomicLong nanos = new AtomicLong();
+
+      @Override public long read() {
+         return nanos.get();
+      }
+
+      void advance(long seconds) {
+         nanos.addAndGet(SECONDS.toNanos(seconds));
+      }
+   }
+
+   /** Runs tasks only when asked to, so tests can observe the cache while a refresh is in flight. */
+   static final class ManualExecutor extends AbstractListeningExecutorService {
+      final List<Runnable> pending = Lists.newArrayList();
+
+      void runPending() {
+         for (Runnable task : ImmutableList.copyOf(pending)) {
+            pending.remove(task);
+            task.run();
+         }
+      }
+
+      @Override public void execute(Runnable command) {
+         pending.add(command);
+      }
+
+      @Override public void shutdown() {
+      }
+
+      @Override public List<Runnable> shutdownNow() {
+         return ImmutableList.of();
+      }
+
+      @Override public boolean isShutdown() {
+         return false;
+      }
+
+      @Override public boolean isTerminated() {
+         return false;
+      }
+
+      @Override public boolean awaitTermination(long timeout, TimeUnit unit) {
+         return true;
+      }
+   }
+
+   static final class CountingLoader implements Function<Key, Token> {
+      final AtomicInteger calls = new AtomicInteger();
+
+      @Override public Token apply(Key key) {
+         return Token.create("token" + calls.incrementAndGet(), "Bearer", 3600);
+      }
+   }
+
+   public void tokenServesItsWholeLifetime() {
+      FakeTicker ticker = new FakeTicker();
+      TokenCache cache = new TokenCache(ticker, SCHEDULER, NO_STORE, NO_METRICS);
+      cache.refreshFraction = 1;
+      CountingLoader loader = new CountingLoader();
+
+      for (int second = 0; second < 3600 - 30; second++) {
+         assertEquals(cache.get(KEY, loader).accessToken(), "token1");
+         ticker.advance(1);
+      }
+
+      assertEquals(loader.calls.get(), 1);
+      assertEquals(cache.missCount(), 1);
+      assertEquals(cache.hitCount(), 3600 - 30 - 1);
+   }
+
+   public void tokenIsRenewedWithinTheExpiryMargin() {
+      FakeTicker ticker = new FakeTicker();
+      TokenCache cache = new TokenCache(ticker, SCHEDULER, NO_STORE, NO_METRICS);
+      cache.refreshFraction = 1;
+      CountingLoader loader = new CountingLoader();
+
+      assertEquals(cache.get(KEY, loader).accessToken(), "token1");
+      ticker.advance(3600 - 30);
+      assertEquals(cache.get(KEY, loader).accessToken(), "token2");
+      assertEquals(cache.missCount(), 2);
+   }
+
+   public void staleTokenIsServedWhileRefreshing() {
+      FakeTicker ticker = new FakeTicker();
+      ManualExecutor executor = new ManualExecutor();
+      TokenCache cache = new TokenCache(ticker, new TokenRefreshScheduler(executor, NO_METRICS), NO_STORE, NO_METRICS);
+      CountingLoader loader = new CountingLoader();
+
+      assertEquals(cache.get(KEY, loader).accessToken(), "token1");
+      ticker.advance(3000);
+
+      // refresh is due: the old token keeps being served and only one refresh is started
+      assertEquals(cache.get(KEY, loader).accessToken(), "token1");
+      assertEquals(cache.get(KEY, loader).accessToken(), "token1");
+      assertEquals(executor.pending.size(), 1);
+      assertEquals(loader.calls.get(), 1);
+
+      executor.runPending();
+      assertEquals(cache.get(KEY, loader).accessToken(), "token2");
+      assertEquals(cache.missCount(), 1);
+   }
+
+   public void metricsAreReported() {
+      FakeTicker ticker = new FakeTicker();
+      InMemoryOAuthMetricsListener metrics = new InMemoryOAuthMetricsListener();
+      ManualExecutor executor = new ManualExecutor();
+      TokenCache cache = new TokenCache(ticker, new TokenRefreshScheduler(executor, metrics), NO_STORE, metrics);
+      CountingLoader loader = new CountingLoader();
+
+      cache.get(KEY, loader);
+      cache.get(KEY, loader);
+      ticker.advance(3000);
+      cache.get(KEY, loader);
+      cache.get(KEY, loader);
+
+      assertEquals(metrics.tokenCacheMisses(), 1);
+      assertEquals(metrics.tokenCacheHits(), 3);
+      assertEquals(metrics.timeToExpiryAtRefresh().count(), 1);
+      assertEquals(metrics.timeToExpiryAtRefresh().max(), SECONDS.toNanos(3600 - 30 - 3000));
+   }
+
+   public void differentScopesGetDifferentTokens() {
+      TokenCache cache = new TokenCache(new FakeTicker(), SCHEDULER, NO_STORE, NO_METRICS);
+      CountingLoader loader = new CountingLoader();
+
+      assertEquals(cache.get(KEY, loader).accessToken(), "token1");
+      assertEquals(cache.get(Key.create(KEY.identity(), "https://www.googleapis.com/auth/compute.readonly",
+            KEY.audience()), loader).accessToken(), "token2");
+      assertEquals(cache.get(KEY, loader).accessToken(), "token1");
+   }
+
+   public void authorizationIsRenderedOncePerToken() {
+      TokenCache cache = new TokenCache(new FakeTicker(), SCHEDULER, NO_STORE, NO_METRICS);
+      CountingLoader loader = new CountingLoader();
+
+      String authorization = cache.authorization(KEY, loader);
+      assertEquals(authorization, "Bearer token1");
+      assertSame(cache.authorization(KEY, loader), authorization);
+   }
+
+   public void invalidateAllForcesNewToken() {
+      TokenCache cache = new TokenCache(new FakeTicker(), SCHEDULER, NO_STORE, NO_METRICS);
+      CountingLoader loader = new CountingLoader();
+
+      cache.get(KEY, loader);
+      cache.invalidateAll();
+      assertEquals(cache.get(KEY, loader).accessToken(), "token2");
+   }
+
+   public void storedTokenIsSharedAcrossCaches() throws Exception {
+      PersistentTokenStore store = new PersistentTokenStore();
+      store.directory = Files.createTempDirectory("tokens").toString();
+      CountingLoader loader = new CountingLoader();
+
+      TokenCache cache = new TokenCache(new FakeTicker(), SCHEDULER, store, NO_METRICS);
+      assertEquals(cache.get(KEY, loader).accessToken(), "token1");
+      // as if another process started
+      TokenCache otherCache = new TokenCache(new FakeTicker(), SCHEDULER, store, NO_METRICS);
+      assertEquals(otherCache.get(KEY, loader).accessToken(), "token1");
+      assertEquals(loader.calls.get(), 1);
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void loaderExceptionsArePropagated() {
+      new TokenCache(new FakeTicker(), SCHEDULER, NO_STORE, NO_METRICS).get(KEY, new Function<Key, Token>() {
+         @Override public Token apply(Key key) {
+            throw new IllegalStateException();
+         }
+      });
+   }
+}
@@ -17,16 +17,27 @@
 package org.jclouds.oauth.v2.functions;
 
 import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.base.Suppliers.ofInstance;
 import static com.google.common.io.BaseEncoding.base64Url;
 import static org.jclouds.oauth.v2.config.PrivateKeySupplierTest.loadPrivateKey;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
 
+import org.jclouds.json.Json;
+import org.jclouds.json.config.GsonModule;
+import org.jclouds.oauth.v2.config.OAuthMetricsListener;
+import org.jclouds.oauth.v2.domain.Claims;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Guice;
+
 @Test(groups = "unit")
 public class ClaimsToAssertionTest {
 
+   private static final Json JSON = Guice.createInjector(new GsonModule()).getInstance(Json.class);
+
    private static final String PAYLOAD = "eyJhbGciOiJSUzI1NiIsInR5cCI6IkpXVCJ9.\n" +
            "eyJpc3MiOiI3NjEzMjY3OTgwNjktcjVtbGpsbG4xcmQ0bHJiaGc3NWVmZ2lncDM2bTc4ajVAZ" +
            "GV2ZWxvcGVyLmdzZXJ2aWNlYWNjb3VudC5jb20iLCJzY29wZSI6Imh0dHBzOi8vd3d3Lmdvb2ds" +
@@ -45,4 +56,24 @@ public class ClaimsToAssertionTest {
 
       assertEquals(base64Url().omitPadding().encode(payloadSignature), SHA256withRSA_PAYLOAD_SIGNATURE_RESULT);
    }
+
+   public void reusedSignerProducesSameAssertion() throws Exception {
+      ClaimsToAssertion claimsToAssertion = new ClaimsToAssertion("RS256", ofInstance(loadPrivateKey()), JSON,
+            new OAuthMetricsListener.NoOp());
+      Claims claims = Claims.create("foo", "https://www.googleapis.com/auth/prediction",
+            "https://accounts.google.com/o/oauth2/token", 1328554385, 1328550785);
+
+      String assertion = claimsToAssertion.apply(claims);
+      assertEquals(claimsToAssertion.apply(claims), assertion);
+      assertTrue(assertion.startsWith("eyJhbGciOiJSUzI1NiIsInR5cCI6IkpXVCJ9."), assertion);
+      assertEquals(assertion.split("\\.").length, 3);
+   }
+
+   public void noneAlgHasEmptySignature() {
+      ClaimsToAssertion claimsToAssertion = new ClaimsToAssertion("none", null, JSON,
+            new OAuthMetricsListener.NoOp());
+
+      assertEquals(claimsToAssertion.apply(ImmutableMap.of("iss", "foo")),
+            "eyJhbGciOiJub25lIiwidHlwIjoiSldUIn0.eyJpc3MiOiJmb28ifQ.");
+   }
 }